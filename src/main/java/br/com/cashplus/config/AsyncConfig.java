@@ -0,0 +1,47 @@
+package br.com.cashplus.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuração dos executores usados pelo processamento assíncrono de requisições.
+ * As threads do Tomcat são liberadas enquanto a consulta de risco está em andamento;
+ * a gravação no banco (bloqueante) é feita em um pool próprio e limitado,
+ * nunca no event loop do WebClient.
+ *
+ * O pool de persistência não é exposto como bean Executor: um Executor no contexto
+ * desativa o applicationTaskExecutor do Spring Boot, e o MVC assíncrono (CompletableFuture,
+ * StreamingResponseBody) passaria a usar um SimpleAsyncTaskExecutor, uma thread por requisição.
+ */
+@Configuration
+public class AsyncConfig {
+    
+    private ThreadPoolTaskExecutor persistenciaExecutor;
+    
+    @Bean(name = "persistenciaScheduler", destroyMethod = "dispose")
+    public Scheduler persistenciaScheduler(
+            @Value("${app.async.persistencia.threads:16}") int threads,
+            @Value("${app.async.persistencia.fila:1000}") int capacidadeFila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(capacidadeFila);
+        executor.setThreadNamePrefix("persistencia-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        this.persistenciaExecutor = executor;
+        return Schedulers.fromExecutor(executor);
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        if (persistenciaExecutor != null) {
+            persistenciaExecutor.shutdown();
+        }
+    }
+}
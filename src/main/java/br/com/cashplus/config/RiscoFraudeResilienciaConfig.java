@@ -0,0 +1,89 @@
+package br.com.cashplus.config;
+
+import br.com.cashplus.service.risco.Bulkhead;
+import br.com.cashplus.service.risco.CircuitBreaker;
+import br.com.cashplus.service.risco.Hedging;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proteções da chamada à API externa de risco de fraude.
+ * O estado do circuito e as rejeições ficam visíveis em /actuator/metrics
+ * (risco.fraude.circuito.*, risco.fraude.bulkhead.* e risco.fraude.hedge.*).
+ */
+@Configuration
+public class RiscoFraudeResilienciaConfig {
+    
+    @Bean
+    public CircuitBreaker riscoFraudeCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.circuito.tamanho-janela:50}") int tamanhoJanela,
+            @Value("${app.risco-fraude.circuito.chamadas-minimas:20}") int chamadasMinimas,
+            @Value("${app.risco-fraude.circuito.taxa-falha-percentual:50}") int taxaFalhaPercentual,
+            @Value("${app.risco-fraude.circuito.chamada-lenta-ms:2000}") long chamadaLentaMs,
+            @Value("${app.risco-fraude.circuito.taxa-lenta-percentual:80}") int taxaLentaPercentual,
+            @Value("${app.risco-fraude.circuito.tempo-aberto-ms:30000}") long tempoAbertoMs,
+            @Value("${app.risco-fraude.circuito.chamadas-teste:5}") int chamadasTeste) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(tamanhoJanela, chamadasMinimas, taxaFalhaPercentual,
+                TimeUnit.MILLISECONDS.toNanos(chamadaLentaMs), taxaLentaPercentual,
+                TimeUnit.MILLISECONDS.toNanos(tempoAbertoMs), chamadasTeste, System::nanoTime);
+        
+        // 0 = fechado, 1 = aberto, 2 = meio-aberto
+        Gauge.builder("risco.fraude.circuito.estado", circuitBreaker, cb -> cb.getEstado().ordinal())
+                .description("Estado do circuit breaker da API externa de risco")
+                .register(meterRegistry);
+        Gauge.builder("risco.fraude.circuito.taxa-falha", circuitBreaker, CircuitBreaker::getTaxaFalhaPercentual)
+                .description("Taxa de falha (%) na janela deslizante")
+                .register(meterRegistry);
+        FunctionCounter.builder("risco.fraude.circuito.rejeitadas", circuitBreaker, CircuitBreaker::getRejeitadas)
+                .description("Chamadas não enviadas à API externa por circuito aberto")
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+    
+    @Bean
+    public Bulkhead riscoFraudeBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.bulkhead.max-chamadas:64}") int maxChamadas) {
+        Bulkhead bulkhead = new Bulkhead(maxChamadas);
+        
+        Gauge.builder("risco.fraude.bulkhead.em-uso", bulkhead, Bulkhead::getEmUso)
+                .description("Chamadas simultâneas em andamento na API externa de risco")
+                .register(meterRegistry);
+        FunctionCounter.builder("risco.fraude.bulkhead.rejeitadas", bulkhead, Bulkhead::getRejeitadas)
+                .description("Chamadas não enviadas à API externa por limite de concorrência")
+                .register(meterRegistry);
+        return bulkhead;
+    }
+    
+    @Bean
+    public Hedging riscoFraudeHedging(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.hedge.enabled:false}") boolean habilitado,
+            @Value("${app.risco-fraude.hedge.atraso-ms:200}") long atrasoMs,
+            @Value("${app.risco-fraude.hedge.adaptativo:true}") boolean adaptativo,
+            @Value("${app.risco-fraude.hedge.orcamento-percentual:5}") int orcamentoPercentual,
+            @Value("${app.risco-fraude.hedge.orcamento-maximo:20}") int orcamentoMaximo) {
+        Hedging hedging = new Hedging(habilitado, Duration.ofMillis(atrasoMs), adaptativo,
+                orcamentoPercentual, orcamentoMaximo);
+        
+        FunctionCounter.builder("risco.fraude.hedge.enviados", hedging, Hedging::getEnviados)
+                .description("Chamadas extras enviadas à API externa por demora da original")
+                .register(meterRegistry);
+        FunctionCounter.builder("risco.fraude.hedge.vencedores", hedging, Hedging::getVencedores)
+                .description("Chamadas extras que responderam antes da original")
+                .register(meterRegistry);
+        Gauge.builder("risco.fraude.hedge.atraso", hedging, h -> h.atrasoAtualNanos() / 1_000_000.0)
+                .description("Atraso (ms) antes de enviar a chamada extra")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return hedging;
+    }
+}
@@ -1,13 +1,21 @@
 package br.com.cashplus.config;
 
+import br.com.cashplus.exception.RateLimitExceededException;
 import br.com.cashplus.exception.SessionException;
+import br.com.cashplus.util.LimitadorRequisicoes;
+import br.com.cashplus.util.LimitadorRequisicoes.Dimensao;
+import br.com.cashplus.util.LimitadorRequisicoes.Regra;
 import br.com.cashplus.util.SessionManager;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class SessionInterceptor implements HandlerInterceptor {
     
@@ -16,6 +24,13 @@ public class SessionInterceptor implements HandlerInterceptor {
     @Autowired
     private SessionManager sessionManager;
     
+    @Autowired
+    private LimitadorRequisicoes limitador;
+    
+    // Só atrás de um proxy confiável: o header é controlado pelo cliente
+    @Value("${app.limite.confiar-x-forwarded-for:false}")
+    private boolean confiarXForwardedFor;
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         // Permite requisições OPTIONS (CORS preflight)
@@ -23,8 +38,19 @@ public class SessionInterceptor implements HandlerInterceptor {
             return true;
         }
         
-        // Endpoints públicos que não precisam de sessão
+        // O dispatch de retomada de respostas assíncronas já foi validado no dispatch original
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        
+        // O limite por endereço vale também para os endpoints públicos que casarem com alguma regra
         String path = request.getRequestURI();
+        Regra regra = limitador.regraPara(request.getMethod(), path);
+        if (regra != null) {
+            verificarLimite(regra, Dimensao.ENDERECO, enderecoCliente(request));
+        }
+        
+        // Endpoints públicos que não precisam de sessão
         if (path.startsWith("/actuator") || path.equals("/") || path.startsWith("/sessao")) {
             return true;
         }
@@ -39,7 +65,32 @@ public class SessionInterceptor implements HandlerInterceptor {
             throw new SessionException("Sessão inválida ou expirada");
         }
         
+        // Por sessão só depois da validação: tokens inválidos não criam baldes
+        if (regra != null) {
+            verificarLimite(regra, Dimensao.SESSAO, sessionToken);
+        }
+        
         return true;
     }
+    
+    private void verificarLimite(Regra regra, Dimensao dimensao, String chave) {
+        long esperaNanos = limitador.consumir(regra, dimensao, chave);
+        if (esperaNanos > 0) {
+            long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new RateLimitExceededException(
+                    "Limite de requisições excedido para " + regra.getRota() + ". Tente novamente em "
+                            + segundos + "s", segundos);
+        }
+    }
+    
+    private String enderecoCliente(HttpServletRequest request) {
+        if (confiarXForwardedFor) {
+            String encaminhado = request.getHeader("X-Forwarded-For");
+            if (encaminhado != null && !encaminhado.isEmpty()) {
+                int virgula = encaminhado.indexOf(',');
+                return (virgula > 0 ? encaminhado.substring(0, virgula) : encaminhado).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
 }
-
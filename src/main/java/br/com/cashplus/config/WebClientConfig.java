@@ -1,8 +1,18 @@
 package br.com.cashplus.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 /**
  * Configuração do WebClient para consumo de APIs externas.
@@ -11,9 +21,57 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class WebClientConfig {
     
     @Bean
+    @Primary
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+    
+    /**
+     * Pool de conexões dedicado à API de risco de fraude.
+     * As métricas do pool (reactor.netty.connection.provider.* com name=risco-fraude:
+     * conexões ativas, ociosas, pendentes e tempo de aquisição) ficam em /actuator/metrics.
+     * O timeout de aquisição de conexão é independente do timeout de resposta da API.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider riscoFraudeConnectionProvider(
+            @Value("${app.risco-fraude.pool.max-conexoes:64}") int maxConexoes,
+            @Value("${app.risco-fraude.pool.max-pendentes:256}") int maxPendentes,
+            @Value("${app.risco-fraude.pool.timeout-aquisicao-ms:1000}") long timeoutAquisicaoMs,
+            @Value("${app.risco-fraude.pool.max-ociosidade-segundos:30}") long maxOciosidadeSegundos,
+            @Value("${app.risco-fraude.pool.max-vida-segundos:300}") long maxVidaSegundos,
+            @Value("${app.risco-fraude.pool.intervalo-remocao-segundos:30}") long intervaloRemocaoSegundos) {
+        return ConnectionProvider.builder("risco-fraude")
+                .maxConnections(maxConexoes)
+                .pendingAcquireMaxCount(maxPendentes)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutAquisicaoMs))
+                .maxIdleTime(Duration.ofSeconds(maxOciosidadeSegundos))
+                .maxLifeTime(Duration.ofSeconds(maxVidaSegundos))
+                .evictInBackground(Duration.ofSeconds(intervaloRemocaoSegundos))
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public WebClient.Builder riscoFraudeWebClientBuilder(
+            @Qualifier("riscoFraudeConnectionProvider") ConnectionProvider connectionProvider,
+            @Value("${app.risco-fraude.api.url:http://api.riscofraude.com/v1/consulta}") String apiUrl,
+            @Value("${app.risco-fraude.pool.timeout-conexao-ms:2000}") int timeoutConexaoMs,
+            @Value("${app.risco-fraude.pool.keep-alive:true}") boolean keepAlive,
+            @Value("${app.risco-fraude.pool.http2:false}") boolean http2) {
+        HttpProtocol[] protocolos;
+        if (!http2) {
+            protocolos = new HttpProtocol[] {HttpProtocol.HTTP11};
+        } else if (apiUrl.startsWith("https")) {
+            protocolos = new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11};
+        } else {
+            protocolos = new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11};
+        }
+        
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(protocolos)
+                .keepAlive(keepAlive)
+                .option(ChannelOption.SO_KEEPALIVE, keepAlive)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutConexaoMs);
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
 }
-
-
@@ -0,0 +1,66 @@
+package br.com.cashplus.controller;
+
+import br.com.cashplus.dto.response.DecisaoRiscoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.service.risco.auditoria.DiarioDecisoesRisco;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Controller REST para consulta do diário de auditoria das decisões de risco de fraude.
+ */
+@RestController
+@RequestMapping("/api/risco-fraude/auditoria")
+public class AuditoriaRiscoController {
+    
+    @Autowired
+    private DiarioDecisoesRisco diarioDecisoesRisco;
+    
+    @Value("${app.risco-fraude.auditoria.limite-maximo-consulta:1000}")
+    private int limiteMaximo;
+    
+    // Ordem cronológica a partir de "de"; percorre os segmentos em disco, então use um período curto
+    @GetMapping
+    public ResponseEntity<List<DecisaoRiscoResponseDTO>> consultar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long operadorId,
+            @RequestParam(defaultValue = "100") int limite) {
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new BusinessException("Limite deve estar entre 1 e " + limiteMaximo);
+        }
+        List<DecisaoRiscoResponseDTO> decisoes = diarioDecisoesRisco.consultar(de, ate, operadorId, limite).stream()
+                .map(this::toResponseDTO)
+                .toList();
+        return ResponseEntity.ok(decisoes);
+    }
+    
+    private DecisaoRiscoResponseDTO toResponseDTO(RegistroDecisaoRisco registro) {
+        return new DecisaoRiscoResponseDTO(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(registro.getInstanteMillis()), ZoneId.systemDefault()),
+                registro.getOperadorId(),
+                BigDecimal.valueOf(registro.getCentavos(), 2),
+                registro.getTipoPagamento(),
+                registro.getTurno(),
+                registro.getCamada() != null ? registro.getCamada().name() : null,
+                registro.getRiscoLocal(),
+                registro.getRiscoRemoto(),
+                registro.getScoreRemoto(),
+                registro.getMensagemRemota(),
+                registro.getMotivoFallback() != null ? registro.getMotivoFallback().name() : null,
+                registro.isVelocidadeExcedida(),
+                registro.isAnomalia(),
+                registro.getRiscoFinal(),
+                registro.getLatenciaMicros());
+    }
+}
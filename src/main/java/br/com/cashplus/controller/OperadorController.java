@@ -1,16 +1,22 @@
 package br.com.cashplus.controller;
 
 import br.com.cashplus.dto.request.OperadorRequestDTO;
+import br.com.cashplus.dto.response.OperadorImportacaoResponseDTO;
 import br.com.cashplus.dto.response.OperadorResponseDTO;
+import br.com.cashplus.service.OperadorImportacaoService;
 import br.com.cashplus.service.OperadorService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -25,12 +31,27 @@ public class OperadorController {
     @Autowired
     private OperadorService operadorService;
     
+    @Autowired
+    private OperadorImportacaoService operadorImportacaoService;
+    
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
     @PostMapping
     public ResponseEntity<OperadorResponseDTO> criar(@Valid @RequestBody OperadorRequestDTO requestDTO) {
         OperadorResponseDTO operadorCriado = operadorService.criar(requestDTO);
         return new ResponseEntity<>(operadorCriado, HttpStatus.CREATED);
     }
     
+    // Corpo lido em streaming (sem @RequestBody): arquivos grandes não são carregados em memória
+    @PostMapping(value = "/importacao", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<OperadorImportacaoResponseDTO> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream corpo) throws IOException {
+        boolean csv = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType));
+        OperadorImportacaoResponseDTO resultado = operadorImportacaoService.importar(corpo, csv);
+        return ResponseEntity.ok(resultado);
+    }
+    
     @GetMapping
     public ResponseEntity<List<OperadorResponseDTO>> listarTodos() {
         List<OperadorResponseDTO> operadores = operadorService.listarTodos();
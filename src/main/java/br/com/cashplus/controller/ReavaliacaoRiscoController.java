@@ -0,0 +1,35 @@
+package br.com.cashplus.controller;
+
+import br.com.cashplus.dto.response.ReavaliacaoRiscoResponseDTO;
+import br.com.cashplus.service.ReavaliacaoRiscoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST para a reavaliação em massa do risco de fraude das transações gravadas.
+ */
+@RestController
+@RequestMapping("/api/risco-fraude/reavaliacoes")
+public class ReavaliacaoRiscoController {
+    
+    @Autowired
+    private ReavaliacaoRiscoService reavaliacaoRiscoService;
+    
+    // Retoma a última execução não concluída a partir do checkpoint ou inicia uma nova
+    @PostMapping
+    public ResponseEntity<ReavaliacaoRiscoResponseDTO> iniciar() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reavaliacaoRiscoService.iniciar());
+    }
+    
+    @GetMapping
+    public ResponseEntity<ReavaliacaoRiscoResponseDTO> consultar() {
+        return ResponseEntity.ok(reavaliacaoRiscoService.consultar());
+    }
+    
+    @PostMapping("/interromper")
+    public ResponseEntity<ReavaliacaoRiscoResponseDTO> interromper() {
+        return ResponseEntity.ok(reavaliacaoRiscoService.interromper());
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.cashplus.controller;
+
+import br.com.cashplus.dto.response.RegrasRiscoResponseDTO;
+import br.com.cashplus.service.risco.MotorRegrasRisco;
+import br.com.cashplus.service.risco.RegrasRiscoCompiladas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST para consulta e recarga das regras locais de risco de fraude.
+ */
+@RestController
+@RequestMapping("/api/risco-fraude/regras")
+public class RegraRiscoController {
+    
+    @Autowired
+    private MotorRegrasRisco motorRegrasRisco;
+    
+    @GetMapping
+    public ResponseEntity<RegrasRiscoResponseDTO> consultar() {
+        return ResponseEntity.ok(toResponseDTO(motorRegrasRisco.getRegras()));
+    }
+    
+    // Regras inválidas resultam em 400 e a versão em uso é mantida
+    @PostMapping("/recarregar")
+    public ResponseEntity<RegrasRiscoResponseDTO> recarregar() {
+        return ResponseEntity.ok(toResponseDTO(motorRegrasRisco.recarregar()));
+    }
+    
+    private RegrasRiscoResponseDTO toResponseDTO(RegrasRiscoCompiladas regras) {
+        return new RegrasRiscoResponseDTO(
+                regras.getOrigem(), regras.getQuantidadeRegras(), regras.getCompiladasEm());
+    }
+}
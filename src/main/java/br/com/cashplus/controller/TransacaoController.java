@@ -1,17 +1,22 @@
 package br.com.cashplus.controller;
 
+import br.com.cashplus.dto.request.TransacaoLoteRequestDTO;
 import br.com.cashplus.dto.request.TransacaoRequestDTO;
+import br.com.cashplus.dto.response.PaginaCursorResponseDTO;
+import br.com.cashplus.dto.response.TransacaoLoteResponseDTO;
 import br.com.cashplus.dto.response.TransacaoResponseDTO;
 import br.com.cashplus.service.TransacaoService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller REST para gerenciamento de Transações.
@@ -25,16 +30,37 @@ public class TransacaoController {
     @Autowired
     private TransacaoService transacaoService;
     
+    // Retornos assíncronos: a thread do Tomcat é liberada enquanto o risco é consultado
     @PostMapping
-    public ResponseEntity<TransacaoResponseDTO> criar(@Valid @RequestBody TransacaoRequestDTO requestDTO) {
-        TransacaoResponseDTO transacaoCriada = transacaoService.criar(requestDTO);
-        return new ResponseEntity<>(transacaoCriada, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<TransacaoResponseDTO>> criar(
+            @Valid @RequestBody TransacaoRequestDTO requestDTO) {
+        return transacaoService.criar(requestDTO)
+                .thenApply(transacaoCriada -> new ResponseEntity<>(transacaoCriada, HttpStatus.CREATED));
+    }
+    
+    @PostMapping("/lote")
+    public CompletableFuture<ResponseEntity<TransacaoLoteResponseDTO>> criarLote(
+            @Valid @RequestBody TransacaoLoteRequestDTO loteDTO) {
+        return transacaoService.criarLote(loteDTO)
+                .thenApply(ResponseEntity::ok);
     }
     
     @GetMapping
-    public ResponseEntity<List<TransacaoResponseDTO>> listarTodas() {
-        List<TransacaoResponseDTO> transacoes = transacaoService.listarTodas();
-        return ResponseEntity.ok(transacoes);
+    public ResponseEntity<PaginaCursorResponseDTO<TransacaoResponseDTO>> listar(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive(message = "Limite deve ser positivo") Integer limite) {
+        PaginaCursorResponseDTO<TransacaoResponseDTO> pagina = transacaoService.listarPagina(cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        boolean ndjson = !"json".equalsIgnoreCase(formato);
+        StreamingResponseBody corpo = saida -> transacaoService.exportar(saida, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(corpo);
     }
     
     @GetMapping("/{id}")
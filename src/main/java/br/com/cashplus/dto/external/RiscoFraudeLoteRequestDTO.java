@@ -0,0 +1,18 @@
+package br.com.cashplus.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para requisição em lote à API externa de risco de fraude.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiscoFraudeLoteRequestDTO {
+    
+    private List<RiscoFraudeRequestDTO> consultas;
+}
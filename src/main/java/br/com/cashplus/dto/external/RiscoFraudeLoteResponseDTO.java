@@ -0,0 +1,19 @@
+package br.com.cashplus.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para resposta em lote da API externa de risco de fraude.
+ * Os resultados vêm na mesma ordem das consultas enviadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiscoFraudeLoteResponseDTO {
+    
+    private List<RiscoFraudeResponseDTO> resultados;
+}
@@ -27,6 +27,9 @@ public class OperadorRequestDTO {
     
     @NotNull(message = "Turno é obrigatório")
     private TurnoEnum turno;
+    
+    // Opcional na atualização: se informada, a alteração só é aplicada sobre essa versão
+    private Long versao;
 }
 
 
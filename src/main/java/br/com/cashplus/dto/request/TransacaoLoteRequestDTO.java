@@ -0,0 +1,23 @@
+package br.com.cashplus.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para entrada de um lote de Transações.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransacaoLoteRequestDTO {
+    
+    @NotEmpty(message = "O lote deve conter ao menos uma transação")
+    @Size(max = 1000, message = "O lote deve conter no máximo 1000 transações")
+    private List<@Valid TransacaoRequestDTO> transacoes;
+}
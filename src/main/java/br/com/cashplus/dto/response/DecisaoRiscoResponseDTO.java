@@ -0,0 +1,36 @@
+package br.com.cashplus.dto.response;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para saída de uma decisão de risco registrada no diário de auditoria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecisaoRiscoResponseDTO {
+    
+    private LocalDateTime dataHora;
+    private Long operadorId;
+    private BigDecimal valor;
+    private TipoPagamentoEnum tipoPagamento;
+    private TurnoEnum turno;
+    private String camada; // LOCAL, REMOTA ou FALLBACK
+    private RiscoFraudeEnum riscoLocal;
+    private RiscoFraudeEnum riscoRemoto;
+    private Integer scoreRemoto;
+    private String mensagemRemota;
+    private String motivoFallback;
+    private boolean velocidadeExcedida;
+    private boolean anomalia;
+    private RiscoFraudeEnum riscoFinal;
+    private int latenciaMicros;
+}
@@ -0,0 +1,17 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com uma linha recusada na importação de Operadores.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperadorImportacaoErroResponseDTO {
+    
+    private int linha; // Número da linha no arquivo enviado (a partir de 1)
+    private String erro;
+}
@@ -0,0 +1,22 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para saída da importação em massa de Operadores.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperadorImportacaoResponseDTO {
+    
+    private int total;
+    private int importados;
+    private int rejeitados;
+    private List<OperadorImportacaoErroResponseDTO> erros; // Limitado a app.operadores.importacao.max-erros
+    private int errosOmitidos;
+}
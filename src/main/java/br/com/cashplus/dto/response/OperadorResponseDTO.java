@@ -18,6 +18,7 @@ public class OperadorResponseDTO {
     private String cpf;
     private TurnoEnum turno;
     private String turnoDescricao;
+    private Long versao;
 }
 
 
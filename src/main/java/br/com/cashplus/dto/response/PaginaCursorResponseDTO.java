@@ -0,0 +1,21 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para saída paginada por cursor (keyset).
+ * Não contém total de registros: a paginação não executa COUNT(*).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorResponseDTO<T> {
+
+    private List<T> itens;
+    private String proximoCursor; // null quando não há mais páginas
+    private boolean temMais;
+}
@@ -0,0 +1,29 @@
+package br.com.cashplus.dto.response;
+
+import br.com.cashplus.model.enums.StatusReavaliacaoEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com o progresso de uma reavaliação em massa do risco de fraude.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReavaliacaoRiscoResponseDTO {
+    
+    private Long id;
+    private StatusReavaliacaoEnum status;
+    private String statusDescricao;
+    private long idMaximo;
+    private long checkpointId;
+    private double percentual; // aproximado pela faixa de ids já concluída
+    private long processadas;
+    private long alteradas;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime atualizadaEm;
+    private LocalDateTime concluidaEm;
+}
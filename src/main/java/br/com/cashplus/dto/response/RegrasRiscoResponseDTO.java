@@ -0,0 +1,20 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com a versão em uso das regras locais de risco de fraude.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegrasRiscoResponseDTO {
+    
+    private String origem;
+    private int quantidadeRegras;
+    private LocalDateTime compiladasEm;
+}
@@ -0,0 +1,19 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o resultado de um item de um lote de Transações.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransacaoLoteItemResponseDTO {
+    
+    private int indice; // Posição do item no lote enviado
+    private boolean sucesso;
+    private TransacaoResponseDTO transacao;
+    private String erro;
+}
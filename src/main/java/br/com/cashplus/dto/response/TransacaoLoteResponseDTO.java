@@ -0,0 +1,21 @@
+package br.com.cashplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para saída do processamento de um lote de Transações.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransacaoLoteResponseDTO {
+    
+    private int total;
+    private int criadas;
+    private int rejeitadas;
+    private List<TransacaoLoteItemResponseDTO> itens;
+}
@@ -1,6 +1,7 @@
 package br.com.cashplus.exception;
 
 import br.com.cashplus.dto.ErrorResponseDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -104,6 +105,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
     }
     
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRateLimitExceededException(
+            RateLimitExceededException ex, WebRequest request) {
+        
+        List<String> errors = new ArrayList<>();
+        errors.add(ex.getMessage());
+        
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            errors,
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+    
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponseDTO> handleTypeMismatch(
             MethodArgumentTypeMismatchException ex, WebRequest request) {
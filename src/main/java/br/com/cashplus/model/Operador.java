@@ -27,7 +27,7 @@ public class Operador {
     private String nome;
     
     @NotNull(message = "CPF é obrigatório")
-    @Column(nullable = false, unique = true, length = 11)
+    @Column(nullable = false, unique = true)
     @Convert(converter = CPFConverter.class)
     private CPF cpf;
     
@@ -36,16 +36,23 @@ public class Operador {
     @Column(nullable = false, length = 10, columnDefinition = "VARCHAR(10)")
     private TurnoEnum turno;
     
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+    
+    /**
+     * CPF na coluna BIGINT; o valor lido do banco já foi validado na gravação.
+     */
     @Converter
-    public static class CPFConverter implements AttributeConverter<CPF, String> {
+    public static class CPFConverter implements AttributeConverter<CPF, Long> {
         @Override
-        public String convertToDatabaseColumn(CPF cpf) {
-            return cpf != null ? cpf.getValor() : null;
+        public Long convertToDatabaseColumn(CPF cpf) {
+            return cpf != null ? cpf.getNumero() : null;
         }
         
         @Override
-        public CPF convertToEntityAttribute(String dbData) {
-            return dbData != null ? CPF.of(dbData) : null;
+        public CPF convertToEntityAttribute(Long dbData) {
+            return dbData != null ? CPF.deNumero(dbData) : null;
         }
     }
 }
@@ -0,0 +1,49 @@
+package br.com.cashplus.model;
+
+import br.com.cashplus.model.enums.StatusReavaliacaoEnum;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execução da reavaliação em massa do risco de fraude.
+ * Todas as transações com id até checkpointId já foram reavaliadas.
+ */
+@Entity
+@Table(name = "reavaliacoes_risco")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReavaliacaoRisco {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, columnDefinition = "VARCHAR(20)")
+    private StatusReavaliacaoEnum status;
+    
+    @Column(nullable = false)
+    private long idMaximo; // transações criadas depois do início já usam as regras atuais
+    
+    @Column(nullable = false)
+    private long checkpointId;
+    
+    @Column(nullable = false)
+    private long processadas;
+    
+    @Column(nullable = false)
+    private long alteradas;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime iniciadaEm;
+    
+    @Column(nullable = false)
+    private LocalDateTime atualizadaEm;
+    
+    private LocalDateTime concluidaEm;
+}
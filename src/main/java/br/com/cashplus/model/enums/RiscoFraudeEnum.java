@@ -6,7 +6,8 @@ package br.com.cashplus.model.enums;
 public enum RiscoFraudeEnum {
     BAIXO("Baixo"),
     MEDIO("Médio"),
-    ALTO("Alto");
+    ALTO("Alto"),
+    PENDENTE("Pendente"); // Transação gravada, aguardando avaliação assíncrona
     
     private final String descricao;
     
@@ -17,6 +18,25 @@ public enum RiscoFraudeEnum {
     public String getDescricao() {
         return descricao;
     }
+    
+    /**
+     * Risco um nível acima (BAIXO → MEDIO → ALTO). PENDENTE não é alterado.
+     */
+    public RiscoFraudeEnum elevado() {
+        return switch (this) {
+            case BAIXO -> MEDIO;
+            case MEDIO, ALTO -> ALTO;
+            case PENDENTE -> PENDENTE;
+        };
+    }
+    
+    /**
+     * Indica se este risco é mais grave que o outro (BAIXO < MEDIO < ALTO).
+     * PENDENTE não é comparável: retorna false.
+     */
+    public boolean maisGraveQue(RiscoFraudeEnum outro) {
+        return this != PENDENTE && outro != PENDENTE && ordinal() > outro.ordinal();
+    }
 }
 
 
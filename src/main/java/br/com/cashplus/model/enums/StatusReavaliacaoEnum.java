@@ -0,0 +1,29 @@
+package br.com.cashplus.model.enums;
+
+/**
+ * Enum que representa a situação de uma reavaliação em massa do risco de fraude.
+ */
+public enum StatusReavaliacaoEnum {
+    EXECUTANDO("Executando"),
+    INTERROMPIDA("Interrompida"),
+    CONCLUIDA("Concluída"),
+    FALHOU("Falhou");
+    
+    private final String descricao;
+    
+    StatusReavaliacaoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    /**
+     * Execuções não concluídas podem ser retomadas a partir do checkpoint.
+     * EXECUTANDO só é retomada quando não há execução ativa (queda da aplicação).
+     */
+    public boolean isRetomavel() {
+        return this != CONCLUIDA;
+    }
+}
@@ -1,21 +1,31 @@
 package br.com.cashplus.model.valueobject;
 
-import java.util.Objects;
-
 /**
  * Value Object que representa um CPF.
  * Imutável e encapsula a lógica de validação e formatação.
+ *
+ * O número é guardado como long (os 11 dígitos, com zeros à esquerda implícitos) e a
+ * validação percorre a entrada uma única vez, sem regex nem Strings intermediárias;
+ * o {@link br.com.cashplus.validation.CPFValidator} usa a mesma rotina.
+ * A forma formatada é montada na primeira chamada e reaproveitada.
  */
 public final class CPF {
-    
-    private final String valor;
-    
-    private CPF(String valor) {
-        this.valor = valor;
+
+    /** Retorno de {@link #parse(CharSequence)} para CPF inválido. */
+    public static final long INVALIDO = -1;
+
+    private static final int DIGITOS = 11;
+    private static final long MAIOR_NUMERO = 99_999_999_999L;
+
+    private final long numero;
+    private String formatado; // calculado sob demanda; corrida benigna (String é imutável)
+
+    private CPF(long numero) {
+        this.numero = numero;
     }
-    
+
     /**
-     * Cria um CPF a partir de uma string, removendo caracteres não numéricos.
+     * Cria um CPF a partir de uma string, ignorando caracteres não numéricos.
      * @param cpf String com o CPF (pode conter formatação)
      * @return Instância de CPF
      * @throws IllegalArgumentException se o CPF for inválido
@@ -24,104 +34,149 @@ public final class CPF {
         if (cpf == null || cpf.isEmpty()) {
             throw new IllegalArgumentException("CPF não pode ser nulo ou vazio");
         }
-        
-        String cpfLimpo = cpf.replaceAll("[^0-9]", "");
-        
-        if (!isValid(cpfLimpo)) {
+
+        long numero = parse(cpf);
+        if (numero == INVALIDO) {
             throw new IllegalArgumentException("CPF inválido: " + cpf);
         }
-        
-        return new CPF(cpfLimpo);
+
+        return new CPF(numero);
     }
-    
+
     /**
-     * Valida se um CPF é válido.
+     * Cria um CPF a partir de um número já validado (por exemplo, lido do banco),
+     * sem recalcular os dígitos verificadores.
+     * @throws IllegalArgumentException se o número tiver mais de 11 dígitos
      */
-    private static boolean isValid(String cpf) {
-        if (cpf == null || cpf.length() != 11) {
-            return false;
+    public static CPF deNumero(long numero) {
+        if (numero < 0 || numero > MAIOR_NUMERO) {
+            throw new IllegalArgumentException("CPF inválido: " + numero);
         }
-        
-        // Verifica se todos os dígitos são iguais
-        if (cpf.matches("(\\d)\\1{10}")) {
-            return false;
+        return new CPF(numero);
+    }
+
+    /**
+     * Indica se a entrada é um CPF válido, ignorando caracteres não numéricos.
+     */
+    public static boolean isValid(CharSequence cpf) {
+        return parse(cpf) != INVALIDO;
+    }
+
+    /**
+     * Converte e valida o CPF em uma única passada: caracteres não numéricos são ignorados,
+     * os dígitos verificadores são somados durante a leitura.
+     *
+     * @return o número do CPF, ou {@link #INVALIDO}
+     */
+    public static long parse(CharSequence cpf) {
+        if (cpf == null) {
+            return INVALIDO;
         }
-        
-        // Validação dos dígitos verificadores
-        try {
-            int[] digits = new int[11];
-            for (int i = 0; i < 11; i++) {
-                digits[i] = Integer.parseInt(cpf.substring(i, i + 1));
-            }
-            
-            // Calcula primeiro dígito verificador
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += digits[i] * (10 - i);
+        long numero = 0;
+        int digitos = 0;
+        int soma1 = 0;
+        int soma2 = 0;
+        int primeiro = -1;
+        boolean todosIguais = true;
+        for (int i = 0, tamanho = cpf.length(); i < tamanho; i++) {
+            int d = cpf.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                continue;
             }
-            int firstDigit = 11 - (sum % 11);
-            if (firstDigit >= 10) {
-                firstDigit = 0;
+            if (digitos == DIGITOS) {
+                return INVALIDO;
             }
-            
-            if (firstDigit != digits[9]) {
-                return false;
+            if (digitos < 9) {
+                soma1 += d * (10 - digitos);
             }
-            
-            // Calcula segundo dígito verificador
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += digits[i] * (11 - i);
+            if (digitos < 10) {
+                soma2 += d * (11 - digitos);
             }
-            int secondDigit = 11 - (sum % 11);
-            if (secondDigit >= 10) {
-                secondDigit = 0;
+            if (primeiro < 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                todosIguais = false;
             }
-            
-            return secondDigit == digits[10];
-            
-        } catch (NumberFormatException e) {
-            return false;
+            numero = numero * 10 + d;
+            digitos++;
         }
+        if (digitos != DIGITOS || todosIguais) {
+            return INVALIDO;
+        }
+
+        int verificador1 = (int) (numero / 10 % 10);
+        int verificador2 = (int) (numero % 10);
+        if (digitoVerificador(soma1) != verificador1) {
+            return INVALIDO;
+        }
+        // A segunda soma já inclui o primeiro verificador (peso 2)
+        return digitoVerificador(soma2) == verificador2 ? numero : INVALIDO;
+    }
+
+    private static int digitoVerificador(int soma) {
+        int digito = 11 - (soma % 11);
+        return digito >= 10 ? 0 : digito;
+    }
+
+    /**
+     * Retorna o número do CPF.
+     */
+    public long getNumero() {
+        return numero;
     }
-    
+
     /**
-     * Retorna o CPF sem formatação (apenas números).
+     * Retorna o CPF sem formatação (apenas números, 11 dígitos).
      */
     public String getValor() {
-        return valor;
+        char[] digitos = new char[DIGITOS];
+        long restante = numero;
+        for (int i = DIGITOS - 1; i >= 0; i--) {
+            digitos[i] = (char) ('0' + restante % 10);
+            restante /= 10;
+        }
+        return new String(digitos);
     }
-    
+
     /**
      * Retorna o CPF formatado (XXX.XXX.XXX-XX).
      */
     public String getFormatado() {
-        if (valor.length() != 11) {
-            return valor;
+        String resultado = formatado;
+        if (resultado == null) {
+            char[] texto = new char[14];
+            long restante = numero;
+            for (int i = texto.length - 1; i >= 0; i--) {
+                if (i == 3 || i == 7) {
+                    texto[i] = '.';
+                } else if (i == 11) {
+                    texto[i] = '-';
+                } else {
+                    texto[i] = (char) ('0' + restante % 10);
+                    restante /= 10;
+                }
+            }
+            resultado = new String(texto);
+            formatado = resultado;
         }
-        return valor.substring(0, 3) + "." + 
-               valor.substring(3, 6) + "." + 
-               valor.substring(6, 9) + "-" + 
-               valor.substring(9, 11);
+        return resultado;
     }
-    
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CPF cpf = (CPF) o;
-        return Objects.equals(valor, cpf.valor);
+        return numero == cpf.numero;
     }
-    
+
     @Override
     public int hashCode() {
-        return Objects.hash(valor);
+        return Long.hashCode(numero);
     }
-    
+
     @Override
     public String toString() {
         return getFormatado();
     }
 }
-
-
@@ -0,0 +1,77 @@
+package br.com.cashplus.repository;
+
+import br.com.cashplus.model.Operador;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Acesso JDBC direto à tabela de operadores, para leituras e gravações em volume
+ * sem hidratar entidades.
+ */
+@Repository
+public class OperadorJdbcRepository {
+
+    private static final String SQL_PERCORRER_CPFS = "SELECT cpf FROM operadores";
+    
+    private static final String SQL_INSERIR = "INSERT INTO operadores (nome, cpf, turno) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Percorre os CPFs de todos os operadores com um result set forward-only e fetch size limitado.
+     */
+    public void percorrerCpfs(int fetchSize, LongConsumer consumidor) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SQL_PERCORRER_CPFS,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumidor.accept(rs.getLong(1)));
+    }
+    
+    /**
+     * CPFs, dentre os informados, que já estão cadastrados (um único IN).
+     */
+    public Set<Long> buscarCpfsExistentes(Collection<Long> cpfs) {
+        Set<Long> existentes = new HashSet<>();
+        if (cpfs.isEmpty()) {
+            return existentes;
+        }
+        String sql = "SELECT cpf FROM operadores WHERE cpf IN (" + "?,".repeat(cpfs.size() - 1) + "?)";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> existentes.add(rs.getLong(1)), cpfs.toArray());
+        return existentes;
+    }
+    
+    /**
+     * Insere os operadores em batches JDBC (com rewriteBatchedStatements=true, um INSERT
+     * multi-valores por batch no MySQL). Os IDs gerados não são lidos.
+     * Participa da transação corrente.
+     */
+    public void inserirLote(List<Operador> operadores, int tamanhoBatch) {
+        jdbcTemplate.batchUpdate(SQL_INSERIR, operadores, tamanhoBatch, this::preencherInsert);
+    }
+    
+    public void inserir(Operador operador) {
+        jdbcTemplate.update(SQL_INSERIR, ps -> preencherInsert(ps, operador));
+    }
+    
+    private void preencherInsert(PreparedStatement ps, Operador operador) throws SQLException {
+        ps.setString(1, operador.getNome());
+        ps.setLong(2, operador.getCpf().getNumero());
+        ps.setString(3, operador.getTurno().name());
+    }
+}
@@ -3,6 +3,7 @@ package br.com.cashplus.repository;
 import br.com.cashplus.model.Operador;
 import br.com.cashplus.model.valueobject.CPF;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,22 +14,58 @@ import java.util.Optional;
 public interface OperadorRepository extends JpaRepository<Operador, Long> {
     
     @Query(value = "SELECT * FROM operadores WHERE cpf = :cpf", nativeQuery = true)
-    Optional<Operador> findByCpf(@Param("cpf") String cpf);
+    Optional<Operador> findByCpfNumero(@Param("cpf") long cpf);
     
-    @Query(value = "SELECT COUNT(*) FROM operadores WHERE cpf = :cpfValor", nativeQuery = true)
-    Long countByCpfValor(@Param("cpfValor") String cpfValor);
+    @Query(value = "SELECT COUNT(*) FROM operadores WHERE cpf = :cpf", nativeQuery = true)
+    Long countByCpfNumero(@Param("cpf") long cpf);
     
-    default boolean existsByCpfValor(String cpfValor) {
-        Long count = countByCpfValor(cpfValor);
+    /**
+     * Atualiza o operador em um único statement, sem carregá-lo.
+     * 
+     * @return linhas alteradas (0 se o operador não existe)
+     */
+    @Modifying
+    @Query(value = "UPDATE operadores SET nome = :nome, cpf = :cpf, turno = :turno, versao = versao + 1 " +
+                   "WHERE id = :id", nativeQuery = true)
+    int atualizarDados(@Param("id") Long id, @Param("nome") String nome,
+                       @Param("cpf") long cpf, @Param("turno") String turno);
+    
+    /**
+     * Como {@link #atualizarDados}, mas só altera a linha que ainda estiver na versão informada.
+     * 
+     * @return linhas alteradas (0 se o operador não existe ou está em outra versão)
+     */
+    @Modifying
+    @Query(value = "UPDATE operadores SET nome = :nome, cpf = :cpf, turno = :turno, versao = versao + 1 " +
+                   "WHERE id = :id AND versao = :versao", nativeQuery = true)
+    int atualizarDadosNaVersao(@Param("id") Long id, @Param("nome") String nome,
+                               @Param("cpf") long cpf, @Param("turno") String turno,
+                               @Param("versao") long versao);
+    
+    /**
+     * Versão corrente, lida na mesma transação do UPDATE sem versão para devolvê-la ao cliente.
+     */
+    @Query(value = "SELECT versao FROM operadores WHERE id = :id", nativeQuery = true)
+    Long buscarVersao(@Param("id") Long id);
+    
+    @Modifying
+    @Query(value = "DELETE FROM operadores WHERE id = :id", nativeQuery = true)
+    int excluirPorId(@Param("id") Long id);
+    
+    default Optional<Operador> findByCpf(CPF cpf) {
+        return findByCpfNumero(cpf.getNumero());
+    }
+    
+    default boolean existsByCpfNumero(long cpf) {
+        Long count = countByCpfNumero(cpf);
         return count != null && count > 0;
     }
     
     default boolean existsByCpf(CPF cpf) {
-        return existsByCpfValor(cpf.getValor());
+        return existsByCpfNumero(cpf.getNumero());
     }
     
     default boolean existsByCpf(String cpf) {
         return existsByCpf(CPF.of(cpf));
     }
 }
-
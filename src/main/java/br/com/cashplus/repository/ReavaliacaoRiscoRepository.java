@@ -0,0 +1,13 @@
+package br.com.cashplus.repository;
+
+import br.com.cashplus.model.ReavaliacaoRisco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReavaliacaoRiscoRepository extends JpaRepository<ReavaliacaoRisco, Long> {
+    
+    Optional<ReavaliacaoRisco> findFirstByOrderByIdDesc();
+}
@@ -0,0 +1,84 @@
+package br.com.cashplus.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acesso JDBC à tabela de sessões compartilhadas entre os nós.
+ * O último acesso é gravado em epoch millis para não depender do fuso de cada nó.
+ */
+@Repository
+public class SessaoJdbcRepository {
+
+    private static final String SQL_INSERIR =
+            "INSERT INTO sessoes (token, user_id, ultimo_acesso_ms) VALUES (?, ?, ?)";
+    
+    private static final String SQL_BUSCAR_ULTIMO_ACESSO =
+            "SELECT ultimo_acesso_ms FROM sessoes WHERE token = ?";
+    
+    // GREATEST: um nó com toque mais antigo não faz a sessão retroceder
+    private static final String SQL_ATUALIZAR_ULTIMO_ACESSO =
+            "UPDATE sessoes SET ultimo_acesso_ms = GREATEST(ultimo_acesso_ms, ?) WHERE token = ?";
+    
+    private static final String SQL_REMOVER = "DELETE FROM sessoes WHERE token = ?";
+    
+    private static final String SQL_REMOVER_EXPIRADAS =
+            "DELETE FROM sessoes WHERE ultimo_acesso_ms < ? LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void inserir(String token, String userId, long ultimoAcessoMs) {
+        jdbcTemplate.update(SQL_INSERIR, token, userId, ultimoAcessoMs);
+    }
+    
+    /**
+     * @return último acesso da sessão, ou null se ela não existe
+     */
+    public Long buscarUltimoAcesso(String token) {
+        List<Long> resultado = jdbcTemplate.queryForList(SQL_BUSCAR_ULTIMO_ACESSO, Long.class, token);
+        return resultado.isEmpty() ? null : resultado.get(0);
+    }
+    
+    /**
+     * Grava os últimos acessos acumulados (token -> epoch millis) em um único batch.
+     */
+    public void atualizarUltimosAcessos(Map<String, Long> acessos) {
+        if (acessos.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Long>> itens = List.copyOf(acessos.entrySet());
+        jdbcTemplate.batchUpdate(SQL_ATUALIZAR_ULTIMO_ACESSO, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, itens.get(i).getValue());
+                ps.setString(2, itens.get(i).getKey());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return itens.size();
+            }
+        });
+    }
+    
+    public void remover(String token) {
+        jdbcTemplate.update(SQL_REMOVER, token);
+    }
+    
+    /**
+     * Remove até limite sessões sem acesso desde limiteMs.
+     * 
+     * @return quantidade removida
+     */
+    public int removerExpiradas(long limiteMs, int limite) {
+        return jdbcTemplate.update(SQL_REMOVER_EXPIRADAS, limiteMs, limite);
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.cashplus.repository;
+
+import br.com.cashplus.model.Operador;
+import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Acesso JDBC direto à tabela de transações, para operações em que o JPA
+ * não é adequado (leitura em streaming de grandes volumes, gravações em batch).
+ */
+@Repository
+public class TransacaoJdbcRepository {
+
+    private static final String SQL_PERCORRER_TODAS =
+            "SELECT t.id, t.valor, t.tipo_pagamento, t.risco_fraude, t.data_transacao, " +
+            "       t.operador_id, o.nome AS operador_nome " +
+            "FROM transacoes t LEFT JOIN operadores o ON o.id = t.operador_id " +
+            "ORDER BY t.id";
+    
+    private static final String SQL_ATUALIZAR_RISCO_PENDENTE =
+            "UPDATE transacoes SET risco_fraude = ? WHERE id = ? AND risco_fraude = 'PENDENTE'";
+    
+    // PENDENTE fica a cargo da avaliação assíncrona; o turno do operador entra nas regras locais
+    private static final String SQL_PERCORRER_FAIXA_AVALIADA =
+            "SELECT t.id, t.valor, t.tipo_pagamento, t.risco_fraude, t.data_transacao, " +
+            "       t.operador_id, o.turno AS operador_turno " +
+            "FROM transacoes t LEFT JOIN operadores o ON o.id = t.operador_id " +
+            "WHERE t.id BETWEEN ? AND ? AND (t.risco_fraude IS NULL OR t.risco_fraude <> 'PENDENTE')";
+    
+    // <=> (igualdade segura para NULL do MySQL): não sobrescreve risco alterado depois da leitura
+    private static final String SQL_ATUALIZAR_RISCO_SE_INALTERADO =
+            "UPDATE transacoes SET risco_fraude = ? WHERE id = ? AND risco_fraude <=> ?";
+    
+    private static final String SQL_INSERIR =
+            "INSERT INTO transacoes (valor, tipo_pagamento, risco_fraude, operador_id, data_transacao) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Percorre todas as transações com um result set forward-only e fetch size limitado,
+     * entregando cada linha ao consumidor sem acumulá-las em memória.
+     * No MySQL o streaming por cursor depende de useCursorFetch=true na URL de conexão.
+     */
+    public void percorrerTodas(int fetchSize, Consumer<Transacao> consumidor) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SQL_PERCORRER_TODAS,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumidor.accept(mapearTransacao(rs)));
+    }
+
+    /**
+     * Insere as transações em batches JDBC e preenche os IDs gerados.
+     * O mapeamento JPA usa IDENTITY, o que impede o Hibernate de agrupar inserts;
+     * aqui o batch é feito diretamente no driver (rewriteBatchedStatements=true
+     * transforma cada batch em um único INSERT multi-valores no MySQL).
+     * Participa da transação corrente.
+     */
+    public void inserirLote(List<Transacao> transacoes, int tamanhoBatch) {
+        if (transacoes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(SQL_INSERIR, Statement.RETURN_GENERATED_KEYS)) {
+                for (int inicio = 0; inicio < transacoes.size(); inicio += tamanhoBatch) {
+                    int fim = Math.min(inicio + tamanhoBatch, transacoes.size());
+                    for (int i = inicio; i < fim; i++) {
+                        Transacao transacao = transacoes.get(i);
+                        ps.setBigDecimal(1, transacao.getValor());
+                        ps.setString(2, transacao.getTipoPagamento().name());
+                        if (transacao.getRiscoFraude() != null) {
+                            ps.setString(3, transacao.getRiscoFraude().name());
+                        } else {
+                            ps.setNull(3, Types.VARCHAR);
+                        }
+                        if (transacao.getOperador() != null) {
+                            ps.setLong(4, transacao.getOperador().getId());
+                        } else {
+                            ps.setNull(4, Types.BIGINT);
+                        }
+                        ps.setTimestamp(5, Timestamp.valueOf(transacao.getDataTransacao()));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    
+                    try (ResultSet chaves = ps.getGeneratedKeys()) {
+                        int i = inicio;
+                        while (chaves.next() && i < fim) {
+                            transacoes.get(i++).setId(chaves.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Grava o risco avaliado das transações pendentes em um único batch.
+     * Só altera linhas que ainda estão PENDENTE, o que torna a operação idempotente.
+     */
+    public int[] atualizarRiscoPendente(List<Long> ids, List<RiscoFraudeEnum> riscos) {
+        return jdbcTemplate.batchUpdate(SQL_ATUALIZAR_RISCO_PENDENTE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, riscos.get(i).name());
+                ps.setLong(2, ids.get(i));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+    
+    public long buscarMaiorId() {
+        Long maiorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM transacoes", Long.class);
+        return maiorId != null ? maiorId : 0;
+    }
+    
+    /**
+     * Percorre as transações já avaliadas com id entre idInicial e idFinal (inclusive),
+     * com o turno do operador preenchido, sem acumulá-las em memória.
+     */
+    public void percorrerFaixaAvaliada(long idInicial, long idFinal, Consumer<Transacao> consumidor) {
+        jdbcTemplate.query(SQL_PERCORRER_FAIXA_AVALIADA,
+                (RowCallbackHandler) rs -> {
+                    Transacao transacao = mapearCamposTransacao(rs);
+                    long operadorId = rs.getLong("operador_id");
+                    if (!rs.wasNull()) {
+                        Operador operador = new Operador();
+                        operador.setId(operadorId);
+                        operador.setTurno(TurnoEnum.valueOf(rs.getString("operador_turno")));
+                        transacao.setOperador(operador);
+                    }
+                    consumidor.accept(transacao);
+                },
+                idInicial, idFinal);
+    }
+    
+    /**
+     * Grava os novos riscos em um único batch, apenas nas linhas cujo risco ainda é o lido.
+     * 
+     * @return linhas afetadas por comando (0 quando a transação mudou desde a leitura)
+     */
+    public int[] atualizarRiscoSeInalterado(List<Long> ids, List<RiscoFraudeEnum> anteriores,
+                                            List<RiscoFraudeEnum> novos) {
+        return jdbcTemplate.batchUpdate(SQL_ATUALIZAR_RISCO_SE_INALTERADO, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, novos.get(i).name());
+                ps.setLong(2, ids.get(i));
+                RiscoFraudeEnum anterior = anteriores.get(i);
+                if (anterior != null) {
+                    ps.setString(3, anterior.name());
+                } else {
+                    ps.setNull(3, Types.VARCHAR);
+                }
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+    
+    private Transacao mapearTransacao(ResultSet rs) throws SQLException {
+        Transacao transacao = mapearCamposTransacao(rs);
+
+        long operadorId = rs.getLong("operador_id");
+        if (!rs.wasNull()) {
+            Operador operador = new Operador();
+            operador.setId(operadorId);
+            operador.setNome(rs.getString("operador_nome"));
+            transacao.setOperador(operador);
+        }
+        return transacao;
+    }
+    
+    private Transacao mapearCamposTransacao(ResultSet rs) throws SQLException {
+        Transacao transacao = new Transacao();
+        transacao.setId(rs.getLong("id"));
+        transacao.setValor(rs.getBigDecimal("valor"));
+        transacao.setTipoPagamento(TipoPagamentoEnum.valueOf(rs.getString("tipo_pagamento")));
+
+        String risco = rs.getString("risco_fraude");
+        transacao.setRiscoFraude(risco != null ? RiscoFraudeEnum.valueOf(risco) : null);
+
+        Timestamp data = rs.getTimestamp("data_transacao");
+        transacao.setDataTransacao(data != null ? data.toLocalDateTime() : null);
+        return transacao;
+    }
+}
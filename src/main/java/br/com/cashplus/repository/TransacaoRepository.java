@@ -1,10 +1,45 @@
 package br.com.cashplus.repository;
 
 import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
-}
 
+    // Paginação keyset (dataTransacao DESC, id DESC): retorno List evita o COUNT(*) do Page
+    @Query("SELECT t FROM Transacao t LEFT JOIN FETCH t.operador " +
+           "ORDER BY t.dataTransacao DESC, t.id DESC")
+    List<Transacao> buscarPrimeiraPagina(Pageable pageable);
+
+    @Query("SELECT t FROM Transacao t LEFT JOIN FETCH t.operador " +
+           "WHERE t.dataTransacao <= :data AND (t.dataTransacao < :data OR t.id < :id) " +
+           "ORDER BY t.dataTransacao DESC, t.id DESC")
+    List<Transacao> buscarPaginaApos(@Param("data") LocalDateTime data,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    @Query("SELECT t.id FROM Transacao t WHERE t.riscoFraude = :risco AND t.id > :idMinimo ORDER BY t.id")
+    List<Long> buscarIdsPorRisco(@Param("risco") RiscoFraudeEnum risco,
+                                 @Param("idMinimo") Long idMinimo,
+                                 Pageable pageable);
+    
+    @Query("SELECT t FROM Transacao t LEFT JOIN FETCH t.operador WHERE t.id IN :ids")
+    List<Transacao> buscarComOperadorPorIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * @return linhas removidas (0 se a transação não existe)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM transacoes WHERE id = :id", nativeQuery = true)
+    int excluirPorId(@Param("id") Long id);
+}
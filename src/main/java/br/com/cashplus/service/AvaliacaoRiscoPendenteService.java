@@ -0,0 +1,334 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.repository.TransacaoJdbcRepository;
+import br.com.cashplus.repository.TransacaoRepository;
+import br.com.cashplus.service.risco.ContextoRisco;
+import br.com.cashplus.service.risco.SinaisOperador;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Avaliação assíncrona de risco de fraude (modo "grava primeiro, avalia depois").
+ * 
+ * Quando habilitado, as transações são gravadas com risco PENDENTE e seus IDs entram
+ * em uma fila limitada em memória. Um pool de workers consome a fila em lotes,
+ * consulta o risco e atualiza a coluna risco_fraude com um único batch por lote.
+ * Na inicialização, transações que ficaram PENDENTE (queda da aplicação, fila cheia)
+ * são reenfileiradas.
+ * 
+ * Um ID já na fila ou em avaliação não é enfileirado de novo. A varredura após transbordo
+ * continua do último ID que enfileirou; as avaliações sem resposta no prazo são
+ * reenfileiradas pela varredura seguinte, sem consultar o banco. A venda entra na janela
+ * de velocidade e na linha de base de anomalias só na primeira tentativa: os sinais ficam
+ * guardados até a avaliação concluir (perdidos num reinício, quando a venda é registrada
+ * outra vez).
+ */
+@Service
+public class AvaliacaoRiscoPendenteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaliacaoRiscoPendenteService.class);
+    
+    private final TransacaoRepository transacaoRepository;
+    private final TransacaoJdbcRepository transacaoJdbcRepository;
+    private final RiscoFraudeService riscoFraudeService;
+    
+    private final boolean habilitado;
+    private final int numeroWorkers;
+    private final int tamanhoLote;
+    private final int concorrencia;
+    private final Duration timeoutAvaliacao;
+    
+    private final BlockingQueue<Long> fila;
+    private final Set<Long> naFilaOuEmAvaliacao = ConcurrentHashMap.newKeySet();
+    private final Queue<Long> expiradasParaReenvio = new ConcurrentLinkedQueue<>();
+    private final Map<Long, SinaisOperador> sinaisRegistrados = new ConcurrentHashMap<>();
+    private volatile long ultimoIdVarrido;
+    private final AtomicInteger workersOcupados = new AtomicInteger();
+    private final AtomicBoolean transbordou = new AtomicBoolean();
+    private volatile boolean executando;
+    private ExecutorService workers;
+    
+    private final Timer atrasoAvaliacao;
+    private final Counter avaliadas;
+    private final Counter transbordos;
+    private final Counter expiradas;
+    
+    public AvaliacaoRiscoPendenteService(
+            TransacaoRepository transacaoRepository,
+            TransacaoJdbcRepository transacaoJdbcRepository,
+            RiscoFraudeService riscoFraudeService,
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.assincrono.enabled:false}") boolean habilitado,
+            @Value("${app.risco-fraude.assincrono.workers:4}") int numeroWorkers,
+            @Value("${app.risco-fraude.assincrono.fila:10000}") int capacidadeFila,
+            @Value("${app.risco-fraude.assincrono.tamanho-lote:50}") int tamanhoLote,
+            @Value("${app.risco-fraude.assincrono.concorrencia:16}") int concorrencia,
+            @Value("${app.risco-fraude.assincrono.timeout-avaliacao-ms:10000}") long timeoutAvaliacaoMs) {
+        this.transacaoRepository = transacaoRepository;
+        this.transacaoJdbcRepository = transacaoJdbcRepository;
+        this.riscoFraudeService = riscoFraudeService;
+        this.habilitado = habilitado;
+        this.numeroWorkers = numeroWorkers;
+        this.tamanhoLote = tamanhoLote;
+        this.concorrencia = concorrencia;
+        this.timeoutAvaliacao = Duration.ofMillis(timeoutAvaliacaoMs);
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        
+        Gauge.builder("risco.fraude.pendentes.fila", fila, BlockingQueue::size)
+                .description("Transações aguardando avaliação de risco")
+                .register(meterRegistry);
+        Gauge.builder("risco.fraude.pendentes.workers.utilizacao", workersOcupados,
+                        ocupados -> (double) ocupados.get() / numeroWorkers)
+                .description("Fração dos workers de avaliação ocupados")
+                .register(meterRegistry);
+        this.atrasoAvaliacao = Timer.builder("risco.fraude.pendentes.atraso")
+                .description("Tempo entre a gravação da transação e a avaliação do risco")
+                .register(meterRegistry);
+        this.avaliadas = Counter.builder("risco.fraude.pendentes.avaliadas").register(meterRegistry);
+        this.transbordos = Counter.builder("risco.fraude.pendentes.transbordo")
+                .description("IDs não enfileirados por fila cheia (recuperados na próxima varredura)")
+                .register(meterRegistry);
+        this.expiradas = Counter.builder("risco.fraude.pendentes.expiradas")
+                .description("Avaliações sem resposta no prazo; a transação é reenfileirada na próxima varredura")
+                .register(meterRegistry);
+    }
+    
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+    
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        executando = true;
+        workers = Executors.newFixedThreadPool(numeroWorkers, new CustomizableThreadFactory("avaliacao-risco-"));
+        for (int i = 0; i < numeroWorkers; i++) {
+            workers.submit(this::executarWorker);
+        }
+        logger.info("Avaliação assíncrona de risco iniciada com {} workers", numeroWorkers);
+    }
+    
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+        executando = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        // O que sobrou na fila continua PENDENTE no banco e é recuperado no próximo início
+    }
+    
+    /**
+     * Enfileira transações já gravadas (commit concluído) para avaliação.
+     * Se a fila estiver cheia, a transação permanece PENDENTE e é recuperada pela varredura.
+     */
+    public void enfileirar(List<Long> ids) {
+        for (Long id : ids) {
+            if (!oferecer(id)) {
+                transbordou.set(true);
+                transbordos.increment();
+            }
+        }
+    }
+    
+    /**
+     * Enfileira o ID, a menos que já esteja na fila ou em avaliação. Falso se a fila está cheia.
+     */
+    private boolean oferecer(Long id) {
+        if (!naFilaOuEmAvaliacao.add(id)) {
+            return true;
+        }
+        if (fila.offer(id)) {
+            return true;
+        }
+        naFilaOuEmAvaliacao.remove(id);
+        return false;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarPendentes() {
+        if (!habilitado) {
+            return;
+        }
+        long ultimoId = ultimoIdVarrido;
+        int recuperadas = 0;
+        while (true) {
+            List<Long> ids = transacaoRepository.buscarIdsPorRisco(
+                    RiscoFraudeEnum.PENDENTE, ultimoId, PageRequest.of(0, tamanhoLote));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                if (!oferecer(id)) {
+                    transbordou.set(true);
+                    logger.info("Fila de avaliação cheia; {} transações pendentes reenfileiradas até agora", recuperadas);
+                    return;
+                }
+                ultimoIdVarrido = id;
+                recuperadas++;
+            }
+            ultimoId = ids.get(ids.size() - 1);
+        }
+        if (recuperadas > 0) {
+            logger.info("{} transações pendentes reenfileiradas para avaliação de risco", recuperadas);
+        }
+    }
+    
+    /**
+     * Reenfileira as avaliações expiradas e as pendentes que não couberam na fila.
+     * Só consulta o banco se houve transbordo, a partir do último ID enfileirado pela varredura.
+     */
+    @Scheduled(fixedDelayString = "${app.risco-fraude.assincrono.intervalo-varredura-ms:60000}")
+    public void varrerPendentes() {
+        if (!habilitado) {
+            return;
+        }
+        Long expirada;
+        while ((expirada = expiradasParaReenvio.poll()) != null) {
+            if (!oferecer(expirada)) {
+                expiradasParaReenvio.add(expirada);
+                break;
+            }
+        }
+        if (transbordou.getAndSet(false)) {
+            recuperarPendentes();
+        }
+    }
+    
+    private void executarWorker() {
+        List<Long> lote = new ArrayList<>(tamanhoLote);
+        while (executando) {
+            try {
+                Long primeiro = fila.poll(1, TimeUnit.SECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                
+                workersOcupados.incrementAndGet();
+                List<Long> expiradasLote;
+                try {
+                    expiradasLote = avaliarLote(lote);
+                } finally {
+                    workersOcupados.decrementAndGet();
+                    lote.forEach(naFilaOuEmAvaliacao::remove);
+                }
+                // Só depois de liberados: a varredura reenfileira as que não responderam no prazo
+                expiradasParaReenvio.addAll(expiradasLote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // As transações continuam PENDENTE e serão recuperadas no próximo início
+                logger.error("Erro ao avaliar lote de {} transações pendentes: {}", lote.size(), e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+    
+    /**
+     * Avalia o lote e grava os riscos obtidos. Retorna os IDs sem resposta no prazo.
+     */
+    private List<Long> avaliarLote(List<Long> ids) {
+        List<Transacao> pendentes = transacaoRepository.buscarComOperadorPorIds(ids).stream()
+                .filter(transacao -> transacao.getRiscoFraude() == RiscoFraudeEnum.PENDENTE)
+                .toList();
+        if (pendentes.size() < ids.size()) {
+            // Já avaliadas (ou excluídas): os sinais guardados não serão mais usados
+            Set<Long> idsPendentes = new HashSet<>();
+            pendentes.forEach(transacao -> idsPendentes.add(transacao.getId()));
+            ids.stream().filter(id -> !idsPendentes.contains(id)).forEach(sinaisRegistrados::remove);
+        }
+        if (pendentes.isEmpty()) {
+            return List.of();
+        }
+        
+        // Thread dedicada do worker: aguardar o lote aqui não ocupa threads de requisição.
+        // Cada avaliação tem prazo, então uma consulta travada não prende o worker; a
+        // transação sem resposta segue PENDENTE e é reenfileirada na próxima varredura.
+        List<Optional<RiscoFraudeEnum>> resultados = Flux.fromIterable(pendentes)
+                .flatMapSequential(transacao -> {
+                    ContextoRisco contexto = ContextoRisco.de(transacao);
+                    SinaisOperador sinais = sinaisRegistrados.computeIfAbsent(transacao.getId(),
+                            id -> riscoFraudeService.registrarSinais(contexto));
+                    return riscoFraudeService.consultarRiscoAsync(contexto, sinais)
+                            .map(Optional::of)
+                            .timeout(timeoutAvaliacao, Mono.fromSupplier(() -> {
+                                expiradas.increment();
+                                return Optional.<RiscoFraudeEnum>empty();
+                            }));
+                }, concorrencia)
+                .collectList()
+                .block();
+        
+        List<Transacao> avaliadasLote = new ArrayList<>(pendentes.size());
+        List<Long> idsAvaliados = new ArrayList<>(pendentes.size());
+        List<RiscoFraudeEnum> riscos = new ArrayList<>(pendentes.size());
+        List<Long> idsExpirados = new ArrayList<>();
+        for (int i = 0; i < pendentes.size(); i++) {
+            Optional<RiscoFraudeEnum> risco = resultados.get(i);
+            if (risco.isPresent()) {
+                avaliadasLote.add(pendentes.get(i));
+                idsAvaliados.add(pendentes.get(i).getId());
+                riscos.add(risco.get());
+            } else {
+                idsExpirados.add(pendentes.get(i).getId());
+            }
+        }
+        if (idsAvaliados.isEmpty()) {
+            return idsExpirados;
+        }
+        transacaoJdbcRepository.atualizarRiscoPendente(idsAvaliados, riscos);
+        idsAvaliados.forEach(sinaisRegistrados::remove);
+        
+        LocalDateTime agora = LocalDateTime.now();
+        for (Transacao transacao : avaliadasLote) {
+            atrasoAvaliacao.record(Duration.between(transacao.getDataTransacao(), agora));
+        }
+        avaliadas.increment(avaliadasLote.size());
+        return idsExpirados;
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.repository.OperadorJdbcRepository;
+import br.com.cashplus.util.ConjuntoLongs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * CPFs cadastrados mantidos em memória, para que a verificação de CPF duplicado só vá ao
+ * banco quando o CPF pode já existir.
+ *
+ * O conjunto é carregado uma vez na inicialização e recebe os CPFs gravados pelo próprio
+ * nó. Um CPF gravado por outro nó (ou ainda durante a carga) pode faltar aqui; nesse caso
+ * o insert esbarra no índice único do banco, que continua sendo a garantia de unicidade.
+ * O filtro só cresce: as escritas de um único statement não leem o CPF anterior, então o
+ * CPF de um operador excluído ou alterado permanece até a próxima inicialização. Cada sobra
+ * só custa a consulta que o filtro evitaria. Antes de a carga terminar, toda verificação
+ * vai ao banco.
+ */
+@Component
+public class FiltroCpfOperadores {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiltroCpfOperadores.class);
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    private final OperadorJdbcRepository operadorJdbcRepository;
+    private final boolean habilitado;
+    private final ConjuntoLongs cpfs;
+    private volatile boolean carregado;
+    
+    private final Counter consultasEvitadas;
+    
+    public FiltroCpfOperadores(OperadorJdbcRepository operadorJdbcRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.operadores.filtro-cpf.enabled:true}") boolean habilitado,
+                               @Value("${app.operadores.filtro-cpf.capacidade-inicial:100000}") int capacidadeInicial) {
+        this.operadorJdbcRepository = operadorJdbcRepository;
+        this.habilitado = habilitado;
+        this.cpfs = new ConjuntoLongs(habilitado ? capacidadeInicial : 0);
+        
+        this.consultasEvitadas = Counter.builder("operadores.cpf.consultas.evitadas")
+                .description("Verificações de CPF duplicado respondidas pelo filtro em memória, sem consulta ao banco")
+                .register(meterRegistry);
+        Gauge.builder("operadores.cpf.filtro.tamanho", cpfs, ConjuntoLongs::tamanho)
+                .description("CPFs no filtro em memória de operadores")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            operadorJdbcRepository.percorrerCpfs(FETCH_SIZE, cpfs::adicionar);
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao carregar os CPFs de operadores; verificações de duplicidade seguem no banco: {}",
+                    e.getMessage());
+            return;
+        }
+        carregado = true;
+        logger.info("{} CPFs de operadores carregados em {} ms", cpfs.tamanho(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+    
+    /**
+     * @return false apenas se o CPF certamente não está cadastrado
+     */
+    public boolean podeEstarCadastrado(long cpf) {
+        if (!carregado || cpfs.contem(cpf)) {
+            return true;
+        }
+        consultasEvitadas.increment();
+        return false;
+    }
+    
+    public void registrar(long cpf) {
+        if (habilitado) {
+            cpfs.adicionar(cpf);
+        }
+    }
+}
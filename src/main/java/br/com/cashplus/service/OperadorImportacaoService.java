@@ -0,0 +1,369 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.dto.request.OperadorRequestDTO;
+import br.com.cashplus.dto.response.OperadorImportacaoErroResponseDTO;
+import br.com.cashplus.dto.response.OperadorImportacaoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.Operador;
+import br.com.cashplus.model.enums.TurnoEnum;
+import br.com.cashplus.model.valueobject.CPF;
+import br.com.cashplus.repository.OperadorJdbcRepository;
+import br.com.cashplus.util.ConjuntoLongs;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de operadores a partir de CSV (cabeçalho com as colunas nome, cpf e
+ * turno) ou NDJSON (um OperadorRequestDTO por linha).
+ *
+ * O corpo é lido em streaming e processado em lotes de app.operadores.importacao.tamanho-lote
+ * linhas: validação em paralelo, uma consulta IN para os CPFs que o filtro em memória não
+ * descarta e um insert em batch JDBC por lote, cada lote na sua transação. Se o índice único
+ * recusar o batch (CPF gravado em paralelo), o lote é regravado linha a linha para apontar as
+ * recusadas. A memória fica limitada a um lote, aos CPFs já lidos do arquivo (8 bytes cada,
+ * para recusar repetições) e a app.operadores.importacao.max-erros erros detalhados.
+ */
+@Service
+public class OperadorImportacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperadorImportacaoService.class);
+    
+    static final int TAMANHO_MAXIMO_LINHA = 4096;
+    private static final char BOM = '\uFEFF';
+    
+    private final OperadorJdbcRepository operadorJdbcRepository;
+    private final FiltroCpfOperadores filtroCpf;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final int tamanhoBatch;
+    private final int maxErros;
+    
+    public OperadorImportacaoService(
+            OperadorJdbcRepository operadorJdbcRepository,
+            FiltroCpfOperadores filtroCpf,
+            Validator validator,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.operadores.importacao.tamanho-lote:1000}") int tamanhoLote,
+            @Value("${app.operadores.importacao.tamanho-batch:500}") int tamanhoBatch,
+            @Value("${app.operadores.importacao.max-erros:1000}") int maxErros) {
+        this.operadorJdbcRepository = operadorJdbcRepository;
+        this.filtroCpf = filtroCpf;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+        this.tamanhoBatch = tamanhoBatch;
+        this.maxErros = maxErros;
+    }
+    
+    public OperadorImportacaoResponseDTO importar(InputStream corpo, boolean csv) throws IOException {
+        long inicio = System.nanoTime();
+        LeitorLinhas leitor = new LeitorLinhas(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        Resultado resultado = new Resultado(maxErros);
+        ConjuntoLongs cpfsDoArquivo = new ConjuntoLongs(tamanhoLote);
+        int[] colunas = csv ? lerCabecalho(leitor) : null;
+        
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+        String texto;
+        while ((texto = leitor.proxima()) != null) {
+            if (texto.isBlank() && !leitor.excedeu) {
+                continue;
+            }
+            Linha linha = new Linha(leitor.numero);
+            if (leitor.excedeu) {
+                linha.erro = "Linha excede " + TAMANHO_MAXIMO_LINHA + " caracteres";
+            } else if (csv) {
+                lerCsv(texto, colunas, linha);
+            } else {
+                lerJson(texto, linha);
+            }
+            lote.add(linha);
+            if (lote.size() == tamanhoLote) {
+                processarLote(lote, cpfsDoArquivo, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            processarLote(lote, cpfsDoArquivo, resultado);
+        }
+        
+        logger.info("Importação de operadores: {} linhas, {} importadas, {} recusadas em {} ms",
+                resultado.total, resultado.importados, resultado.rejeitados, (System.nanoTime() - inicio) / 1_000_000);
+        return new OperadorImportacaoResponseDTO(resultado.total, resultado.importados, resultado.rejeitados,
+                resultado.erros, resultado.errosOmitidos);
+    }
+    
+    private void processarLote(List<Linha> lote, ConjuntoLongs cpfsDoArquivo, Resultado resultado) {
+        lote.parallelStream().forEach(this::validar);
+        
+        // Repetições no arquivo e CPFs que podem já existir, na ordem das linhas
+        List<Long> candidatos = new ArrayList<>();
+        for (Linha linha : lote) {
+            if (linha.erro != null) {
+                continue;
+            }
+            if (!cpfsDoArquivo.adicionar(linha.operador.getCpf().getNumero())) {
+                linha.erro = "CPF repetido no arquivo: " + linha.operador.getCpf().getFormatado();
+            } else if (filtroCpf.podeEstarCadastrado(linha.operador.getCpf().getNumero())) {
+                candidatos.add(linha.operador.getCpf().getNumero());
+            }
+        }
+        Set<Long> existentes = operadorJdbcRepository.buscarCpfsExistentes(candidatos);
+        
+        List<Linha> validas = new ArrayList<>(lote.size());
+        for (Linha linha : lote) {
+            if (linha.erro == null && existentes.contains(linha.operador.getCpf().getNumero())) {
+                linha.erro = "CPF já cadastrado: " + linha.operador.getCpf().getFormatado();
+            }
+            if (linha.erro == null) {
+                validas.add(linha);
+            }
+        }
+        inserir(validas);
+        
+        for (Linha linha : lote) {
+            if (linha.erro == null) {
+                filtroCpf.registrar(linha.operador.getCpf().getNumero());
+            }
+            resultado.registrar(linha);
+        }
+    }
+    
+    private void validar(Linha linha) {
+        if (linha.erro != null) {
+            return;
+        }
+        Set<ConstraintViolation<OperadorRequestDTO>> violacoes = validator.validate(linha.dados);
+        if (!violacoes.isEmpty()) {
+            linha.erro = violacoes.stream()
+                    .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return;
+        }
+        linha.operador = new Operador(null, linha.dados.getNome(), CPF.of(linha.dados.getCpf()),
+                linha.dados.getTurno(), null);
+        linha.dados = null;
+    }
+    
+    private void inserir(List<Linha> validas) {
+        if (validas.isEmpty()) {
+            return;
+        }
+        List<Operador> operadores = validas.stream().map(linha -> linha.operador).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    operadorJdbcRepository.inserirLote(operadores, tamanhoBatch));
+        } catch (DataIntegrityViolationException e) {
+            // Algum CPF foi gravado depois da consulta; o lote foi desfeito e é regravado linha a linha
+            logger.debug("Batch de importação recusado, regravando {} linhas individualmente", validas.size());
+            for (Linha linha : validas) {
+                try {
+                    operadorJdbcRepository.inserir(linha.operador);
+                } catch (DataIntegrityViolationException duplicado) {
+                    linha.erro = "CPF já cadastrado: " + linha.operador.getCpf().getFormatado();
+                }
+            }
+        }
+    }
+    
+    private int[] lerCabecalho(LeitorLinhas leitor) throws IOException {
+        String cabecalho = leitor.proxima();
+        int[] colunas = {-1, -1, -1};
+        if (cabecalho != null && !leitor.excedeu) {
+            if (!cabecalho.isEmpty() && cabecalho.charAt(0) == BOM) {
+                cabecalho = cabecalho.substring(1);
+            }
+            List<String> nomes = dividirCsv(cabecalho);
+            for (int i = 0; i < nomes.size(); i++) {
+                switch (nomes.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "nome" -> colunas[0] = i;
+                    case "cpf" -> colunas[1] = i;
+                    case "turno" -> colunas[2] = i;
+                    default -> { }
+                }
+            }
+        }
+        if (colunas[0] < 0 || colunas[1] < 0 || colunas[2] < 0) {
+            throw new BusinessException("O cabeçalho do CSV deve conter as colunas nome, cpf e turno");
+        }
+        return colunas;
+    }
+    
+    private void lerCsv(String texto, int[] colunas, Linha linha) {
+        List<String> campos = dividirCsv(texto);
+        if (campos.size() <= Math.max(colunas[0], Math.max(colunas[1], colunas[2]))) {
+            linha.erro = "Quantidade de colunas menor que a do cabeçalho";
+            return;
+        }
+        String turno = campos.get(colunas[2]).trim();
+        TurnoEnum turnoEnum = null;
+        if (!turno.isEmpty()) {
+            try {
+                turnoEnum = TurnoEnum.valueOf(turno.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                linha.erro = "turno: valor inválido: " + turno;
+                return;
+            }
+        }
+        linha.dados = new OperadorRequestDTO(campos.get(colunas[0]).trim(), campos.get(colunas[1]).trim(),
+                turnoEnum, null);
+    }
+    
+    // Só objetos: null, arrays e escalares seriam aceitos ou convertidos pelo ObjectMapper
+    private void lerJson(String texto, Linha linha) {
+        if (!texto.stripLeading().startsWith("{")) {
+            linha.erro = "JSON inválido: a linha deve ser um objeto";
+            return;
+        }
+        try {
+            linha.dados = objectMapper.readValue(texto, OperadorRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            linha.erro = "JSON inválido: " + e.getOriginalMessage();
+        }
+    }
+    
+    // Campos separados por vírgula; aspas duplas delimitam campos com vírgula ("" escapa a aspa)
+    static List<String> dividirCsv(String texto) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (entreAspas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+    
+    private static final class Linha {
+        
+        private final int numero;
+        private OperadorRequestDTO dados;
+        private Operador operador;
+        private String erro; // Visível após o término da validação paralela (join do stream)
+        
+        private Linha(int numero) {
+            this.numero = numero;
+        }
+    }
+    
+    private static final class Resultado {
+        
+        private final int maxErros;
+        private final List<OperadorImportacaoErroResponseDTO> erros = new ArrayList<>();
+        private int total;
+        private int importados;
+        private int rejeitados;
+        private int errosOmitidos;
+        
+        private Resultado(int maxErros) {
+            this.maxErros = maxErros;
+        }
+        
+        private void registrar(Linha linha) {
+            total++;
+            if (linha.erro == null) {
+                importados++;
+                return;
+            }
+            rejeitados++;
+            if (erros.size() < maxErros) {
+                erros.add(new OperadorImportacaoErroResponseDTO(linha.numero, linha.erro));
+            } else {
+                errosOmitidos++;
+            }
+        }
+    }
+    
+    /**
+     * Lê o corpo linha a linha com buffer próprio; linhas acima de TAMANHO_MAXIMO_LINHA são
+     * descartadas até a quebra de linha (excedeu = true) em vez de acumuladas em memória.
+     */
+    private static final class LeitorLinhas {
+        
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder linha = new StringBuilder();
+        private int posicao;
+        private int limite;
+        private int numero;
+        private boolean excedeu;
+        
+        private LeitorLinhas(Reader reader) {
+            this.reader = reader;
+        }
+        
+        String proxima() throws IOException {
+            linha.setLength(0);
+            excedeu = false;
+            boolean leuAlgo = false;
+            while (true) {
+                if (posicao == limite) {
+                    limite = reader.read(buffer);
+                    posicao = 0;
+                    if (limite <= 0) {
+                        limite = 0;
+                        return leuAlgo ? concluir() : null;
+                    }
+                }
+                leuAlgo = true;
+                char c = buffer[posicao++];
+                if (c == '\n') {
+                    return concluir();
+                }
+                if (c == '\r') {
+                    continue;
+                }
+                if (linha.length() < TAMANHO_MAXIMO_LINHA) {
+                    linha.append(c);
+                } else {
+                    excedeu = true;
+                }
+            }
+        }
+        
+        private String concluir() {
+            numero++;
+            return linha.toString();
+        }
+    }
+}
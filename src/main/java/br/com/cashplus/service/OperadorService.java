@@ -8,6 +8,7 @@ import br.com.cashplus.model.Operador;
 import br.com.cashplus.model.valueobject.CPF;
 import br.com.cashplus.repository.OperadorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,11 +25,14 @@ public class OperadorService {
     @Autowired
     private OperadorRepository operadorRepository;
     
+    @Autowired
+    private FiltroCpfOperadores filtroCpf;
+    
     @Transactional
     public OperadorResponseDTO criar(OperadorRequestDTO requestDTO) {
-        // Validação de CPF duplicado
+        // Validação de CPF duplicado; o banco só é consultado se o filtro não descartar o CPF
         CPF cpf = CPF.of(requestDTO.getCpf());
-        if (operadorRepository.existsByCpf(cpf)) {
+        if (filtroCpf.podeEstarCadastrado(cpf.getNumero()) && operadorRepository.existsByCpf(cpf)) {
             throw new BusinessException("CPF já cadastrado: " + cpf.getFormatado());
         }
         
@@ -37,7 +41,13 @@ public class OperadorService {
         operador.setCpf(cpf);
         operador.setTurno(requestDTO.getTurno());
         
-        operador = operadorRepository.save(operador);
+        try {
+            // Com IDENTITY o insert é executado já no save
+            operador = operadorRepository.save(operador);
+        } catch (DataIntegrityViolationException e) {
+            throw cpfJaCadastrado(cpf, e);
+        }
+        filtroCpf.registrar(cpf.getNumero());
         return toResponseDTO(operador);
     }
     
@@ -53,33 +63,53 @@ public class OperadorService {
         return toResponseDTO(operador);
     }
     
+    /**
+     * Atualiza o operador com um único UPDATE, sem carregá-lo antes. A unicidade do CPF fica
+     * a cargo do índice único; se a versão for informada, a alteração só é aplicada sobre ela.
+     * A busca que diferencia operador inexistente de versão desatualizada só ocorre na falha.
+     * Sem versão informada, a versão resultante é lida na mesma transação, já com a linha
+     * travada pelo UPDATE.
+     */
     @Transactional
     public OperadorResponseDTO atualizar(Long id, OperadorRequestDTO requestDTO) {
-        Operador operador = operadorRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Operador não encontrado com ID: " + id));
+        CPF cpf = CPF.of(requestDTO.getCpf());
+        Long versao = requestDTO.getVersao();
         
-        // Validação de CPF duplicado (se mudou)
-        CPF novoCpf = CPF.of(requestDTO.getCpf());
-        if (!operador.getCpf().equals(novoCpf)) {
-            if (operadorRepository.existsByCpf(novoCpf)) {
-                throw new BusinessException("CPF já cadastrado: " + novoCpf.getFormatado());
+        int alterados;
+        try {
+            alterados = versao != null
+                    ? operadorRepository.atualizarDadosNaVersao(id, requestDTO.getNome(), cpf.getNumero(),
+                            requestDTO.getTurno().name(), versao)
+                    : operadorRepository.atualizarDados(id, requestDTO.getNome(), cpf.getNumero(),
+                            requestDTO.getTurno().name());
+        } catch (DataIntegrityViolationException e) {
+            throw cpfJaCadastrado(cpf, e);
+        }
+        if (alterados == 0) {
+            if (versao != null && operadorRepository.existsById(id)) {
+                throw new BusinessException("Operador " + id + " foi alterado por outra requisição; versão "
+                        + versao + " desatualizada");
             }
+            throw new ResourceNotFoundException("Operador não encontrado com ID: " + id);
         }
+        filtroCpf.registrar(cpf.getNumero());
         
-        operador.setNome(requestDTO.getNome());
-        operador.setCpf(novoCpf);
-        operador.setTurno(requestDTO.getTurno());
-        
-        operador = operadorRepository.save(operador);
+        Long novaVersao = versao != null ? versao + 1 : operadorRepository.buscarVersao(id);
+        Operador operador = new Operador(id, requestDTO.getNome(), cpf, requestDTO.getTurno(), novaVersao);
         return toResponseDTO(operador);
     }
     
     @Transactional
     public void deletar(Long id) {
-        if (!operadorRepository.existsById(id)) {
+        // Um único DELETE; nenhuma linha removida significa que o operador não existe
+        if (operadorRepository.excluirPorId(id) == 0) {
             throw new ResourceNotFoundException("Operador não encontrado com ID: " + id);
         }
-        operadorRepository.deleteById(id);
+    }
+    
+    // CPF gravado por outro nó ou por uma requisição concorrente depois da verificação
+    private BusinessException cpfJaCadastrado(CPF cpf, DataIntegrityViolationException e) {
+        return new BusinessException("CPF já cadastrado: " + cpf.getFormatado(), e);
     }
     
     private OperadorResponseDTO toResponseDTO(Operador operador) {
@@ -89,6 +119,7 @@ public class OperadorService {
         dto.setCpf(operador.getCpf().getFormatado());
         dto.setTurno(operador.getTurno());
         dto.setTurnoDescricao(operador.getTurno().getDescricao());
+        dto.setVersao(operador.getVersao());
         return dto;
     }
 }
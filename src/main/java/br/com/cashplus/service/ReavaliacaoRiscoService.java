@@ -0,0 +1,339 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.dto.response.ReavaliacaoRiscoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.exception.ResourceNotFoundException;
+import br.com.cashplus.model.ReavaliacaoRisco;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.StatusReavaliacaoEnum;
+import br.com.cashplus.repository.ReavaliacaoRiscoRepository;
+import br.com.cashplus.repository.TransacaoJdbcRepository;
+import br.com.cashplus.service.risco.ContextoRisco;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reavaliação em massa do risco de fraude das transações já gravadas, disparada pelo
+ * administrador quando as regras mudam.
+ *
+ * Os ids até o maior existente no início são divididos em faixas de tamanho fixo,
+ * distribuídas sob demanda entre um pool pequeno de workers. Cada faixa é lida em
+ * streaming, avaliada pelas regras locais e só as linhas cujo risco subiu são
+ * atualizadas, em um único batch. Transações PENDENTE ficam com a avaliação assíncrona.
+ *
+ * A reavaliação nunca reduz o risco gravado: a origem do veredito não é gravada e ele
+ * pode ter vindo da API externa, da velocidade ou da anomalia do operador, que as regras
+ * locais sozinhas não reproduzem. Afrouxar as regras, portanto, não rebaixa transações
+ * já avaliadas; só as novas vendas usam as regras mais brandas.
+ *
+ * O checkpoint (maior id até o qual todas as faixas terminaram) é gravado em
+ * reavaliacoes_risco; uma execução interrompida, com falha ou derrubada junto com a
+ * aplicação é retomada dali. A vazão é limitada em linhas por segundo, somada entre
+ * os workers, para não disputar o banco com as vendas.
+ */
+@Service
+public class ReavaliacaoRiscoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReavaliacaoRiscoService.class);
+
+    private final ReavaliacaoRiscoRepository reavaliacaoRepository;
+    private final TransacaoJdbcRepository transacaoJdbcRepository;
+    private final RiscoFraudeService riscoFraudeService;
+
+    private final int numeroWorkers;
+    private final int tamanhoFaixa;
+    private final int maxLinhasPorSegundo;
+    private final ExecutorService workers;
+    private final AtomicLong proximaLiberacaoNanos = new AtomicLong(System.nanoTime());
+    private Execucao execucaoAtual; // guardado por this
+
+    private final Counter processadas;
+    private final Counter alteradas;
+
+    public ReavaliacaoRiscoService(
+            ReavaliacaoRiscoRepository reavaliacaoRepository,
+            TransacaoJdbcRepository transacaoJdbcRepository,
+            RiscoFraudeService riscoFraudeService,
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.reavaliacao.workers:2}") int numeroWorkers,
+            @Value("${app.risco-fraude.reavaliacao.tamanho-faixa:1000}") int tamanhoFaixa,
+            @Value("${app.risco-fraude.reavaliacao.max-linhas-por-segundo:2000}") int maxLinhasPorSegundo) {
+        this.reavaliacaoRepository = reavaliacaoRepository;
+        this.transacaoJdbcRepository = transacaoJdbcRepository;
+        this.riscoFraudeService = riscoFraudeService;
+        this.numeroWorkers = numeroWorkers;
+        this.tamanhoFaixa = tamanhoFaixa;
+        this.maxLinhasPorSegundo = maxLinhasPorSegundo;
+        this.workers = Executors.newFixedThreadPool(numeroWorkers, new CustomizableThreadFactory("reavaliacao-risco-"));
+
+        this.processadas = Counter.builder("risco.fraude.reavaliacao.processadas")
+                .description("Transações lidas pela reavaliação em massa")
+                .register(meterRegistry);
+        this.alteradas = Counter.builder("risco.fraude.reavaliacao.alteradas")
+                .description("Transações com risco alterado pela reavaliação em massa")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retoma a última reavaliação não concluída a partir do checkpoint ou inicia uma nova.
+     * A execução segue em segundo plano; o progresso é obtido por {@link #consultar()}.
+     */
+    public synchronized ReavaliacaoRiscoResponseDTO iniciar() {
+        if (execucaoAtual != null) {
+            throw new BusinessException("Já existe uma reavaliação de risco em andamento (id "
+                    + execucaoAtual.reavaliacao.getId() + ")");
+        }
+
+        ReavaliacaoRisco reavaliacao = reavaliacaoRepository.findFirstByOrderByIdDesc()
+                .filter(ultima -> ultima.getStatus().isRetomavel())
+                .orElseGet(this::novaReavaliacao);
+        reavaliacao.setStatus(StatusReavaliacaoEnum.EXECUTANDO);
+        reavaliacao.setAtualizadaEm(LocalDateTime.now());
+        reavaliacao = reavaliacaoRepository.save(reavaliacao);
+
+        Execucao execucao = new Execucao(reavaliacao);
+        execucaoAtual = execucao;
+        logger.info("Reavaliação de risco {} iniciada a partir do id {} até o id {}",
+                reavaliacao.getId(), reavaliacao.getCheckpointId(), reavaliacao.getIdMaximo());
+
+        CompletableFuture<?>[] tarefas = new CompletableFuture<?>[numeroWorkers];
+        for (int i = 0; i < numeroWorkers; i++) {
+            tarefas[i] = CompletableFuture.runAsync(() -> executarWorker(execucao), workers);
+        }
+        CompletableFuture.allOf(tarefas).whenComplete((resultado, erro) -> finalizar(execucao));
+
+        return execucao.toResponseDTO();
+    }
+
+    /**
+     * Pede a interrupção da reavaliação em andamento. As faixas em processamento terminam
+     * e o checkpoint é gravado; a execução pode ser retomada com {@link #iniciar()}.
+     */
+    public synchronized ReavaliacaoRiscoResponseDTO interromper() {
+        if (execucaoAtual == null) {
+            throw new BusinessException("Nenhuma reavaliação de risco em andamento");
+        }
+        execucaoAtual.interrompida = true;
+        return execucaoAtual.toResponseDTO();
+    }
+
+    public ReavaliacaoRiscoResponseDTO consultar() {
+        Execucao execucao;
+        synchronized (this) {
+            execucao = execucaoAtual;
+        }
+        if (execucao != null) {
+            return execucao.toResponseDTO();
+        }
+        return reavaliacaoRepository.findFirstByOrderByIdDesc()
+                .map(ReavaliacaoRiscoService::toResponseDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Nenhuma reavaliação de risco encontrada"));
+    }
+
+    public synchronized boolean isExecutando() {
+        return execucaoAtual != null;
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        synchronized (this) {
+            if (execucaoAtual != null) {
+                execucaoAtual.interrompida = true;
+            }
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private ReavaliacaoRisco novaReavaliacao() {
+        LocalDateTime agora = LocalDateTime.now();
+        ReavaliacaoRisco reavaliacao = new ReavaliacaoRisco();
+        reavaliacao.setIdMaximo(transacaoJdbcRepository.buscarMaiorId());
+        reavaliacao.setIniciadaEm(agora);
+        reavaliacao.setAtualizadaEm(agora);
+        return reavaliacao;
+    }
+
+    private void executarWorker(Execucao execucao) {
+        try {
+            while (!execucao.interrompida) {
+                long faixa = execucao.proximaFaixa.getAndIncrement();
+                long inicio = execucao.base + faixa * tamanhoFaixa + 1;
+                if (inicio > execucao.idMaximo) {
+                    return;
+                }
+                long fim = Math.min(inicio + tamanhoFaixa - 1, execucao.idMaximo);
+
+                ResultadoFaixa resultado = reavaliarFaixa(inicio, fim);
+                execucao.concluirFaixa(faixa, resultado);
+                aguardarVez(resultado.processadas());
+            }
+        } catch (RuntimeException e) {
+            // Os demais workers param após a faixa atual; a execução pode ser retomada do checkpoint
+            execucao.falhou = true;
+            execucao.interrompida = true;
+            logger.error("Erro na reavaliação de risco {}: {}", execucao.reavaliacao.getId(), e.getMessage(), e);
+        }
+    }
+
+    private ResultadoFaixa reavaliarFaixa(long inicio, long fim) {
+        List<Long> ids = new ArrayList<>();
+        List<RiscoFraudeEnum> anteriores = new ArrayList<>();
+        List<RiscoFraudeEnum> novos = new ArrayList<>();
+        long[] lidas = new long[1];
+
+        transacaoJdbcRepository.percorrerFaixaAvaliada(inicio, fim, transacao -> {
+            lidas[0]++;
+            RiscoFraudeEnum novo = riscoFraudeService.avaliarRegrasLocais(ContextoRisco.de(transacao));
+            if (novo.maisGraveQue(transacao.getRiscoFraude())) {
+                ids.add(transacao.getId());
+                anteriores.add(transacao.getRiscoFraude());
+                novos.add(novo);
+            }
+        });
+
+        long atualizadas = 0;
+        if (!ids.isEmpty()) {
+            for (int linhas : transacaoJdbcRepository.atualizarRiscoSeInalterado(ids, anteriores, novos)) {
+                // Statement.SUCCESS_NO_INFO (-2) conta como atualizada
+                if (linhas != 0) {
+                    atualizadas++;
+                }
+            }
+        }
+        processadas.increment(lidas[0]);
+        alteradas.increment(atualizadas);
+        return new ResultadoFaixa(lidas[0], atualizadas);
+    }
+
+    /**
+     * Limita a vazão somada dos workers: cada faixa reserva o tempo correspondente às
+     * linhas lidas na fila comum de liberações e o worker dorme até o fim da sua reserva.
+     */
+    private void aguardarVez(long linhas) {
+        if (maxLinhasPorSegundo <= 0 || linhas == 0) {
+            return;
+        }
+        long custo = linhas * TimeUnit.SECONDS.toNanos(1) / maxLinhasPorSegundo;
+        long agora = System.nanoTime();
+        long anterior = proximaLiberacaoNanos.getAndAccumulate(custo,
+                (proxima, reserva) -> Math.max(proxima, agora) + reserva);
+        long espera = Math.max(anterior, agora) + custo - agora;
+        if (espera > 0) {
+            LockSupport.parkNanos(espera);
+        }
+    }
+
+    private void finalizar(Execucao execucao) {
+        ReavaliacaoRisco reavaliacao;
+        synchronized (execucao) {
+            reavaliacao = execucao.reavaliacao;
+            LocalDateTime agora = LocalDateTime.now();
+            if (reavaliacao.getCheckpointId() >= reavaliacao.getIdMaximo()) {
+                reavaliacao.setStatus(StatusReavaliacaoEnum.CONCLUIDA);
+                reavaliacao.setConcluidaEm(agora);
+            } else {
+                reavaliacao.setStatus(execucao.falhou
+                        ? StatusReavaliacaoEnum.FALHOU : StatusReavaliacaoEnum.INTERROMPIDA);
+            }
+            reavaliacao.setAtualizadaEm(agora);
+            try {
+                reavaliacaoRepository.save(reavaliacao);
+            } catch (RuntimeException e) {
+                // Fica EXECUTANDO no banco e é retomada do último checkpoint gravado
+                logger.error("Não foi possível gravar o fim da reavaliação de risco {}: {}",
+                        reavaliacao.getId(), e.getMessage());
+            }
+        }
+        synchronized (this) {
+            execucaoAtual = null;
+        }
+        logger.info("Reavaliação de risco {} {}: {} transações lidas, {} alteradas, checkpoint no id {}",
+                reavaliacao.getId(), reavaliacao.getStatus().getDescricao().toLowerCase(),
+                reavaliacao.getProcessadas(), reavaliacao.getAlteradas(), reavaliacao.getCheckpointId());
+    }
+
+    private static ReavaliacaoRiscoResponseDTO toResponseDTO(ReavaliacaoRisco reavaliacao) {
+        double percentual = reavaliacao.getIdMaximo() == 0 ? 100.0
+                : Math.round(reavaliacao.getCheckpointId() * 1000.0 / reavaliacao.getIdMaximo()) / 10.0;
+        return new ReavaliacaoRiscoResponseDTO(
+                reavaliacao.getId(),
+                reavaliacao.getStatus(),
+                reavaliacao.getStatus().getDescricao(),
+                reavaliacao.getIdMaximo(),
+                reavaliacao.getCheckpointId(),
+                percentual,
+                reavaliacao.getProcessadas(),
+                reavaliacao.getAlteradas(),
+                reavaliacao.getIniciadaEm(),
+                reavaliacao.getAtualizadaEm(),
+                reavaliacao.getConcluidaEm());
+    }
+
+    private record ResultadoFaixa(long processadas, long alteradas) {
+    }
+
+    /**
+     * Estado de uma execução em andamento. As faixas são numeradas a partir do checkpoint
+     * de início e podem terminar fora de ordem; o checkpoint só avança sobre faixas contíguas,
+     * então, na retomada, no máximo as faixas em voo são reprocessadas.
+     */
+    private final class Execucao {
+
+        private final ReavaliacaoRisco reavaliacao; // guardado pelo monitor da execução
+        private final long base;
+        private final long idMaximo;
+        private final AtomicLong proximaFaixa = new AtomicLong();
+        private final Map<Long, ResultadoFaixa> foraDeOrdem = new HashMap<>();
+        private long proximaContigua;
+        private volatile boolean interrompida;
+        private volatile boolean falhou;
+
+        private Execucao(ReavaliacaoRisco reavaliacao) {
+            this.reavaliacao = reavaliacao;
+            this.base = reavaliacao.getCheckpointId();
+            this.idMaximo = reavaliacao.getIdMaximo();
+        }
+
+        private synchronized void concluirFaixa(long faixa, ResultadoFaixa resultado) {
+            foraDeOrdem.put(faixa, resultado);
+            ResultadoFaixa contigua = foraDeOrdem.remove(proximaContigua);
+            if (contigua == null) {
+                return;
+            }
+            while (contigua != null) {
+                reavaliacao.setProcessadas(reavaliacao.getProcessadas() + contigua.processadas());
+                reavaliacao.setAlteradas(reavaliacao.getAlteradas() + contigua.alteradas());
+                proximaContigua++;
+                reavaliacao.setCheckpointId(Math.min(base + proximaContigua * tamanhoFaixa, idMaximo));
+                contigua = foraDeOrdem.remove(proximaContigua);
+            }
+            reavaliacao.setAtualizadaEm(LocalDateTime.now());
+            reavaliacaoRepository.save(reavaliacao);
+        }
+
+        private synchronized ReavaliacaoRiscoResponseDTO toResponseDTO() {
+            return ReavaliacaoRiscoService.toResponseDTO(reavaliacao);
+        }
+    }
+}
@@ -1,132 +1,233 @@
 package br.com.cashplus.service;
 
-import br.com.cashplus.dto.external.RiscoFraudeRequestDTO;
-import br.com.cashplus.dto.external.RiscoFraudeResponseDTO;
 import br.com.cashplus.model.enums.RiscoFraudeEnum;
-import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.service.risco.ContextoRisco;
+import br.com.cashplus.service.risco.DetectorAnomaliaOperador;
+import br.com.cashplus.service.risco.MonitorVelocidadeOperador;
+import br.com.cashplus.service.risco.MotorRegrasRisco;
+import br.com.cashplus.service.risco.RespostaRisco;
+import br.com.cashplus.service.risco.RiscoFraudeCache;
+import br.com.cashplus.service.risco.RiscoFraudeClient;
+import br.com.cashplus.service.risco.SinaisOperador;
+import br.com.cashplus.service.risco.auditoria.DiarioDecisoesRisco;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco.Camada;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco.MotivoFallback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientException;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
-import java.math.BigDecimal;
-import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Serviço para consulta de risco de fraude em API externa.
- * Implementa tratamento de timeout, retry e fallback.
+ * Implementa cache de vereditos e fallback para as regras locais ({@link MotorRegrasRisco}); timeout, retry,
+ * circuit breaker e bulkhead ficam no {@link RiscoFraudeClient}.
+ * 
+ * Avaliação em camadas: com app.risco-fraude.camadas.enabled, as regras locais respondem
+ * direto os casos claros e só os valores na zona cinzenta (perto dos limites) vão à API.
+ * Decisões e latências por camada ficam em risco.fraude.decisoes e risco.fraude.avaliacao;
+ * cada decisão é registrada no {@link DiarioDecisoesRisco} para auditoria.
  */
 @Service
 public class RiscoFraudeService {
 
     private static final Logger logger = LoggerFactory.getLogger(RiscoFraudeService.class);
     
-    private final WebClient webClient;
+    private final RiscoFraudeClient client;
+    private final RiscoFraudeCache cache;
+    private final MotorRegrasRisco motorRegras;
+    private final MonitorVelocidadeOperador monitorVelocidade;
+    private final DetectorAnomaliaOperador detectorAnomalia;
+    private final DiarioDecisoesRisco diarioDecisoes;
     private final boolean apiExternaHabilitada;
-    private final int timeoutSegundos;
+    private final boolean camadasHabilitadas;
+    private final int margemZonaCinzenta;
+    private final Counter[] decisoes = new Counter[Camada.values().length];
+    private final Timer[] latencias = new Timer[Camada.values().length];
     
     public RiscoFraudeService(
-            WebClient.Builder webClientBuilder,
-            @Value("${app.risco-fraude.api.url:http://api.riscofraude.com/v1/consulta}") String apiUrl,
+            RiscoFraudeClient client,
+            RiscoFraudeCache cache,
+            MotorRegrasRisco motorRegras,
+            MonitorVelocidadeOperador monitorVelocidade,
+            DetectorAnomaliaOperador detectorAnomalia,
+            DiarioDecisoesRisco diarioDecisoes,
+            MeterRegistry meterRegistry,
             @Value("${app.risco-fraude.api.enabled:false}") boolean apiExternaHabilitada,
-            @Value("${app.risco-fraude.api.timeout:5}") int timeoutSegundos) {
+            @Value("${app.risco-fraude.camadas.enabled:true}") boolean camadasHabilitadas,
+            @Value("${app.risco-fraude.camadas.margem-percentual:10}") int margemZonaCinzenta) {
+        this.client = client;
+        this.cache = cache;
+        this.motorRegras = motorRegras;
+        this.monitorVelocidade = monitorVelocidade;
+        this.detectorAnomalia = detectorAnomalia;
+        this.diarioDecisoes = diarioDecisoes;
         this.apiExternaHabilitada = apiExternaHabilitada;
-        this.timeoutSegundos = timeoutSegundos;
-        this.webClient = webClientBuilder
-                .baseUrl(apiUrl)
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
-                .build();
+        this.camadasHabilitadas = camadasHabilitadas;
+        this.margemZonaCinzenta = margemZonaCinzenta;
+        
+        for (Camada camada : Camada.values()) {
+            String tag = camada.name().toLowerCase();
+            decisoes[camada.ordinal()] = Counter.builder("risco.fraude.decisoes")
+                    .description("Decisões de risco por camada de avaliação")
+                    .tag("camada", tag)
+                    .register(meterRegistry);
+            latencias[camada.ordinal()] = Timer.builder("risco.fraude.avaliacao")
+                    .description("Latência da avaliação de risco por camada")
+                    .tag("camada", tag)
+                    .register(meterRegistry);
+        }
     }
 
     /**
-     * Consulta o risco de fraude em API externa ou usa cálculo local como fallback.
+     * Consulta o risco de fraude em API externa ou usa as regras locais como fallback.
+     * Não bloqueia a thread chamadora: a chamada HTTP é executada pelo event loop
+     * do WebClient e o resultado é entregue pelo Mono retornado.
+     * Vereditos da API externa são reaproveitados pelo {@link RiscoFraudeCache}.
+     * Com o circuito da API aberto, as regras locais respondem sem nenhuma espera.
+     * O risco é elevado em um nível quando o operador excede os limites de velocidade
+     * ({@link MonitorVelocidadeOperador}) e mais um quando a venda foge do padrão do
+     * operador no turno ({@link DetectorAnomaliaOperador}).
      * 
-     * @param valor O valor da transação
-     * @param tipoPagamento O tipo de pagamento
-     * @return O nível de risco de fraude
+     * @param contexto Dados da transação (valor, tipo de pagamento, turno e horário)
+     * @return Mono com o nível de risco de fraude (nunca termina com erro)
+     */
+    public Mono<RiscoFraudeEnum> consultarRiscoAsync(ContextoRisco contexto) {
+        long inicio = System.nanoTime();
+        return consultarRiscoAsync(contexto, registrarSinais(contexto), inicio);
+    }
+    
+    /**
+     * Registra a venda na janela de velocidade e na linha de base de anomalias do operador.
+     * Deve ser chamado uma única vez por venda.
      */
-    public RiscoFraudeEnum consultarRisco(BigDecimal valor, TipoPagamentoEnum tipoPagamento) {
+    public SinaisOperador registrarSinais(ContextoRisco contexto) {
+        // Regras de velocidade: a venda entra na janela do operador antes de qualquer camada
+        boolean velocidadeExcedida = monitorVelocidade.registrarEVerificar(contexto);
+        boolean anomala = detectorAnomalia.avaliarEAtualizar(contexto);
+        return new SinaisOperador(velocidadeExcedida, anomala);
+    }
+    
+    /**
+     * Como {@link #consultarRiscoAsync(ContextoRisco)}, com os sinais já registrados por
+     * {@link #registrarSinais}: uma nova tentativa de avaliar a mesma venda não altera o
+     * estado de velocidade e anomalias do operador.
+     */
+    public Mono<RiscoFraudeEnum> consultarRiscoAsync(ContextoRisco contexto, SinaisOperador sinais) {
+        return consultarRiscoAsync(contexto, sinais, System.nanoTime());
+    }
+    
+    private Mono<RiscoFraudeEnum> consultarRiscoAsync(ContextoRisco contexto, SinaisOperador sinais, long inicio) {
+        boolean velocidadeExcedida = sinais.isVelocidadeExcedida();
+        boolean anomala = sinais.isAnomala();
+        return avaliarPorCamada(contexto).map(decisao -> {
+            RiscoFraudeEnum risco = decisao.risco;
+            if (velocidadeExcedida) {
+                risco = monitorVelocidade.elevar(risco);
+            }
+            if (anomala) {
+                risco = risco.elevado();
+            }
+            auditar(contexto, decisao, velocidadeExcedida, anomala, risco, inicio);
+            return risco;
+        });
+    }
+    
+    /**
+     * Avalia apenas pelas regras locais em vigor, sem API externa e sem alterar o estado de
+     * velocidade e anomalias dos operadores. Usado na reavaliação de transações históricas.
+     */
+    public RiscoFraudeEnum avaliarRegrasLocais(ContextoRisco contexto) {
+        return motorRegras.avaliar(contexto);
+    }
+
+    private Mono<Decisao> avaliarPorCamada(ContextoRisco contexto) {
         if (!apiExternaHabilitada) {
-            logger.debug("API externa desabilitada, usando cálculo local");
-            return calcularRiscoFraudeLocal(valor, tipoPagamento);
+            logger.debug("API externa desabilitada, usando regras locais");
+            return Mono.just(avaliarLocal(contexto));
+        }
+        if (camadasHabilitadas && !motorRegras.isAmbiguo(contexto, margemZonaCinzenta)) {
+            return Mono.just(avaliarLocal(contexto));
         }
         
-        try {
-            RiscoFraudeRequestDTO request = new RiscoFraudeRequestDTO(
-                    valor, 
-                    tipoPagamento != null ? tipoPagamento.name() : null
-            );
-            
-            RiscoFraudeResponseDTO response = webClient.post()
-                    .uri("/consultar")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(RiscoFraudeResponseDTO.class)
-                    .timeout(Duration.ofSeconds(timeoutSegundos))
-                    .retryWhen(Retry.fixedDelay(2, Duration.ofMillis(500))
-                            .filter(throwable -> throwable instanceof WebClientException))
-                    .onErrorResume(throwable -> {
-                        logger.warn("Erro ao consultar API externa de risco de fraude: {}", 
-                                throwable.getMessage());
-                        RiscoFraudeEnum riscoLocal = calcularRiscoFraudeLocal(valor, tipoPagamento);
-                        RiscoFraudeResponseDTO fallbackResponse = new RiscoFraudeResponseDTO();
-                        fallbackResponse.setRisco(riscoLocal.name());
-                        return Mono.just(fallbackResponse);
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            return cache.obter(contexto, () -> client.consultar(contexto.getValor(), contexto.getTipoPagamento()))
+                    .map(resposta -> {
+                        registrar(Camada.REMOTA, inicio);
+                        // Veredito local calculado só para a auditoria (divergência local x remoto)
+                        return new Decisao(Camada.REMOTA, motorRegras.avaliar(contexto), resposta,
+                                MotivoFallback.NENHUM);
                     })
-                    .block();
-            
-            if (response != null && response.getRisco() != null) {
-                try {
-                    return RiscoFraudeEnum.valueOf(response.getRisco().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Risco retornado pela API inválido: {}, usando cálculo local", 
-                            response.getRisco());
-                    return calcularRiscoFraudeLocal(valor, tipoPagamento);
-                }
-            }
-            
-            return calcularRiscoFraudeLocal(valor, tipoPagamento);
-            
-        } catch (Exception e) {
-            logger.error("Erro inesperado ao consultar risco de fraude: {}", e.getMessage(), e);
-            return calcularRiscoFraudeLocal(valor, tipoPagamento);
-        }
+                    .switchIfEmpty(Mono.fromSupplier(() -> fallback(contexto, inicio, MotivoFallback.SEM_RESPOSTA)))
+                    .onErrorResume(throwable -> Mono.just(fallback(contexto, inicio, MotivoFallback.ERRO)));
+        });
     }
-
+    
+    private Decisao avaliarLocal(ContextoRisco contexto) {
+        long inicio = System.nanoTime();
+        RiscoFraudeEnum risco = motorRegras.avaliar(contexto);
+        registrar(Camada.LOCAL, inicio);
+        return new Decisao(Camada.LOCAL, risco, null, MotivoFallback.NENHUM);
+    }
+    
+    private Decisao fallback(ContextoRisco contexto, long inicio, MotivoFallback motivo) {
+        RiscoFraudeEnum risco = motorRegras.avaliar(contexto);
+        registrar(Camada.FALLBACK, inicio);
+        return new Decisao(Camada.FALLBACK, risco, null, motivo);
+    }
+    
+    private void auditar(ContextoRisco contexto, Decisao decisao, boolean velocidadeExcedida, boolean anomala,
+                         RiscoFraudeEnum riscoFinal, long inicio) {
+        RespostaRisco resposta = decisao.respostaRemota;
+        long latenciaMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio);
+        diarioDecisoes.registrar(new RegistroDecisaoRisco(
+                System.currentTimeMillis(),
+                contexto.getOperadorId(),
+                contexto.getCentavos(),
+                contexto.getTipoPagamento(),
+                contexto.getTurno(),
+                decisao.camada,
+                decisao.riscoLocal,
+                resposta != null ? resposta.getRisco() : null,
+                resposta != null ? resposta.getScore() : null,
+                resposta != null ? resposta.getMensagem() : null,
+                decisao.motivoFallback,
+                velocidadeExcedida,
+                anomala,
+                riscoFinal,
+                (int) Math.min(latenciaMicros, Integer.MAX_VALUE)));
+    }
+    
+    private void registrar(Camada camada, long inicio) {
+        latencias[camada.ordinal()].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        decisoes[camada.ordinal()].increment();
+    }
+    
     /**
-     * Calcula o risco de fraude localmente baseado em regras de negócio.
-     * Regras:
-     * - DINHEIRO: sempre BAIXO
-     * - PIX: sempre BAIXO
-     * - CARTAO: BAIXO se valor < 100, MEDIO se 100-500, ALTO se > 500
+     * Resultado da camada que decidiu, antes das elevações por velocidade e anomalia.
      */
-    private RiscoFraudeEnum calcularRiscoFraudeLocal(BigDecimal valor, TipoPagamentoEnum tipoPagamento) {
-        if (tipoPagamento == null) {
-            return RiscoFraudeEnum.MEDIO;
-        }
-
-        if (tipoPagamento == TipoPagamentoEnum.DINHEIRO || 
-            tipoPagamento == TipoPagamentoEnum.PIX) {
-            return RiscoFraudeEnum.BAIXO;
-        }
-
-        if (tipoPagamento == TipoPagamentoEnum.CARTAO) {
-            BigDecimal cem = new BigDecimal("100");
-            BigDecimal quinhentos = new BigDecimal("500");
-            
-            if (valor.compareTo(cem) < 0) {
-                return RiscoFraudeEnum.BAIXO;
-            } else if (valor.compareTo(quinhentos) <= 0) {
-                return RiscoFraudeEnum.MEDIO;
-            } else {
-                return RiscoFraudeEnum.ALTO;
-            }
+    private static final class Decisao {
+        
+        private final Camada camada;
+        private final RiscoFraudeEnum riscoLocal;
+        private final RespostaRisco respostaRemota;
+        private final MotivoFallback motivoFallback;
+        private final RiscoFraudeEnum risco;
+        
+        private Decisao(Camada camada, RiscoFraudeEnum riscoLocal, RespostaRisco respostaRemota,
+                        MotivoFallback motivoFallback) {
+            this.camada = camada;
+            this.riscoLocal = riscoLocal;
+            this.respostaRemota = respostaRemota;
+            this.motivoFallback = motivoFallback;
+            this.risco = respostaRemota != null ? respostaRemota.getRisco() : riscoLocal;
         }
-
-        return RiscoFraudeEnum.MEDIO;
     }
 }
@@ -1,18 +1,48 @@
 package br.com.cashplus.service;
 
+import br.com.cashplus.dto.request.TransacaoLoteRequestDTO;
 import br.com.cashplus.dto.request.TransacaoRequestDTO;
+import br.com.cashplus.dto.response.PaginaCursorResponseDTO;
+import br.com.cashplus.dto.response.TransacaoLoteItemResponseDTO;
+import br.com.cashplus.dto.response.TransacaoLoteResponseDTO;
 import br.com.cashplus.dto.response.TransacaoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
 import br.com.cashplus.exception.ResourceNotFoundException;
 import br.com.cashplus.model.Operador;
 import br.com.cashplus.model.Transacao;
 import br.com.cashplus.model.enums.RiscoFraudeEnum;
 import br.com.cashplus.repository.OperadorRepository;
+import br.com.cashplus.repository.TransacaoJdbcRepository;
 import br.com.cashplus.repository.TransacaoRepository;
+import br.com.cashplus.service.risco.ContextoRisco;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -28,38 +58,262 @@ public class TransacaoService {
     @Autowired
     private OperadorRepository operadorRepository;
     
+    @Autowired
+    private TransacaoJdbcRepository transacaoJdbcRepository;
+    
     @Autowired
     private RiscoFraudeService riscoFraudeService;
     
-    @Transactional
-    public TransacaoResponseDTO criar(TransacaoRequestDTO requestDTO) {
+    @Autowired
+    private AvaliacaoRiscoPendenteService avaliacaoRiscoPendenteService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    @Qualifier("persistenciaScheduler")
+    private Scheduler persistenciaScheduler;
+    
+    @Value("${app.transacoes.paginacao.limite-padrao:50}")
+    private int limitePadrao;
+    
+    @Value("${app.transacoes.paginacao.limite-maximo:500}")
+    private int limiteMaximo;
+    
+    @Value("${app.transacoes.stream.fetch-size:500}")
+    private int fetchSizeStream;
+    
+    @Value("${app.transacoes.lote.tamanho-batch:100}")
+    private int tamanhoBatchLote;
+    
+    @Value("${app.transacoes.lote.concorrencia-risco:32}")
+    private int concorrenciaRiscoLote;
+    
+    /**
+     * Cria uma transação sem bloquear a thread da requisição durante a consulta de risco.
+     * O operador é buscado antes da avaliação (o turno participa das regras de risco);
+     * a gravação ocorre no pool de persistência assim que o risco é conhecido.
+     * Com a avaliação assíncrona habilitada, a transação é gravada como PENDENTE
+     * e o risco é calculado depois, fora do caminho do checkout.
+     */
+    public CompletableFuture<TransacaoResponseDTO> criar(TransacaoRequestDTO requestDTO) {
+        LocalDateTime agora = LocalDateTime.now();
+        
+        return Mono.fromCallable(() -> Optional.ofNullable(buscarOperador(requestDTO.getOperadorId())))
+                .subscribeOn(persistenciaScheduler)
+                .flatMap(operador -> avaliarRisco(requestDTO, operador.orElse(null), agora)
+                        .publishOn(persistenciaScheduler)
+                        .map(riscoFraude -> transactionTemplate.execute(status ->
+                                persistir(requestDTO, operador.orElse(null), riscoFraude, agora))))
+                .doOnNext(transacaoCriada -> enfileirarPendentes(List.of(transacaoCriada)))
+                .toFuture();
+    }
+    
+    private Operador buscarOperador(Long operadorId) {
+        if (operadorId == null) {
+            return null;
+        }
+        return operadorRepository.findById(operadorId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Operador não encontrado com ID: " + operadorId));
+    }
+    
+    // Consulta risco de fraude (pode usar API externa ou regras locais)
+    private Mono<RiscoFraudeEnum> avaliarRisco(TransacaoRequestDTO requestDTO, Operador operador,
+                                               LocalDateTime dataHora) {
+        if (avaliacaoRiscoPendenteService.isHabilitado()) {
+            return Mono.just(RiscoFraudeEnum.PENDENTE);
+        }
+        return riscoFraudeService.consultarRiscoAsync(new ContextoRisco(
+                requestDTO.getValor(),
+                requestDTO.getTipoPagamento(),
+                operador != null ? operador.getTurno() : null,
+                operador != null ? operador.getId() : null,
+                dataHora));
+    }
+    
+    private TransacaoResponseDTO persistir(TransacaoRequestDTO requestDTO, Operador operador,
+                                           RiscoFraudeEnum riscoFraude, LocalDateTime dataHora) {
         Transacao transacao = new Transacao();
         transacao.setValor(requestDTO.getValor());
         transacao.setTipoPagamento(requestDTO.getTipoPagamento());
-        
-        // Consulta risco de fraude (pode usar API externa ou cálculo local)
-        RiscoFraudeEnum riscoFraude = riscoFraudeService.consultarRisco(
-                requestDTO.getValor(), 
-                requestDTO.getTipoPagamento()
-        );
         transacao.setRiscoFraude(riscoFraude);
-        
-        // Associa operador se fornecido
-        if (requestDTO.getOperadorId() != null) {
-            Operador operador = operadorRepository.findById(requestDTO.getOperadorId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Operador não encontrado com ID: " + requestDTO.getOperadorId()));
-            transacao.setOperador(operador);
-        }
+        transacao.setOperador(operador);
+        transacao.setDataTransacao(dataHora);
         
         transacao = transacaoRepository.save(transacao);
         return toResponseDTO(transacao);
     }
     
-    public List<TransacaoResponseDTO> listarTodas() {
-        return transacaoRepository.findAll().stream()
+    /**
+     * Cria um lote de transações com uma única consulta de operadores e inserts em batch JDBC.
+     * Itens que referenciam operadores inexistentes são rejeitados individualmente,
+     * sem impedir a gravação dos demais.
+     */
+    public CompletableFuture<TransacaoLoteResponseDTO> criarLote(TransacaoLoteRequestDTO loteDTO) {
+        List<TransacaoRequestDTO> requisicoes = loteDTO.getTransacoes();
+        LocalDateTime agora = LocalDateTime.now();
+        
+        return Mono.fromCallable(() -> buscarOperadores(requisicoes))
+                .subscribeOn(persistenciaScheduler)
+                .flatMap(operadores -> Flux.fromIterable(requisicoes)
+                        // Consulta o risco de todo o lote em paralelo, preservando a ordem dos itens
+                        .flatMapSequential(requestDTO -> {
+                            Long operadorId = requestDTO.getOperadorId();
+                            if (operadorId != null && !operadores.containsKey(operadorId)) {
+                                // Item será rejeitado: não é avaliado
+                                return Mono.just(RiscoFraudeEnum.PENDENTE);
+                            }
+                            return avaliarRisco(requestDTO,
+                                    operadorId != null ? operadores.get(operadorId) : null, agora);
+                        }, concorrenciaRiscoLote)
+                        .collectList()
+                        .publishOn(persistenciaScheduler)
+                        .map(riscosLote -> transactionTemplate.execute(status ->
+                                persistirLote(requisicoes, operadores, riscosLote, agora))))
+                .doOnNext(resultado -> enfileirarPendentes(resultado.getItens().stream()
+                        .filter(TransacaoLoteItemResponseDTO::isSucesso)
+                        .map(TransacaoLoteItemResponseDTO::getTransacao)
+                        .collect(Collectors.toList())))
+                .toFuture();
+    }
+    
+    // Busca todos os operadores referenciados com um único IN
+    private Map<Long, Operador> buscarOperadores(List<TransacaoRequestDTO> requisicoes) {
+        Set<Long> operadorIds = requisicoes.stream()
+                .map(TransacaoRequestDTO::getOperadorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return operadorIds.isEmpty() ? Map.of() :
+                operadorRepository.findAllById(operadorIds).stream()
+                        .collect(Collectors.toMap(Operador::getId, Function.identity()));
+    }
+    
+    // Chamado após o commit: o worker não pode ler a transação antes de ela existir no banco
+    private void enfileirarPendentes(List<TransacaoResponseDTO> transacoes) {
+        List<Long> pendentes = transacoes.stream()
+                .filter(transacao -> transacao.getRiscoFraude() == RiscoFraudeEnum.PENDENTE)
+                .map(TransacaoResponseDTO::getId)
+                .collect(Collectors.toList());
+        if (!pendentes.isEmpty()) {
+            avaliacaoRiscoPendenteService.enfileirar(pendentes);
+        }
+    }
+    
+    private TransacaoLoteResponseDTO persistirLote(List<TransacaoRequestDTO> requisicoes,
+                                                   Map<Long, Operador> operadores,
+                                                   List<RiscoFraudeEnum> riscos,
+                                                   LocalDateTime agora) {
+        List<TransacaoLoteItemResponseDTO> itens = new ArrayList<>(requisicoes.size());
+        List<Transacao> transacoesValidas = new ArrayList<>(requisicoes.size());
+        List<TransacaoLoteItemResponseDTO> itensValidos = new ArrayList<>(requisicoes.size());
+        
+        for (int i = 0; i < requisicoes.size(); i++) {
+            TransacaoRequestDTO requestDTO = requisicoes.get(i);
+            Long operadorId = requestDTO.getOperadorId();
+            if (operadorId != null && !operadores.containsKey(operadorId)) {
+                itens.add(new TransacaoLoteItemResponseDTO(
+                        i, false, null, "Operador não encontrado com ID: " + operadorId));
+                continue;
+            }
+            
+            Transacao transacao = new Transacao();
+            transacao.setValor(requestDTO.getValor());
+            transacao.setTipoPagamento(requestDTO.getTipoPagamento());
+            transacao.setRiscoFraude(riscos.get(i));
+            transacao.setOperador(operadorId != null ? operadores.get(operadorId) : null);
+            transacao.setDataTransacao(agora);
+            
+            TransacaoLoteItemResponseDTO item = new TransacaoLoteItemResponseDTO(i, true, null, null);
+            itens.add(item);
+            itensValidos.add(item);
+            transacoesValidas.add(transacao);
+        }
+        
+        transacaoJdbcRepository.inserirLote(transacoesValidas, tamanhoBatchLote);
+        for (int i = 0; i < transacoesValidas.size(); i++) {
+            itensValidos.get(i).setTransacao(toResponseDTO(transacoesValidas.get(i)));
+        }
+        
+        int criadas = transacoesValidas.size();
+        return new TransacaoLoteResponseDTO(requisicoes.size(), criadas, requisicoes.size() - criadas, itens);
+    }
+    
+    /**
+     * Lista transações paginadas por cursor (keyset), da mais recente para a mais antiga.
+     * 
+     * @param cursor Cursor retornado pela página anterior (null para a primeira página)
+     * @param limite Quantidade de itens por página (limitada a app.transacoes.paginacao.limite-maximo)
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorResponseDTO<TransacaoResponseDTO> listarPagina(String cursor, Integer limite) {
+        int tamanho = limite != null ? Math.min(limite, limiteMaximo) : limitePadrao;
+        // Busca um item a mais para saber se existe próxima página sem COUNT(*)
+        PageRequest pageRequest = PageRequest.of(0, tamanho + 1);
+        
+        List<Transacao> transacoes;
+        if (cursor == null || cursor.isEmpty()) {
+            transacoes = transacaoRepository.buscarPrimeiraPagina(pageRequest);
+        } else {
+            Transacao ultima = decodificarCursor(cursor);
+            transacoes = transacaoRepository.buscarPaginaApos(
+                    ultima.getDataTransacao(), ultima.getId(), pageRequest);
+        }
+        
+        boolean temMais = transacoes.size() > tamanho;
+        if (temMais) {
+            transacoes = transacoes.subList(0, tamanho);
+        }
+        
+        List<TransacaoResponseDTO> itens = transacoes.stream()
                 .map(this::toResponseDTO)
                 .collect(Collectors.toList());
+        String proximoCursor = temMais ? codificarCursor(transacoes.get(transacoes.size() - 1)) : null;
+        return new PaginaCursorResponseDTO<>(itens, proximoCursor, temMais);
+    }
+    
+    /**
+     * Escreve todas as transações diretamente no stream de saída, linha a linha,
+     * a partir de um result set forward-only. O consumo de memória não depende
+     * do tamanho da tabela.
+     * 
+     * @param saida Stream de saída da resposta HTTP
+     * @param ndjson true para NDJSON (um objeto por linha), false para array JSON
+     */
+    public void exportar(OutputStream saida, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(saida)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                // Sem o espaço que o Jackson põe entre valores de raiz; o separador é a quebra de linha
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+            
+            int[] escritas = {0};
+            transacaoJdbcRepository.percorrerTodas(fetchSizeStream, transacao -> {
+                try {
+                    generator.writeObject(toResponseDTO(transacao));
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++escritas[0] % fetchSizeStream == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
     
     public TransacaoResponseDTO buscarPorId(Long id) {
@@ -70,10 +324,29 @@ public class TransacaoService {
     
     @Transactional
     public void deletar(Long id) {
-        if (!transacaoRepository.existsById(id)) {
+        // Um único DELETE; nenhuma linha removida significa que a transação não existe
+        if (transacaoRepository.excluirPorId(id) == 0) {
             throw new ResourceNotFoundException("Transação não encontrada com ID: " + id);
         }
-        transacaoRepository.deleteById(id);
+    }
+    
+    private String codificarCursor(Transacao transacao) {
+        String chave = transacao.getDataTransacao() + "_" + transacao.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private Transacao decodificarCursor(String cursor) {
+        try {
+            String chave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = chave.lastIndexOf('_');
+            Transacao transacao = new Transacao();
+            transacao.setDataTransacao(LocalDateTime.parse(chave.substring(0, separador)));
+            transacao.setId(Long.parseLong(chave.substring(separador + 1)));
+            return transacao;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor de paginação inválido: " + cursor);
+        }
     }
     
     private TransacaoResponseDTO toResponseDTO(Transacao transacao) {
@@ -0,0 +1,45 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato do arquivo de regras locais de risco (regras-risco-fraude.json).
+ * 
+ * Cada regra vale para um tipo de pagamento e, opcionalmente, para um turno do operador
+ * e uma faixa de horário [horaInicio, horaFim) — que pode passar da meia-noite.
+ * A regra define um risco fixo ou limites de valor:
+ * BAIXO abaixo de limiteMedio, MEDIO até limiteAlto (inclusive) e ALTO acima.
+ * Regras mais específicas (turno + horário > turno > horário > só tipo) prevalecem.
+ */
+@Data
+@NoArgsConstructor
+public class ArquivoRegrasRisco {
+    
+    private RiscoFraudeEnum riscoPadrao = RiscoFraudeEnum.MEDIO;
+    private List<Regra> regras = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    public static class Regra {
+        
+        private TipoPagamentoEnum tipoPagamento;
+        private TurnoEnum turno;
+        private Integer horaInicio;
+        private Integer horaFim;
+        private RiscoFraudeEnum risco;
+        private BigDecimal limiteMedio;
+        private BigDecimal limiteAlto;
+        
+        int especificidade() {
+            return (turno != null ? 2 : 0) + (horaInicio != null ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.cashplus.service.risco;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita o número de chamadas simultâneas a um recurso externo.
+ * Não há espera: sem permissão disponível, a chamada é recusada na hora
+ * e o chamador usa seu fallback.
+ */
+public class Bulkhead {
+
+    private final int maxChamadas;
+    private final Semaphore permissoes;
+    private final AtomicLong rejeitadas = new AtomicLong();
+    
+    public Bulkhead(int maxChamadas) {
+        this.maxChamadas = maxChamadas;
+        this.permissoes = new Semaphore(maxChamadas);
+    }
+    
+    /**
+     * Tenta reservar uma permissão. Se retornar true, {@link #liberar()} deve ser chamado ao final.
+     */
+    public boolean tentarEntrar() {
+        if (permissoes.tryAcquire()) {
+            return true;
+        }
+        rejeitadas.incrementAndGet();
+        return false;
+    }
+    
+    public void liberar() {
+        permissoes.release();
+    }
+    
+    public int getEmUso() {
+        return maxChamadas - permissoes.availablePermits();
+    }
+    
+    public long getRejeitadas() {
+        return rejeitadas.get();
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.cashplus.service.risco;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker com janela deslizante por contagem de chamadas.
+ * 
+ * - FECHADO: todas as chamadas passam; o resultado das últimas N chamadas é mantido
+ *   em um buffer circular. Se a taxa de falhas ou de chamadas lentas ultrapassar o
+ *   limite (após um mínimo de chamadas), o circuito abre.
+ * - ABERTO: as chamadas são recusadas imediatamente até o fim do tempo de espera.
+ * - MEIO_ABERTO: um número limitado de chamadas de teste é liberado; conforme a taxa
+ *   de falha delas, o circuito fecha ou volta a abrir.
+ * 
+ * A verificação no estado FECHADO é uma única leitura volátil; registros e transições
+ * são sincronizados (custo desprezível frente a uma chamada HTTP).
+ */
+public class CircuitBreaker {
+
+    public enum Estado {
+        FECHADO, ABERTO, MEIO_ABERTO
+    }
+    
+    private static final byte FALHA = 1;
+    private static final byte LENTA = 2;
+    
+    private final int chamadasMinimas;
+    private final int taxaFalhaPercentual;
+    private final long limiteChamadaLentaNanos;
+    private final int taxaLentaPercentual;
+    private final long tempoAbertoNanos;
+    private final int chamadasTeste;
+    private final LongSupplier relogioNanos;
+    
+    // Janela deslizante (protegida por this)
+    private final byte[] janela;
+    private int posicao;
+    private int totalJanela;
+    private int falhasJanela;
+    private int lentasJanela;
+    
+    private volatile Estado estado = Estado.FECHADO;
+    private long abertoEmNanos;
+    private int testesDisponiveis;
+    private int testesConcluidos;
+    private int testesComFalha;
+    
+    private final AtomicLong rejeitadas = new AtomicLong();
+    
+    public CircuitBreaker(int tamanhoJanela, int chamadasMinimas, int taxaFalhaPercentual,
+                          long limiteChamadaLentaNanos, int taxaLentaPercentual,
+                          long tempoAbertoNanos, int chamadasTeste, LongSupplier relogioNanos) {
+        this.janela = new byte[tamanhoJanela];
+        this.chamadasMinimas = Math.min(chamadasMinimas, tamanhoJanela);
+        this.taxaFalhaPercentual = taxaFalhaPercentual;
+        this.limiteChamadaLentaNanos = limiteChamadaLentaNanos;
+        this.taxaLentaPercentual = taxaLentaPercentual;
+        this.tempoAbertoNanos = tempoAbertoNanos;
+        this.chamadasTeste = chamadasTeste;
+        this.relogioNanos = relogioNanos;
+    }
+    
+    /**
+     * Indica se uma chamada pode ser feita. Uma chamada liberada deve ter seu
+     * resultado informado por {@link #registrarSucesso} ou {@link #registrarFalha}.
+     */
+    public boolean permitirChamada() {
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        synchronized (this) {
+            if (estado == Estado.ABERTO) {
+                if (relogioNanos.getAsLong() - abertoEmNanos < tempoAbertoNanos) {
+                    rejeitadas.incrementAndGet();
+                    return false;
+                }
+                estado = Estado.MEIO_ABERTO;
+                testesDisponiveis = chamadasTeste;
+                testesConcluidos = 0;
+                testesComFalha = 0;
+            }
+            if (estado == Estado.FECHADO) {
+                return true;
+            }
+            if (testesDisponiveis > 0) {
+                testesDisponiveis--;
+                return true;
+            }
+            rejeitadas.incrementAndGet();
+            return false;
+        }
+    }
+    
+    public void registrarSucesso(long duracaoNanos) {
+        registrar(duracaoNanos >= limiteChamadaLentaNanos ? LENTA : 0);
+    }
+    
+    public void registrarFalha(long duracaoNanos) {
+        registrar((byte) (FALHA | (duracaoNanos >= limiteChamadaLentaNanos ? LENTA : 0)));
+    }
+    
+    /**
+     * Chamada liberada que foi cancelada antes de ter resultado.
+     * No estado meio-aberto a permissão de teste é devolvida.
+     */
+    public synchronized void registrarCancelamento() {
+        if (estado == Estado.MEIO_ABERTO && testesDisponiveis + testesConcluidos < chamadasTeste) {
+            testesDisponiveis++;
+        }
+    }
+    
+    private synchronized void registrar(byte resultado) {
+        switch (estado) {
+            case FECHADO -> {
+                byte antigo = janela[posicao];
+                if (totalJanela == janela.length) {
+                    falhasJanela -= antigo & FALHA;
+                    lentasJanela -= (antigo & LENTA) >> 1;
+                } else {
+                    totalJanela++;
+                }
+                janela[posicao] = resultado;
+                falhasJanela += resultado & FALHA;
+                lentasJanela += (resultado & LENTA) >> 1;
+                posicao = (posicao + 1) % janela.length;
+                
+                if (totalJanela >= chamadasMinimas
+                        && (falhasJanela * 100 >= taxaFalhaPercentual * totalJanela
+                            || lentasJanela * 100 >= taxaLentaPercentual * totalJanela)) {
+                    abrir();
+                }
+            }
+            case MEIO_ABERTO -> {
+                testesConcluidos++;
+                if (resultado != 0) {
+                    testesComFalha++;
+                }
+                if (testesConcluidos >= chamadasTeste) {
+                    if (testesComFalha * 100 >= taxaFalhaPercentual * testesConcluidos) {
+                        abrir();
+                    } else {
+                        fechar();
+                    }
+                }
+            }
+            case ABERTO -> {
+                // Respostas atrasadas de chamadas anteriores à abertura são ignoradas
+            }
+        }
+    }
+    
+    private void abrir() {
+        estado = Estado.ABERTO;
+        abertoEmNanos = relogioNanos.getAsLong();
+    }
+    
+    private void fechar() {
+        estado = Estado.FECHADO;
+        Arrays.fill(janela, (byte) 0);
+        posicao = 0;
+        totalJanela = 0;
+        falhasJanela = 0;
+        lentasJanela = 0;
+    }
+    
+    public Estado getEstado() {
+        return estado;
+    }
+    
+    public long getRejeitadas() {
+        return rejeitadas.get();
+    }
+    
+    public synchronized double getTaxaFalhaPercentual() {
+        return totalJanela == 0 ? 0 : falhasJanela * 100.0 / totalJanela;
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.cashplus.service.risco;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Agrupa requisições concorrentes em lotes.
+ * 
+ * Cada item fica pendente até o lote atingir o tamanho máximo ou até o tempo máximo
+ * de espera; o lote é então enviado em uma única chamada e cada resposta é entregue
+ * ao chamador correspondente. Se o envio em lote falhar (ou devolver uma quantidade
+ * de respostas diferente da enviada), os itens são reenviados individualmente.
+ * 
+ * O agrupamento respeita a demanda do envio (nunca descarta lotes por excesso) e, se a
+ * cadeia terminar por erro, é reassinada; itens perdidos nesse caso, ou que não
+ * receberem resposta a tempo, terminam com {@link java.util.concurrent.TimeoutException}.
+ * 
+ * @param <T> tipo da requisição
+ * @param <R> tipo da resposta (null na lista do lote significa "sem resposta")
+ */
+public class Coalescer<T, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(Coalescer.class);
+    
+    private record Pendente<T, R>(T item, MonoSink<R> sink) {
+    }
+    
+    private final Function<List<T>, Mono<List<R>>> envioLote;
+    private final Function<T, Mono<R>> envioIndividual;
+    private final Duration timeoutResposta;
+    private final Disposable assinatura;
+    private volatile FluxSink<Pendente<T, R>> fila;
+    
+    /**
+     * @param timeoutResposta prazo máximo de cada {@link #enviar}, incluindo espera, lote e fallback
+     * @param envioLote envia o lote; vazio indica que o lote foi recusado (todos terminam vazios)
+     * @param envioIndividual usado para lotes de um item e como fallback do envio em lote
+     */
+    public Coalescer(int maxLote, Duration maxEspera, int concorrencia, Duration timeoutResposta,
+                     Function<List<T>, Mono<List<R>>> envioLote,
+                     Function<T, Mono<R>> envioIndividual) {
+        this.envioLote = envioLote;
+        this.envioIndividual = envioIndividual;
+        this.timeoutResposta = timeoutResposta;
+        // O FluxSink de Flux.create serializa next() vindo de várias threads.
+        // Com fairBackpressure o bufferTimeout só emite lotes pedidos pelo flatMap; sem ele,
+        // um lote fechado por tempo com o flatMap saturado gera Overflow e encerra a cadeia.
+        this.assinatura = Flux.<Pendente<T, R>>create(sink -> this.fila = sink, FluxSink.OverflowStrategy.BUFFER)
+                .bufferTimeout(maxLote, maxEspera, true)
+                .flatMap(this::processarLoteProtegido, concorrencia)
+                .doOnError(throwable -> logger.error("Agrupamento de requisições interrompido, reiniciando: {}",
+                        throwable.getMessage()))
+                .retry()
+                .subscribe();
+    }
+    
+    public Mono<R> enviar(T item) {
+        return Mono.<R>create(sink -> fila.next(new Pendente<>(item, sink)))
+                .timeout(timeoutResposta);
+    }
+    
+    public void encerrar() {
+        assinatura.dispose();
+    }
+    
+    /**
+     * Falha inesperada de um lote é entregue aos seus chamadores em vez de encerrar a cadeia.
+     */
+    private Mono<Void> processarLoteProtegido(List<Pendente<T, R>> lote) {
+        return Mono.defer(() -> processarLote(lote))
+                .onErrorResume(throwable -> {
+                    logger.warn("Falha inesperada ao processar lote ({} itens): {}", lote.size(),
+                            throwable.getMessage());
+                    lote.forEach(pendente -> pendente.sink().error(throwable));
+                    return Mono.empty();
+                });
+    }
+    
+    private Mono<Void> processarLote(List<Pendente<T, R>> lote) {
+        if (lote.size() == 1) {
+            return enviarIndividual(lote.get(0));
+        }
+        
+        List<T> itens = new ArrayList<>(lote.size());
+        for (Pendente<T, R> pendente : lote) {
+            itens.add(pendente.item());
+        }
+        
+        return Mono.defer(() -> envioLote.apply(itens))
+                .flatMap(respostas -> respostas.size() == lote.size()
+                        ? Mono.just(respostas)
+                        : Mono.error(new IllegalStateException("Lote com " + lote.size()
+                                + " itens retornou " + respostas.size() + " respostas")))
+                .doOnNext(respostas -> {
+                    for (int i = 0; i < lote.size(); i++) {
+                        lote.get(i).sink().success(respostas.get(i));
+                    }
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> lote.forEach(pendente -> pendente.sink().success())))
+                .then()
+                .onErrorResume(throwable -> {
+                    logger.warn("Falha no envio em lote ({} itens), reenviando individualmente: {}",
+                            lote.size(), throwable.getMessage());
+                    return Flux.fromIterable(lote).flatMap(this::enviarIndividual).then();
+                });
+    }
+    
+    private Mono<Void> enviarIndividual(Pendente<T, R> pendente) {
+        return Mono.defer(() -> envioIndividual.apply(pendente.item()))
+                .doOnSuccess(pendente.sink()::success)
+                .doOnError(pendente.sink()::error)
+                .onErrorResume(throwable -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Dados de uma transação usados na avaliação de risco de fraude.
+ * O valor em centavos e a hora são calculados uma única vez na criação,
+ * para que as regras locais avaliem apenas primitivos.
+ */
+public final class ContextoRisco {
+
+    private final BigDecimal valor;
+    private final long centavos;
+    private final TipoPagamentoEnum tipoPagamento;
+    private final TurnoEnum turno;
+    private final Long operadorId;
+    private final LocalDateTime dataHora;
+    
+    public ContextoRisco(BigDecimal valor, TipoPagamentoEnum tipoPagamento, TurnoEnum turno,
+                         Long operadorId, LocalDateTime dataHora) {
+        this.valor = valor;
+        this.centavos = paraCentavos(valor);
+        this.tipoPagamento = tipoPagamento;
+        this.turno = turno;
+        this.operadorId = operadorId;
+        this.dataHora = dataHora;
+    }
+    
+    public static ContextoRisco de(Transacao transacao) {
+        return new ContextoRisco(
+                transacao.getValor(),
+                transacao.getTipoPagamento(),
+                transacao.getOperador() != null ? transacao.getOperador().getTurno() : null,
+                transacao.getOperador() != null ? transacao.getOperador().getId() : null,
+                transacao.getDataTransacao() != null ? transacao.getDataTransacao() : LocalDateTime.now());
+    }
+    
+    /**
+     * Converte para centavos com o mesmo arredondamento do banco (DECIMAL(10,2)).
+     */
+    public static long paraCentavos(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public long getCentavos() {
+        return centavos;
+    }
+    
+    public TipoPagamentoEnum getTipoPagamento() {
+        return tipoPagamento;
+    }
+    
+    public TurnoEnum getTurno() {
+        return turno;
+    }
+    
+    public Long getOperadorId() {
+        return operadorId;
+    }
+    
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+    
+    public int getHora() {
+        return dataHora.getHour();
+    }
+}
@@ -0,0 +1,288 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Detecção de anomalias por operador e turno, com estatísticas móveis (EWMA).
+ * 
+ * Para cada par (operador, turno) são mantidas a média e a variância exponenciais do
+ * valor das vendas e a frequência exponencial de cada tipo de pagamento. Uma venda é
+ * anômala quando, após o mínimo de amostras, o z-score do valor passa do limiar ou o
+ * tipo de pagamento é raro para aquele operador no turno. Cada venda avaliada atualiza
+ * a linha de base depois de ser comparada a ela.
+ * 
+ * O estado fica em arrays primitivos, em uma tabela de endereçamento aberto dividida em
+ * segmentos com lock próprio; a capacidade é fixa e, com o segmento cheio, o par com menos
+ * amostras é substituído. No desligamento a tabela é gravada em um arquivo binário, lido
+ * na inicialização, para que as linhas de base sobrevivam a reinícios.
+ */
+@Component
+public class DetectorAnomaliaOperador {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectorAnomaliaOperador.class);
+    
+    private static final int MAGICO = 0x43504541; // "CPEA"
+    private static final int VERSAO = 1;
+    private static final int SEGMENTOS = 64;
+    private static final int SONDAGENS = 8;
+    private static final int TIPOS = TipoPagamentoEnum.values().length;
+    private static final int TURNOS = TurnoEnum.values().length + 1; // último índice: sem turno
+    private static final long VAZIO = 0;
+    
+    private final boolean habilitado;
+    private final double alfa;
+    private final double limiarZ;
+    private final double raridadeTipo;
+    private final long minAmostras;
+    private final Path arquivoSnapshot;
+    
+    private final int capacidadeSegmento;
+    private final Object[] travas = new Object[SEGMENTOS];
+    private final long[] chaves;
+    private final long[] amostras;
+    private final double[] medias;
+    private final double[] variancias;
+    private final double[] frequencias; // TIPOS posições por par
+    
+    private final Counter anomaliasValor;
+    private final Counter anomaliasTipo;
+    
+    public DetectorAnomaliaOperador(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.anomalia.enabled:true}") boolean habilitado,
+            @Value("${app.risco-fraude.anomalia.alfa:0.05}") double alfa,
+            @Value("${app.risco-fraude.anomalia.limiar-z:3.0}") double limiarZ,
+            @Value("${app.risco-fraude.anomalia.raridade-tipo:0.02}") double raridadeTipo,
+            @Value("${app.risco-fraude.anomalia.min-amostras:30}") long minAmostras,
+            @Value("${app.risco-fraude.anomalia.capacidade:65536}") int capacidade,
+            @Value("${app.risco-fraude.anomalia.arquivo-snapshot:data/anomalia-risco.bin}") String arquivoSnapshot) {
+        this.habilitado = habilitado;
+        this.alfa = alfa;
+        this.limiarZ = limiarZ;
+        this.raridadeTipo = raridadeTipo;
+        this.minAmostras = minAmostras;
+        this.arquivoSnapshot = arquivoSnapshot == null || arquivoSnapshot.isBlank() ? null : Paths.get(arquivoSnapshot);
+        
+        this.capacidadeSegmento = Math.max(SONDAGENS, Integer.highestOneBit(Math.max(1, capacidade / SEGMENTOS)));
+        int total = capacidadeSegmento * SEGMENTOS;
+        this.chaves = new long[total];
+        this.amostras = new long[total];
+        this.medias = new double[total];
+        this.variancias = new double[total];
+        this.frequencias = new double[total * TIPOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            travas[i] = new Object();
+        }
+        
+        this.anomaliasValor = Counter.builder("risco.fraude.anomalias")
+                .description("Vendas sinalizadas como anômalas para o operador e turno")
+                .tag("motivo", "valor")
+                .register(meterRegistry);
+        this.anomaliasTipo = Counter.builder("risco.fraude.anomalias")
+                .description("Vendas sinalizadas como anômalas para o operador e turno")
+                .tag("motivo", "tipo-pagamento")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Compara a venda com a linha de base do operador no turno e, em seguida, atualiza a linha de base.
+     * 
+     * @return true se a venda é anômala
+     */
+    public boolean avaliarEAtualizar(ContextoRisco contexto) {
+        if (!habilitado || contexto.getOperadorId() == null || contexto.getTipoPagamento() == null) {
+            return false;
+        }
+        long chave = chave(contexto.getOperadorId(), contexto.getTurno());
+        int segmento = segmento(chave);
+        double valor = contexto.getCentavos();
+        int tipo = contexto.getTipoPagamento().ordinal();
+        
+        synchronized (travas[segmento]) {
+            int slot = localizarOuOcupar(segmento, chave);
+            long n = amostras[slot];
+            
+            boolean anomaliaValor = false;
+            boolean anomaliaTipo = false;
+            if (n >= minAmostras) {
+                double desvio = Math.sqrt(variancias[slot]);
+                anomaliaValor = desvio > 0 && (valor - medias[slot]) / desvio > limiarZ;
+                anomaliaTipo = frequencias[slot * TIPOS + tipo] < raridadeTipo;
+            }
+            
+            atualizar(slot, n, valor, tipo);
+            
+            if (anomaliaValor) {
+                anomaliasValor.increment();
+            }
+            if (anomaliaTipo) {
+                anomaliasTipo.increment();
+            }
+            return anomaliaValor || anomaliaTipo;
+        }
+    }
+    
+    private void atualizar(int slot, long n, double valor, int tipo) {
+        int base = slot * TIPOS;
+        if (n == 0) {
+            medias[slot] = valor;
+            variancias[slot] = 0;
+            for (int t = 0; t < TIPOS; t++) {
+                frequencias[base + t] = t == tipo ? 1 : 0;
+            }
+        } else {
+            double diferenca = valor - medias[slot];
+            double incremento = alfa * diferenca;
+            medias[slot] += incremento;
+            variancias[slot] = (1 - alfa) * (variancias[slot] + diferenca * incremento);
+            for (int t = 0; t < TIPOS; t++) {
+                frequencias[base + t] = (1 - alfa) * frequencias[base + t] + (t == tipo ? alfa : 0);
+            }
+        }
+        amostras[slot] = n + 1;
+    }
+    
+    /**
+     * Retorna o slot da chave no segmento, ocupando um livre (ou o de menos amostras) se ausente.
+     * Deve ser chamado com a trava do segmento.
+     */
+    private int localizarOuOcupar(int segmento, long chave) {
+        int inicio = segmento * capacidadeSegmento;
+        int mascara = capacidadeSegmento - 1;
+        int posicao = (int) (misturar(chave) >>> 32) & mascara;
+        int candidato = -1;
+        for (int i = 0; i < SONDAGENS; i++) {
+            int slot = inicio + ((posicao + i) & mascara);
+            if (chaves[slot] == chave) {
+                return slot;
+            }
+            if (chaves[slot] == VAZIO) {
+                candidato = slot;
+                break;
+            }
+            if (candidato < 0 || amostras[slot] < amostras[candidato]) {
+                candidato = slot;
+            }
+        }
+        chaves[candidato] = chave;
+        amostras[candidato] = 0;
+        return candidato;
+    }
+    
+    private int segmento(long chave) {
+        return (int) misturar(chave) & (SEGMENTOS - 1);
+    }
+    
+    // Chave nunca é 0 (VAZIO): operadorId positivo deslocado mais o índice do turno mais 1
+    private static long chave(long operadorId, TurnoEnum turno) {
+        return operadorId * TURNOS + (turno != null ? turno.ordinal() : TURNOS - 1) + 1;
+    }
+    
+    private static long misturar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+    
+    @PostConstruct
+    public void carregarSnapshot() {
+        if (!habilitado || arquivoSnapshot == null || !Files.exists(arquivoSnapshot)) {
+            return;
+        }
+        int carregados = 0;
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(arquivoSnapshot)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO || entrada.readInt() != TIPOS) {
+                logger.warn("Snapshot de anomalias {} em formato desconhecido, ignorado", arquivoSnapshot);
+                return;
+            }
+            long chave;
+            while ((chave = entrada.readLong()) != VAZIO) {
+                int segmento = segmento(chave);
+                synchronized (travas[segmento]) {
+                    int slot = localizarOuOcupar(segmento, chave);
+                    amostras[slot] = entrada.readLong();
+                    medias[slot] = entrada.readDouble();
+                    variancias[slot] = entrada.readDouble();
+                    for (int t = 0; t < TIPOS; t++) {
+                        frequencias[slot * TIPOS + t] = entrada.readDouble();
+                    }
+                }
+                carregados++;
+            }
+            logger.info("Linhas de base de anomalia carregadas de {}: {} pares operador/turno",
+                    arquivoSnapshot, carregados);
+        } catch (IOException e) {
+            logger.warn("Não foi possível ler o snapshot de anomalias {} ({} carregados): {}",
+                    arquivoSnapshot, carregados, e.getMessage());
+        }
+    }
+    
+    /**
+     * Grava os pares ocupados em um arquivo temporário e o move sobre o snapshot anterior.
+     * Formato: cabeçalho (mágico, versão, tipos de pagamento), um registro por par e chave 0 no fim.
+     */
+    @PreDestroy
+    public void gravarSnapshot() {
+        if (!habilitado || arquivoSnapshot == null) {
+            return;
+        }
+        try {
+            Path diretorio = arquivoSnapshot.toAbsolutePath().getParent();
+            if (diretorio != null) {
+                Files.createDirectories(diretorio);
+            }
+            Path temporario = arquivoSnapshot.resolveSibling(arquivoSnapshot.getFileName() + ".tmp");
+            int gravados = 0;
+            try (DataOutputStream saida = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO);
+                saida.writeInt(TIPOS);
+                for (int segmento = 0; segmento < SEGMENTOS; segmento++) {
+                    synchronized (travas[segmento]) {
+                        int inicio = segmento * capacidadeSegmento;
+                        for (int slot = inicio; slot < inicio + capacidadeSegmento; slot++) {
+                            if (chaves[slot] == VAZIO) {
+                                continue;
+                            }
+                            saida.writeLong(chaves[slot]);
+                            saida.writeLong(amostras[slot]);
+                            saida.writeDouble(medias[slot]);
+                            saida.writeDouble(variancias[slot]);
+                            for (int t = 0; t < TIPOS; t++) {
+                                saida.writeDouble(frequencias[slot * TIPOS + t]);
+                            }
+                            gravados++;
+                        }
+                    }
+                }
+                saida.writeLong(VAZIO); // fim dos registros
+            }
+            Files.move(temporario, arquivoSnapshot,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Linhas de base de anomalia gravadas em {}: {} pares operador/turno",
+                    arquivoSnapshot, gravados);
+        } catch (IOException e) {
+            logger.error("Não foi possível gravar o snapshot de anomalias {}: {}", arquivoSnapshot, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.cashplus.service.risco;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Requisições "hedged": se a chamada não responder dentro do atraso configurado,
+ * uma segunda chamada idêntica é enviada e vale a primeira resposta; a outra é cancelada.
+ * 
+ * - Atraso fixo ou adaptativo (p95 das latências recentes, nunca abaixo do atraso fixo).
+ *   A chamada original cancelada pelo hedge entra na amostra com o tempo até o cancelamento
+ *   (limite inferior da sua latência); sem isso só as respostas rápidas seriam amostradas
+ *   e o p95 cairia justamente quando os hedges começam a vencer.
+ * - Orçamento: cada chamada acumula um crédito de percentual/100 de hedge, até o máximo;
+ *   um hedge só é enviado se houver um crédito inteiro. Com 5%, no máximo ~5% de chamadas extras.
+ * - Vale a primeira resposta com valor: falha ou resposta vazia de uma das chamadas não
+ *   cancela a outra. Se a original termina sem valor antes do atraso, a extra não é enviada;
+ *   se nenhuma tem valor, vale o resultado da original.
+ */
+public class Hedging {
+
+    private static final int AMOSTRAS = 512;
+    private static final int RECALCULO_A_CADA = 128;
+    private static final long CREDITO_HEDGE = 1000;
+    
+    private final boolean habilitado;
+    private final long atrasoMinimoNanos;
+    private final boolean adaptativo;
+    private final long creditoPorChamada;
+    private final long creditoMaximo;
+    
+    private final AtomicLong creditos;
+    private final long[] latencias = new long[AMOSTRAS];
+    private final AtomicInteger proximaAmostra = new AtomicInteger();
+    private volatile long p95Nanos;
+    
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong vencedores = new AtomicLong();
+    
+    public Hedging(boolean habilitado, Duration atraso, boolean adaptativo,
+                   int orcamentoPercentual, int orcamentoMaximo) {
+        this.habilitado = habilitado;
+        this.atrasoMinimoNanos = atraso.toNanos();
+        this.adaptativo = adaptativo;
+        this.creditoPorChamada = orcamentoPercentual * CREDITO_HEDGE / 100;
+        this.creditoMaximo = orcamentoMaximo * CREDITO_HEDGE;
+        this.creditos = new AtomicLong(creditoMaximo);
+    }
+    
+    /**
+     * Aplica o hedging à chamada. A chamada deve ser "fria" (cada assinatura envia uma nova requisição).
+     */
+    public <T> Mono<T> aplicar(Mono<T> chamada) {
+        if (!habilitado) {
+            return chamada;
+        }
+        return Mono.defer(() -> {
+            acumularCredito();
+            long inicio = System.nanoTime();
+            
+            AtomicReference<Throwable> erroOriginal = new AtomicReference<>();
+            Sinks.One<Boolean> originalSemValor = Sinks.one();
+            
+            Mono<T> original = chamada
+                    .doOnSuccess(resposta -> {
+                        if (resposta == null) {
+                            originalSemValor.tryEmitValue(Boolean.TRUE);
+                        }
+                    })
+                    .doOnError(throwable -> {
+                        erroOriginal.set(throwable);
+                        originalSemValor.tryEmitValue(Boolean.TRUE);
+                    })
+                    .doFinally(sinal -> {
+                        if (sinal != SignalType.ON_ERROR) {
+                            registrarLatencia(System.nanoTime() - inicio);
+                        }
+                    });
+            // Termina vazia, sem enviar, se a original já terminou sem valor
+            Mono<T> extra = Mono.delay(Duration.ofNanos(atrasoAtualNanos()))
+                    .takeUntilOther(originalSemValor.asMono())
+                    .flatMap(tick -> {
+                        if (!consumirCredito()) {
+                            return Mono.empty();
+                        }
+                        enviados.incrementAndGet();
+                        return chamada.doOnNext(resposta -> vencedores.incrementAndGet());
+                    });
+            // A primeira resposta com valor vence; a chamada perdedora é cancelada
+            return Mono.firstWithValue(original, extra)
+                    .onErrorResume(NoSuchElementException.class, semValor -> erroOriginal.get() != null
+                            ? Mono.error(erroOriginal.get()) : Mono.empty());
+        });
+    }
+    
+    public long atrasoAtualNanos() {
+        return adaptativo ? Math.max(atrasoMinimoNanos, p95Nanos) : atrasoMinimoNanos;
+    }
+    
+    public long getEnviados() {
+        return enviados.get();
+    }
+    
+    public long getVencedores() {
+        return vencedores.get();
+    }
+    
+    private void acumularCredito() {
+        creditos.getAndUpdate(atual -> Math.min(creditoMaximo, atual + creditoPorChamada));
+    }
+    
+    private boolean consumirCredito() {
+        long atual;
+        do {
+            atual = creditos.get();
+            if (atual < CREDITO_HEDGE) {
+                return false;
+            }
+        } while (!creditos.compareAndSet(atual, atual - CREDITO_HEDGE));
+        return true;
+    }
+    
+    private void registrarLatencia(long nanos) {
+        if (!adaptativo) {
+            return;
+        }
+        int indice = proximaAmostra.getAndIncrement() & Integer.MAX_VALUE;
+        latencias[indice & (AMOSTRAS - 1)] = nanos;
+        // Recalculado periodicamente pela thread que completa o bloco de amostras
+        if (indice >= AMOSTRAS - 1 && (indice + 1) % RECALCULO_A_CADA == 0) {
+            long[] copia = Arrays.copyOf(latencias, AMOSTRAS);
+            Arrays.sort(copia);
+            p95Nanos = copia[(int) (AMOSTRAS * 0.95)];
+        }
+    }
+}
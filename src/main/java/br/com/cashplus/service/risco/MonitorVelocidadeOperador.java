@@ -0,0 +1,174 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Regras de velocidade por operador: muitas vendas no cartão ou muito valor
+ * vendido nos últimos minutos elevam o risco da venda.
+ * 
+ * Cada operador tem uma janela deslizante dividida em buckets de tempo (contagem de
+ * vendas no cartão e soma em centavos). Registrar e verificar custam O(buckets), sem
+ * locks nem consulta ao banco: o bucket é reiniciado por CAS na época e os contadores
+ * são atômicos. Um incremento concorrente com a troca de época pode se perder —
+ * aceitável para uma heurística de fraude.
+ * 
+ * A venda entra no bucket da sua data/hora, não do relógio: uma venda reprocessada
+ * (reavaliação, recuperação de pendentes) conta na janela em que aconteceu e é ignorada
+ * se essa janela já saiu da memória. Datas no futuro contam como agora.
+ * 
+ * A memória é limitada: os operadores ficam em um cache com tamanho máximo e são
+ * descartados após uma janela inteira sem vendas.
+ */
+@Component
+public class MonitorVelocidadeOperador {
+
+    private final boolean habilitado;
+    private final int buckets;
+    private final long duracaoBucketMillis;
+    private final long maxVendasCartao;
+    private final long maxValorCentavos;
+    private final LongSupplier relogioMillis;
+    private final Cache<Long, Janela> janelas;
+    private final Counter elevacoes;
+    
+    @Autowired
+    public MonitorVelocidadeOperador(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.velocidade.enabled:true}") boolean habilitado,
+            @Value("${app.risco-fraude.velocidade.janela-minutos:10}") int janelaMinutos,
+            @Value("${app.risco-fraude.velocidade.buckets:10}") int buckets,
+            @Value("${app.risco-fraude.velocidade.max-vendas-cartao:20}") long maxVendasCartao,
+            @Value("${app.risco-fraude.velocidade.max-valor:10000.00}") BigDecimal maxValor,
+            @Value("${app.risco-fraude.velocidade.max-operadores:10000}") long maxOperadores) {
+        this(meterRegistry, habilitado, Duration.ofMinutes(janelaMinutos), buckets, maxVendasCartao,
+                maxValor, maxOperadores, System::currentTimeMillis);
+    }
+    
+    public MonitorVelocidadeOperador(MeterRegistry meterRegistry, boolean habilitado, Duration janela,
+                                     int buckets, long maxVendasCartao, BigDecimal maxValor,
+                                     long maxOperadores, LongSupplier relogioMillis) {
+        this.habilitado = habilitado;
+        this.buckets = buckets;
+        this.duracaoBucketMillis = Math.max(1, janela.toMillis() / buckets);
+        this.maxVendasCartao = maxVendasCartao;
+        this.maxValorCentavos = ContextoRisco.paraCentavos(maxValor);
+        this.relogioMillis = relogioMillis;
+        // Ticker do Caffeine a partir do relógio injetado, com origem na criação como o nanoTime
+        long origemMillis = relogioMillis.getAsLong();
+        this.janelas = Caffeine.newBuilder()
+                .maximumSize(maxOperadores)
+                .expireAfterAccess(janela)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(relogioMillis.getAsLong() - origemMillis))
+                .build();
+        
+        Gauge.builder("risco.fraude.velocidade.operadores", janelas, Cache::estimatedSize)
+                .description("Operadores com janela de velocidade em memória")
+                .register(meterRegistry);
+        this.elevacoes = Counter.builder("risco.fraude.velocidade.elevacoes")
+                .description("Vendas com risco elevado por excesso de velocidade do operador")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Registra a venda na janela do operador e indica se algum limite foi ultrapassado
+     * (considerando a própria venda).
+     */
+    public boolean registrarEVerificar(ContextoRisco contexto) {
+        if (!habilitado || contexto.getOperadorId() == null) {
+            return false;
+        }
+        long agoraMillis = relogioMillis.getAsLong();
+        long vendaMillis = contexto.getDataHora() != null
+                ? Math.min(agoraMillis, contexto.getDataHora().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                : agoraMillis;
+        long epoca = vendaMillis / duracaoBucketMillis;
+        if (agoraMillis / duracaoBucketMillis - epoca >= buckets) {
+            return false;
+        }
+        Janela janela = janelas.get(contexto.getOperadorId(), id -> new Janela(buckets));
+        boolean cartao = contexto.getTipoPagamento() == TipoPagamentoEnum.CARTAO;
+        janela.registrar(epoca, cartao ? 1 : 0, contexto.getCentavos());
+        return janela.somarVendas(epoca) > maxVendasCartao || janela.somarValor(epoca) > maxValorCentavos;
+    }
+    
+    /**
+     * Eleva o risco em um nível (BAIXO → MEDIO → ALTO).
+     */
+    public RiscoFraudeEnum elevar(RiscoFraudeEnum risco) {
+        elevacoes.increment();
+        return risco.elevado();
+    }
+    
+    private static final class Janela {
+        
+        private final int buckets;
+        private final AtomicLongArray epocas;
+        private final AtomicLongArray vendasCartao;
+        private final AtomicLongArray valorCentavos;
+        
+        Janela(int buckets) {
+            this.buckets = buckets;
+            this.epocas = new AtomicLongArray(buckets);
+            this.vendasCartao = new AtomicLongArray(buckets);
+            this.valorCentavos = new AtomicLongArray(buckets);
+            for (int i = 0; i < buckets; i++) {
+                epocas.set(i, -1);
+            }
+        }
+        
+        void registrar(long epoca, long vendas, long centavos) {
+            int indice = (int) (epoca % buckets);
+            long atual = epocas.get(indice);
+            if (atual > epoca) {
+                // Bucket já reaproveitado por uma época mais recente
+                return;
+            }
+            if (atual != epoca && epocas.compareAndSet(indice, atual, epoca)) {
+                vendasCartao.set(indice, 0);
+                valorCentavos.set(indice, 0);
+            }
+            if (vendas != 0) {
+                vendasCartao.addAndGet(indice, vendas);
+            }
+            valorCentavos.addAndGet(indice, centavos);
+        }
+        
+        long somarVendas(long epoca) {
+            return somar(vendasCartao, epoca);
+        }
+        
+        long somarValor(long epoca) {
+            return somar(valorCentavos, epoca);
+        }
+        
+        /**
+         * Soma os buckets da janela que termina em {@code epoca}, sem vendas posteriores a ela.
+         */
+        private long somar(AtomicLongArray contadores, long epoca) {
+            long total = 0;
+            for (int i = 0; i < buckets; i++) {
+                long distancia = epoca - epocas.get(i);
+                if (distancia >= 0 && distancia < buckets) {
+                    total += contadores.get(i);
+                }
+            }
+            return total;
+        }
+    }
+}
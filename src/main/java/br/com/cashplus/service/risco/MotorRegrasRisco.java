@@ -0,0 +1,106 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Motor das regras locais de risco de fraude.
+ * 
+ * As regras são lidas de app.risco-fraude.regras.arquivo e compiladas em um
+ * {@link RegrasRiscoCompiladas}. A recarga (pelo endpoint ou ao detectar alteração
+ * do arquivo) compila uma nova tabela e troca a referência volátil: avaliações em
+ * andamento continuam com a versão anterior, sem locks. Regras inválidas são
+ * rejeitadas e a versão em uso é mantida.
+ */
+@Component
+public class MotorRegrasRisco {
+
+    private static final Logger logger = LoggerFactory.getLogger(MotorRegrasRisco.class);
+    
+    private final Resource arquivo;
+    private final ObjectMapper objectMapper;
+    private volatile RegrasRiscoCompiladas regras;
+    private volatile long ultimaModificacao;
+    
+    public MotorRegrasRisco(
+            ResourceLoader resourceLoader,
+            ObjectMapper objectMapper,
+            @Value("${app.risco-fraude.regras.arquivo:classpath:regras-risco-fraude.json}") String arquivo) {
+        this.arquivo = resourceLoader.getResource(arquivo);
+        this.objectMapper = objectMapper;
+        recarregar();
+    }
+    
+    public RiscoFraudeEnum avaliar(ContextoRisco contexto) {
+        return regras.avaliar(contexto);
+    }
+    
+    public boolean isAmbiguo(ContextoRisco contexto, int margemPercentual) {
+        return regras.isAmbiguo(contexto, margemPercentual);
+    }
+    
+    public RegrasRiscoCompiladas getRegras() {
+        return regras;
+    }
+    
+    /**
+     * Lê, compila e publica as regras do arquivo.
+     * 
+     * @throws BusinessException se o arquivo não puder ser lido ou as regras forem inválidas
+     */
+    public synchronized RegrasRiscoCompiladas recarregar() {
+        long modificacao = lerUltimaModificacao();
+        ArquivoRegrasRisco conteudo;
+        try (InputStream entrada = arquivo.getInputStream()) {
+            conteudo = objectMapper.readValue(entrada, ArquivoRegrasRisco.class);
+        } catch (IOException e) {
+            throw new BusinessException("Não foi possível ler as regras de risco de "
+                    + arquivo.getDescription() + ": " + e.getMessage());
+        }
+        
+        RegrasRiscoCompiladas novas = RegrasRiscoCompiladas.compilar(conteudo, arquivo.getDescription());
+        regras = novas;
+        ultimaModificacao = modificacao;
+        logger.info("Regras de risco carregadas de {} ({} regras)",
+                arquivo.getDescription(), novas.getQuantidadeRegras());
+        return novas;
+    }
+    
+    /**
+     * Recarrega as regras quando o arquivo foi alterado desde a última carga.
+     */
+    @Scheduled(fixedDelayString = "${app.risco-fraude.regras.intervalo-verificacao-ms:30000}")
+    public void verificarAlteracao() {
+        long modificacao = lerUltimaModificacao();
+        if (modificacao == 0 || modificacao == ultimaModificacao) {
+            return;
+        }
+        try {
+            recarregar();
+        } catch (BusinessException e) {
+            // Evita repetir o erro a cada verificação até o arquivo mudar de novo
+            ultimaModificacao = modificacao;
+            logger.error("Regras de risco alteradas são inválidas, mantendo a versão em uso: {}", e.getMessage());
+        }
+    }
+    
+    private long lerUltimaModificacao() {
+        try {
+            return arquivo.lastModified();
+        } catch (IOException e) {
+            // Recursos dentro do jar não têm data de modificação: só o endpoint recarrega
+            return 0;
+        }
+    }
+}
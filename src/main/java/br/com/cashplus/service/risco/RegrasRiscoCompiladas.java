@@ -0,0 +1,215 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Regras locais de risco compiladas em uma tabela imutável.
+ * 
+ * Para cada combinação (tipo de pagamento, turno ou "sem turno", hora do dia) a tabela
+ * guarda os limites em centavos; a avaliação é um cálculo de índice e duas comparações
+ * de long, sem alocação. Uma nova versão das regras gera uma nova instância.
+ */
+public final class RegrasRiscoCompiladas {
+
+    private static final int HORAS = 24;
+    private static final int TURNOS = TurnoEnum.values().length + 1; // último índice: sem turno
+    private static final int SEM_TURNO = TURNOS - 1;
+    
+    private static final RiscoFraudeEnum[] RISCOS_AVALIAVEIS = {
+            RiscoFraudeEnum.BAIXO, RiscoFraudeEnum.MEDIO, RiscoFraudeEnum.ALTO};
+    
+    private final long[] limiteMedio;
+    private final long[] limiteAlto;
+    private final RiscoFraudeEnum riscoPadrao;
+    private final int quantidadeRegras;
+    private final String origem;
+    private final LocalDateTime compiladasEm;
+    
+    private RegrasRiscoCompiladas(long[] limiteMedio, long[] limiteAlto, RiscoFraudeEnum riscoPadrao,
+                                  int quantidadeRegras, String origem) {
+        this.limiteMedio = limiteMedio;
+        this.limiteAlto = limiteAlto;
+        this.riscoPadrao = riscoPadrao;
+        this.quantidadeRegras = quantidadeRegras;
+        this.origem = origem;
+        this.compiladasEm = LocalDateTime.now();
+    }
+    
+    /**
+     * Compila e valida as regras.
+     * 
+     * @throws BusinessException se alguma regra for inválida
+     */
+    public static RegrasRiscoCompiladas compilar(ArquivoRegrasRisco arquivo, String origem) {
+        RiscoFraudeEnum riscoPadrao = arquivo.getRiscoPadrao() != null
+                ? arquivo.getRiscoPadrao() : RiscoFraudeEnum.MEDIO;
+        if (!isRiscoAvaliavel(riscoPadrao)) {
+            throw new BusinessException("Risco padrão inválido nas regras de risco: " + riscoPadrao);
+        }
+        
+        int tamanho = TipoPagamentoEnum.values().length * TURNOS * HORAS;
+        long[] limiteMedio = new long[tamanho];
+        long[] limiteAlto = new long[tamanho];
+        preencher(limiteMedio, limiteAlto, 0, tamanho, riscoPadrao, null, null);
+        
+        List<ArquivoRegrasRisco.Regra> regras = new ArrayList<>(
+                arquivo.getRegras() != null ? arquivo.getRegras() : List.of());
+        // Ordenação estável: as regras mais específicas são aplicadas por último
+        regras.sort(Comparator.comparingInt(ArquivoRegrasRisco.Regra::especificidade));
+        
+        for (ArquivoRegrasRisco.Regra regra : regras) {
+            validar(regra);
+            int tipo = regra.getTipoPagamento().ordinal();
+            int turnoInicio = regra.getTurno() != null ? regra.getTurno().ordinal() : 0;
+            int turnoFim = regra.getTurno() != null ? turnoInicio + 1 : TURNOS;
+            
+            for (int turno = turnoInicio; turno < turnoFim; turno++) {
+                for (int hora = 0; hora < HORAS; hora++) {
+                    if (regra.getHoraInicio() == null || contemHora(regra, hora)) {
+                        int indice = indice(tipo, turno, hora);
+                        preencher(limiteMedio, limiteAlto, indice, indice + 1,
+                                regra.getRisco(), regra.getLimiteMedio(), regra.getLimiteAlto());
+                    }
+                }
+            }
+        }
+        return new RegrasRiscoCompiladas(limiteMedio, limiteAlto, riscoPadrao, regras.size(), origem);
+    }
+    
+    /**
+     * Avalia o risco de uma transação. Não aloca objetos.
+     */
+    public RiscoFraudeEnum avaliar(long centavos, TipoPagamentoEnum tipoPagamento, TurnoEnum turno, int hora) {
+        if (tipoPagamento == null) {
+            return riscoPadrao;
+        }
+        int indice = indice(tipoPagamento.ordinal(), turno != null ? turno.ordinal() : SEM_TURNO, hora);
+        if (centavos < limiteMedio[indice]) {
+            return RiscoFraudeEnum.BAIXO;
+        }
+        if (centavos <= limiteAlto[indice]) {
+            return RiscoFraudeEnum.MEDIO;
+        }
+        return RiscoFraudeEnum.ALTO;
+    }
+    
+    public RiscoFraudeEnum avaliar(ContextoRisco contexto) {
+        return avaliar(contexto.getCentavos(), contexto.getTipoPagamento(), contexto.getTurno(), contexto.getHora());
+    }
+    
+    /**
+     * Indica se o valor está na zona cinzenta: a até margemPercentual de distância de um
+     * dos limites aplicáveis. Regras de risco fixo nunca são ambíguas; tipo de pagamento
+     * ausente (sem regra local) sempre é. Não aloca objetos.
+     */
+    public boolean isAmbiguo(long centavos, TipoPagamentoEnum tipoPagamento, TurnoEnum turno, int hora,
+                             int margemPercentual) {
+        if (tipoPagamento == null) {
+            return true;
+        }
+        int indice = indice(tipoPagamento.ordinal(), turno != null ? turno.ordinal() : SEM_TURNO, hora);
+        return proximoDoLimite(centavos, limiteMedio[indice], margemPercentual)
+                || proximoDoLimite(centavos, limiteAlto[indice], margemPercentual);
+    }
+    
+    public boolean isAmbiguo(ContextoRisco contexto, int margemPercentual) {
+        return isAmbiguo(contexto.getCentavos(), contexto.getTipoPagamento(), contexto.getTurno(),
+                contexto.getHora(), margemPercentual);
+    }
+    
+    private static boolean proximoDoLimite(long centavos, long limite, int margemPercentual) {
+        if (limite == Long.MAX_VALUE || limite == Long.MIN_VALUE) {
+            return false;
+        }
+        return Math.abs(centavos - limite) * 100 <= limite * margemPercentual;
+    }
+    
+    public int getQuantidadeRegras() {
+        return quantidadeRegras;
+    }
+    
+    public String getOrigem() {
+        return origem;
+    }
+    
+    public LocalDateTime getCompiladasEm() {
+        return compiladasEm;
+    }
+    
+    private static int indice(int tipo, int turno, int hora) {
+        return (tipo * TURNOS + turno) * HORAS + hora;
+    }
+    
+    private static boolean contemHora(ArquivoRegrasRisco.Regra regra, int hora) {
+        int inicio = regra.getHoraInicio();
+        int fim = regra.getHoraFim();
+        return inicio < fim ? hora >= inicio && hora < fim : hora >= inicio || hora < fim;
+    }
+    
+    private static void preencher(long[] limiteMedio, long[] limiteAlto, int inicio, int fim,
+                                  RiscoFraudeEnum riscoFixo, BigDecimal medio, BigDecimal alto) {
+        long valorMedio;
+        long valorAlto;
+        if (riscoFixo != null) {
+            // Risco fixo expresso como limites: BAIXO nunca atinge o médio, ALTO sempre passa do alto
+            valorMedio = riscoFixo == RiscoFraudeEnum.BAIXO ? Long.MAX_VALUE : Long.MIN_VALUE;
+            valorAlto = riscoFixo == RiscoFraudeEnum.ALTO ? Long.MIN_VALUE : Long.MAX_VALUE;
+        } else {
+            valorMedio = medio != null ? ContextoRisco.paraCentavos(medio) : Long.MIN_VALUE;
+            valorAlto = alto != null ? ContextoRisco.paraCentavos(alto) : Long.MAX_VALUE;
+        }
+        for (int i = inicio; i < fim; i++) {
+            limiteMedio[i] = valorMedio;
+            limiteAlto[i] = valorAlto;
+        }
+    }
+    
+    private static void validar(ArquivoRegrasRisco.Regra regra) {
+        if (regra.getTipoPagamento() == null) {
+            throw new BusinessException("Regra de risco sem tipoPagamento");
+        }
+        if ((regra.getHoraInicio() == null) != (regra.getHoraFim() == null)) {
+            throw new BusinessException("Regra de risco deve informar horaInicio e horaFim juntos");
+        }
+        if (regra.getHoraInicio() != null && (regra.getHoraInicio() < 0 || regra.getHoraInicio() > 23
+                || regra.getHoraFim() < 0 || regra.getHoraFim() > 24
+                || regra.getHoraInicio().equals(regra.getHoraFim()))) {
+            throw new BusinessException("Faixa de horário inválida na regra de risco: "
+                    + regra.getHoraInicio() + "-" + regra.getHoraFim());
+        }
+        if (regra.getRisco() != null) {
+            if (!isRiscoAvaliavel(regra.getRisco())) {
+                throw new BusinessException("Risco inválido na regra de risco: " + regra.getRisco());
+            }
+            if (regra.getLimiteMedio() != null || regra.getLimiteAlto() != null) {
+                throw new BusinessException("Regra de risco deve informar risco fixo ou limites, não ambos");
+            }
+        } else if (regra.getLimiteMedio() == null && regra.getLimiteAlto() == null) {
+            throw new BusinessException("Regra de risco sem risco fixo nem limites para "
+                    + regra.getTipoPagamento());
+        }
+        if (regra.getLimiteMedio() != null && regra.getLimiteAlto() != null
+                && regra.getLimiteMedio().compareTo(regra.getLimiteAlto()) > 0) {
+            throw new BusinessException("limiteMedio maior que limiteAlto na regra de risco para "
+                    + regra.getTipoPagamento());
+        }
+    }
+    
+    private static boolean isRiscoAvaliavel(RiscoFraudeEnum risco) {
+        for (RiscoFraudeEnum valido : RISCOS_AVALIAVEIS) {
+            if (valido == risco) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+
+/**
+ * Veredito da API externa de risco de fraude, com o score e a mensagem retornados.
+ */
+public final class RespostaRisco {
+
+    private final RiscoFraudeEnum risco;
+    private final Integer score;
+    private final String mensagem;
+    
+    public RespostaRisco(RiscoFraudeEnum risco, Integer score, String mensagem) {
+        this.risco = risco;
+        this.score = score;
+        this.mensagem = mensagem;
+    }
+    
+    public RiscoFraudeEnum getRisco() {
+        return risco;
+    }
+    
+    public Integer getScore() {
+        return score;
+    }
+    
+    public String getMensagem() {
+        return mensagem;
+    }
+}
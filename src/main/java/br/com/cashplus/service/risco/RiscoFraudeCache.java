@@ -0,0 +1,137 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos vereditos da API externa de risco de fraude.
+ * 
+ * A chave é o tipo de pagamento combinado com a faixa de valor (valor dividido
+ * em faixas de app.risco-fraude.cache.faixa-valor), de modo que vendas semelhantes
+ * reaproveitam o mesmo veredito. Consultas simultâneas da mesma chave compartilham
+ * uma única chamada externa. Falhas também são cacheadas, por um TTL menor, para
+ * que uma API instável não seja consultada a cada venda.
+ * O tamanho é limitado e a política de despejo é a W-TinyLFU do Caffeine.
+ */
+@Component
+public class RiscoFraudeCache {
+
+    private final boolean habilitado;
+    private final long faixaCentavos;
+    private final AsyncCache<Long, Veredito> cache;
+    private final Counter falhasCacheadas;
+    
+    public RiscoFraudeCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.cache.enabled:true}") boolean habilitado,
+            @Value("${app.risco-fraude.cache.faixa-valor:10.00}") BigDecimal faixaValor,
+            @Value("${app.risco-fraude.cache.ttl-segundos:60}") long ttlSegundos,
+            @Value("${app.risco-fraude.cache.ttl-falha-segundos:10}") long ttlFalhaSegundos,
+            @Value("${app.risco-fraude.cache.tamanho-maximo:10000}") long tamanhoMaximo) {
+        this.habilitado = habilitado;
+        this.faixaCentavos = Math.max(1, ContextoRisco.paraCentavos(faixaValor));
+        
+        long ttlNanos = Duration.ofSeconds(ttlSegundos).toNanos();
+        long ttlFalhaNanos = Duration.ofSeconds(ttlFalhaSegundos).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new Expiry<Long, Veredito>() {
+                    @Override
+                    public long expireAfterCreate(Long chave, Veredito veredito, long agora) {
+                        return veredito.isFalha() ? ttlFalhaNanos : ttlNanos;
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(Long chave, Veredito veredito, long agora, long duracaoAtual) {
+                        return expireAfterCreate(chave, veredito, agora);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(Long chave, Veredito veredito, long agora, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "risco.fraude.cache");
+        this.falhasCacheadas = Counter.builder("risco.fraude.cache.falhas")
+                .description("Leituras que encontraram uma falha cacheada da API externa")
+                .register(meterRegistry);
+    }
+    
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+    
+    /**
+     * Retorna o veredito cacheado ou executa a consulta externa, compartilhando-a
+     * entre chamadas simultâneas da mesma faixa.
+     * 
+     * @param consultaExterna Consulta à API; termina vazia ou com erro quando não há veredito
+     * @return Mono com o veredito, ou vazio se a API falhou (agora ou há menos de ttl-falha)
+     */
+    public Mono<RespostaRisco> obter(ContextoRisco contexto, Supplier<Mono<RespostaRisco>> consultaExterna) {
+        if (!habilitado || contexto.getTipoPagamento() == null) {
+            return consultaExterna.get();
+        }
+        
+        long chave = chave(contexto.getCentavos(), contexto.getTipoPagamento());
+        CompletableFuture<Veredito> veredito = cache.get(chave, (k, executor) -> consultaExterna.get()
+                .map(Veredito::sucesso)
+                .defaultIfEmpty(Veredito.FALHA)
+                .onErrorReturn(Veredito.FALHA)
+                .toFuture());
+        
+        // suppressCancel: o cancelamento de um chamador não cancela a consulta compartilhada
+        return Mono.fromFuture(veredito, true)
+                .flatMap(resultado -> {
+                    if (resultado.isFalha()) {
+                        falhasCacheadas.increment();
+                        return Mono.empty();
+                    }
+                    return Mono.just(resultado.getResposta());
+                });
+    }
+    
+    private long chave(long centavos, TipoPagamentoEnum tipoPagamento) {
+        long faixa = centavos / faixaCentavos;
+        return ((long) tipoPagamento.ordinal() << 56) | faixa;
+    }
+    
+    private static final class Veredito {
+        
+        static final Veredito FALHA = new Veredito(null);
+        
+        private final RespostaRisco resposta;
+        
+        private Veredito(RespostaRisco resposta) {
+            this.resposta = resposta;
+        }
+        
+        static Veredito sucesso(RespostaRisco resposta) {
+            return new Veredito(resposta);
+        }
+        
+        RespostaRisco getResposta() {
+            return resposta;
+        }
+        
+        boolean isFalha() {
+            return resposta == null;
+        }
+    }
+}
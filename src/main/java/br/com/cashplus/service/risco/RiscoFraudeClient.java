@@ -0,0 +1,191 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.dto.external.RiscoFraudeLoteRequestDTO;
+import br.com.cashplus.dto.external.RiscoFraudeLoteResponseDTO;
+import br.com.cashplus.dto.external.RiscoFraudeRequestDTO;
+import br.com.cashplus.dto.external.RiscoFraudeResponseDTO;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cliente HTTP da API externa de risco de fraude.
+ * 
+ * Cada chamada passa pelo {@link CircuitBreaker} e pelo {@link Bulkhead}: com o circuito
+ * aberto ou o limite de chamadas simultâneas atingido, a consulta termina vazia na hora,
+ * sem pagar timeout e retries, e o chamador usa o cálculo local.
+ * 
+ * Com o envio em lote habilitado, consultas concorrentes são agrupadas pelo
+ * {@link Coalescer} e enviadas ao endpoint /consultar-lote em uma única chamada.
+ * Chamadas que demoram podem ser duplicadas pelo {@link Hedging}.
+ */
+@Component
+public class RiscoFraudeClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiscoFraudeClient.class);
+    
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Hedging hedging;
+    private final int timeoutSegundos;
+    private final Coalescer<RiscoFraudeRequestDTO, RespostaRisco> coalescer;
+    
+    public RiscoFraudeClient(
+            @Qualifier("riscoFraudeWebClientBuilder") WebClient.Builder webClientBuilder,
+            CircuitBreaker circuitBreaker,
+            Bulkhead bulkhead,
+            Hedging hedging,
+            @Value("${app.risco-fraude.api.url:http://api.riscofraude.com/v1/consulta}") String apiUrl,
+            @Value("${app.risco-fraude.api.timeout:5}") int timeoutSegundos,
+            @Value("${app.risco-fraude.lote.enabled:false}") boolean loteHabilitado,
+            @Value("${app.risco-fraude.lote.tamanho-maximo:50}") int tamanhoMaximoLote,
+            @Value("${app.risco-fraude.lote.espera-maxima-ms:5}") long esperaMaximaMs,
+            @Value("${app.risco-fraude.lote.concorrencia:8}") int concorrenciaLotes) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.hedging = hedging;
+        this.timeoutSegundos = timeoutSegundos;
+        this.webClient = webClientBuilder
+                .baseUrl(apiUrl)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .build();
+        this.coalescer = loteHabilitado
+                ? new Coalescer<>(tamanhoMaximoLote, Duration.ofMillis(esperaMaximaMs), concorrenciaLotes,
+                        timeoutAgrupado(timeoutSegundos, esperaMaximaMs),
+                        this::consultarLote, this::consultarIndividual)
+                : null;
+    }
+    
+    /**
+     * Espera no lote, mais o envio em lote e o fallback individual, cada um com até
+     * três tentativas de timeoutSegundos separadas por 500ms.
+     */
+    private static Duration timeoutAgrupado(int timeoutSegundos, long esperaMaximaMs) {
+        Duration tentativas = Duration.ofSeconds(timeoutSegundos).multipliedBy(3).plusSeconds(1);
+        return tentativas.multipliedBy(2).plusMillis(esperaMaximaMs);
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        if (coalescer != null) {
+            coalescer.encerrar();
+        }
+    }
+
+    /**
+     * Consulta a API externa, com timeout e retry.
+     * Termina vazia se a chamada for recusada pelas proteções, se a API falhar
+     * ou se retornar um risco inválido.
+     */
+    public Mono<RespostaRisco> consultar(BigDecimal valor, TipoPagamentoEnum tipoPagamento) {
+        RiscoFraudeRequestDTO request = new RiscoFraudeRequestDTO(
+                valor, 
+                tipoPagamento != null ? tipoPagamento.name() : null
+        );
+        if (coalescer == null) {
+            return consultarIndividual(request);
+        }
+        return coalescer.enviar(request)
+                .onErrorResume(throwable -> {
+                    logger.warn("Consulta agrupada à API de risco sem resposta: {}", throwable.toString());
+                    return Mono.empty();
+                });
+    }
+    
+    private Mono<RespostaRisco> consultarIndividual(RiscoFraudeRequestDTO request) {
+        return protegido(webClient.post()
+                        .uri("/consultar")
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(RiscoFraudeResponseDTO.class))
+                .flatMap(response -> Mono.justOrEmpty(converterResposta(response)))
+                .onErrorResume(throwable -> {
+                    logger.warn("Erro ao consultar API externa de risco de fraude: {}",
+                            throwable.getMessage());
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Envia um lote de consultas. Erros são propagados para que o {@link Coalescer}
+     * reenvie as consultas individualmente.
+     */
+    private Mono<List<RespostaRisco>> consultarLote(List<RiscoFraudeRequestDTO> requests) {
+        return protegido(webClient.post()
+                        .uri("/consultar-lote")
+                        .bodyValue(new RiscoFraudeLoteRequestDTO(requests))
+                        .retrieve()
+                        .bodyToMono(RiscoFraudeLoteResponseDTO.class))
+                .map(response -> {
+                    List<RiscoFraudeResponseDTO> resultados = response.getResultados() != null
+                            ? response.getResultados() : List.of();
+                    List<RespostaRisco> respostas = new ArrayList<>(resultados.size());
+                    for (RiscoFraudeResponseDTO resultado : resultados) {
+                        respostas.add(resultado != null ? converterResposta(resultado) : null);
+                    }
+                    return respostas;
+                });
+    }
+    
+    /**
+     * Aplica bulkhead, circuit breaker, hedging, timeout e retry a uma chamada.
+     * A chamada extra do hedging não ocupa permissão do bulkhead: é limitada pelo orçamento.
+     * Termina vazia quando a chamada é recusada pelas proteções.
+     */
+    private <T> Mono<T> protegido(Mono<T> chamada) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tentarEntrar()) {
+                logger.debug("Limite de chamadas simultâneas à API de risco atingido");
+                return Mono.empty();
+            }
+            if (!circuitBreaker.permitirChamada()) {
+                bulkhead.liberar();
+                logger.debug("Circuito da API de risco aberto, consulta não enviada");
+                return Mono.empty();
+            }
+            
+            long inicio = System.nanoTime();
+            return hedging.aplicar(chamada)
+                    .timeout(Duration.ofSeconds(timeoutSegundos))
+                    .retryWhen(Retry.fixedDelay(2, Duration.ofMillis(500))
+                            .filter(throwable -> throwable instanceof WebClientException))
+                    .doOnSuccess(response -> circuitBreaker.registrarSucesso(System.nanoTime() - inicio))
+                    .doOnError(throwable -> circuitBreaker.registrarFalha(System.nanoTime() - inicio))
+                    .doFinally(sinal -> {
+                        if (sinal == SignalType.CANCEL) {
+                            circuitBreaker.registrarCancelamento();
+                        }
+                        bulkhead.liberar();
+                    });
+        });
+    }
+
+    private RespostaRisco converterResposta(RiscoFraudeResponseDTO response) {
+        if (response.getRisco() != null) {
+            try {
+                return new RespostaRisco(RiscoFraudeEnum.valueOf(response.getRisco().toUpperCase()),
+                        response.getScore(), response.getMensagem());
+            } catch (IllegalArgumentException e) {
+                // Tratado abaixo como resposta sem risco
+            }
+        }
+        logger.warn("Risco retornado pela API inválido: {}, usando cálculo local", response.getRisco());
+        return null;
+    }
+}
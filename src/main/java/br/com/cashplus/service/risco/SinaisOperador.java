@@ -0,0 +1,25 @@
+package br.com.cashplus.service.risco;
+
+/**
+ * Sinais do operador apurados quando a venda entra na janela de velocidade e na linha de
+ * base de anomalias. Guardados para que uma nova tentativa de avaliação da mesma venda
+ * não a registre outra vez.
+ */
+public final class SinaisOperador {
+
+    private final boolean velocidadeExcedida;
+    private final boolean anomala;
+    
+    public SinaisOperador(boolean velocidadeExcedida, boolean anomala) {
+        this.velocidadeExcedida = velocidadeExcedida;
+        this.anomala = anomala;
+    }
+    
+    public boolean isVelocidadeExcedida() {
+        return velocidadeExcedida;
+    }
+    
+    public boolean isAnomala() {
+        return anomala;
+    }
+}
@@ -0,0 +1,323 @@
+package br.com.cashplus.service.risco.auditoria;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Diário de auditoria das decisões de risco de fraude, fora do caminho da venda.
+ *
+ * {@link #registrar} só enfileira o registro em uma fila sem locks e limitada: com a fila
+ * cheia o registro é descartado (e contado) em vez de segurar a venda. Uma única thread
+ * grava os registros no formato binário de {@link FormatoDiario} em segmentos mapeados
+ * em memória, de tamanho fixo, e força a gravação em disco a cada intervalo de
+ * sincronização; uma queda do sistema operacional perde no máximo esse intervalo.
+ *
+ * Um segmento novo é aberto quando o atual enche e a cada início da aplicação. Segmentos
+ * cujos registros são todos mais antigos que a retenção são apagados na troca.
+ */
+@Component
+public class DiarioDecisoesRisco {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiarioDecisoesRisco.class);
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final long tamanhoSegmento;
+    private final long retencaoMillis;
+    private final int capacidadeFila;
+    private final long intervaloSincronizacaoMillis;
+    private final LongSupplier relogioMillis;
+
+    private final ConcurrentLinkedQueue<RegistroDecisaoRisco> fila = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanhoFila = new AtomicInteger();
+    private volatile boolean executando;
+    private Thread escritor;
+
+    // Estado da thread escritora
+    private final ByteBuffer corpo = ByteBuffer.allocate(FormatoDiario.TAMANHO_MAXIMO_CORPO);
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private long ultimoSegmentoMillis;
+    private long ultimaSincronizacaoMillis;
+    private boolean pendenteSincronizar;
+
+    private final Counter gravados;
+    private final Counter descartados;
+    private final Counter falhas;
+
+    @Autowired
+    public DiarioDecisoesRisco(
+            MeterRegistry meterRegistry,
+            @Value("${app.risco-fraude.auditoria.enabled:true}") boolean habilitado,
+            @Value("${app.risco-fraude.auditoria.diretorio:data/auditoria-risco}") String diretorio,
+            @Value("${app.risco-fraude.auditoria.tamanho-segmento-mb:64}") int tamanhoSegmentoMb,
+            @Value("${app.risco-fraude.auditoria.retencao-dias:90}") int retencaoDias,
+            @Value("${app.risco-fraude.auditoria.fila:65536}") int capacidadeFila,
+            @Value("${app.risco-fraude.auditoria.sincronizar-ms:1000}") long intervaloSincronizacaoMillis) {
+        this(meterRegistry, habilitado, Paths.get(diretorio), tamanhoSegmentoMb * 1024L * 1024L,
+                Duration.ofDays(retencaoDias), capacidadeFila, intervaloSincronizacaoMillis,
+                System::currentTimeMillis);
+    }
+
+    public DiarioDecisoesRisco(MeterRegistry meterRegistry, boolean habilitado, Path diretorio,
+                               long tamanhoSegmentoBytes, Duration retencao, int capacidadeFila,
+                               long intervaloSincronizacaoMillis, LongSupplier relogioMillis) {
+        this.habilitado = habilitado;
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = Math.max(tamanhoSegmentoBytes, FormatoDiario.CABECALHO_SEGMENTO
+                + FormatoDiario.CABECALHO_REGISTRO + FormatoDiario.TAMANHO_MAXIMO_CORPO);
+        this.retencaoMillis = retencao.toMillis();
+        this.capacidadeFila = capacidadeFila;
+        this.intervaloSincronizacaoMillis = intervaloSincronizacaoMillis;
+        this.relogioMillis = relogioMillis;
+
+        Gauge.builder("risco.fraude.auditoria.fila", tamanhoFila, AtomicInteger::get)
+                .description("Decisões aguardando gravação no diário de auditoria")
+                .register(meterRegistry);
+        this.gravados = Counter.builder("risco.fraude.auditoria.gravados")
+                .description("Decisões gravadas no diário de auditoria")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("risco.fraude.auditoria.descartados")
+                .description("Decisões não auditadas por fila cheia ou falha de gravação")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("risco.fraude.auditoria.falhas")
+                .description("Erros de gravação no diário de auditoria")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public Path getDiretorio() {
+        return diretorio;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        // A thread é atribuída antes de executando, que publica o campo para o registrar
+        escritor = new Thread(this::executarEscritor, "diario-risco");
+        escritor.setDaemon(true);
+        executando = true;
+        escritor.start();
+        logger.info("Diário de decisões de risco gravando em {}", diretorio.toAbsolutePath());
+    }
+
+    /**
+     * Encerra a thread escritora depois de gravar o que está na fila.
+     */
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        executando = false;
+        LockSupport.unpark(escritor);
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Enfileira a decisão para gravação, sem bloquear. Descarta o registro se a fila estiver cheia.
+     * Só acorda a thread escritora quando a fila estava vazia.
+     */
+    public void registrar(RegistroDecisaoRisco registro) {
+        if (!executando) {
+            return;
+        }
+        int tamanho = tamanhoFila.incrementAndGet();
+        if (tamanho > capacidadeFila) {
+            tamanhoFila.decrementAndGet();
+            descartados.increment();
+            return;
+        }
+        fila.offer(registro);
+        if (tamanho == 1) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    /**
+     * Decisões gravadas entre de e ate, em ordem cronológica. Inclui o segmento em gravação
+     * (registros ainda na fila não aparecem).
+     */
+    public List<RegistroDecisaoRisco> consultar(LocalDateTime de, LocalDateTime ate, Long operadorId, int limite) {
+        return LeitorDiarioDecisoes.consultar(diretorio, de, ate, operadorId, limite);
+    }
+
+    private void executarEscritor() {
+        try {
+            Files.createDirectories(diretorio);
+            while (executando || !fila.isEmpty()) {
+                RegistroDecisaoRisco registro = fila.poll();
+                if (registro == null) {
+                    aguardarRegistros();
+                    continue;
+                }
+                tamanhoFila.decrementAndGet();
+                gravar(registro);
+            }
+        } catch (IOException e) {
+            logger.error("Diário de decisões de risco desativado: não foi possível criar {}: {}",
+                    diretorio, e.getMessage());
+            executando = false;
+        } finally {
+            fecharSegmento();
+        }
+    }
+
+    private void gravar(RegistroDecisaoRisco registro) {
+        try {
+            corpo.clear();
+            FormatoDiario.codificar(registro, corpo);
+            int tamanho = corpo.position();
+            if (segmento == null || segmento.remaining() < FormatoDiario.CABECALHO_REGISTRO + tamanho) {
+                abrirSegmento(registro.getInstanteMillis());
+            }
+            int posicao = segmento.position();
+            segmento.position(posicao + FormatoDiario.CABECALHO_REGISTRO);
+            segmento.put(corpo.array(), 0, tamanho);
+            segmento.putInt(posicao + 4, FormatoDiario.crc(corpo.array(), 0, tamanho));
+            // Tamanho por último: até aqui o registro é invisível para a leitura
+            segmento.putInt(posicao, tamanho);
+            pendenteSincronizar = true;
+            gravados.increment();
+        } catch (IOException | RuntimeException e) {
+            // O próximo registro tenta um segmento novo
+            falhas.increment();
+            descartados.increment();
+            fecharSegmento();
+            logger.error("Erro ao gravar no diário de decisões de risco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * O segmento recebe o instante do primeiro registro, não o da gravação: com a fila
+     * atrasada, o relógio já estaria à frente dos registros e a consulta pularia o segmento.
+     */
+    private void abrirSegmento(long primeiroRegistroMillis) throws IOException {
+        fecharSegmento();
+        long criadoEm = Math.max(Math.min(relogioMillis.getAsLong(), primeiroRegistroMillis),
+                ultimoSegmentoMillis + 1);
+        Path arquivo = diretorio.resolve(FormatoDiario.nomeSegmento(criadoEm));
+        canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // O arquivo fica esparso: só as páginas gravadas ocupam disco
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        segmento.putInt(FormatoDiario.MAGICO);
+        segmento.putInt(FormatoDiario.VERSAO);
+        ultimoSegmentoMillis = criadoEm;
+        aplicarRetencao(criadoEm);
+    }
+
+    /**
+     * Com a fila vazia, dorme até o próximo registro ou, havendo gravações ainda não
+     * sincronizadas, até o prazo da sincronização.
+     */
+    private void aguardarRegistros() {
+        if (tamanhoFila.get() > 0) {
+            // Registro já contado e ainda não enfileirado: quem o contou não acorda a thread,
+            // porque a fila não estava vazia
+            Thread.onSpinWait();
+            return;
+        }
+        long esperaMillis = sincronizarSeNecessario();
+        if (!executando) {
+            return;
+        }
+        if (esperaMillis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(esperaMillis));
+        } else {
+            LockSupport.park();
+        }
+    }
+
+    /**
+     * @return milissegundos até a próxima sincronização, ou 0 se não há nada pendente
+     */
+    private long sincronizarSeNecessario() {
+        if (!pendenteSincronizar || segmento == null) {
+            return 0;
+        }
+        long agora = relogioMillis.getAsLong();
+        long restante = ultimaSincronizacaoMillis + intervaloSincronizacaoMillis - agora;
+        if (restante > 0) {
+            return restante;
+        }
+        segmento.force();
+        pendenteSincronizar = false;
+        ultimaSincronizacaoMillis = agora;
+        return 0;
+    }
+
+    private void fecharSegmento() {
+        if (segmento != null) {
+            segmento.force();
+            segmento = null;
+            pendenteSincronizar = false;
+        }
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                logger.warn("Erro ao fechar segmento do diário de decisões: {}", e.getMessage());
+            }
+            canal = null;
+        }
+    }
+
+    /**
+     * Apaga os segmentos cujo sucessor foi criado antes do limite de retenção,
+     * ou seja, com todos os registros mais antigos que a retenção.
+     */
+    private void aplicarRetencao(long agora) {
+        List<Path> segmentos;
+        try {
+            segmentos = LeitorDiarioDecisoes.listarSegmentos(diretorio);
+        } catch (UncheckedIOException e) {
+            logger.warn("Retenção do diário de decisões não aplicada: {}", e.getMessage());
+            return;
+        }
+        long limite = agora - retencaoMillis;
+        for (int i = 0; i + 1 < segmentos.size(); i++) {
+            if (FormatoDiario.criadoEmMillis(segmentos.get(i + 1)) >= limite) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segmentos.get(i));
+                logger.info("Segmento do diário de decisões fora da retenção removido: {}",
+                        segmentos.get(i).getFileName());
+            } catch (IOException e) {
+                logger.warn("Não foi possível remover o segmento {}: {}", segmentos.get(i), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.cashplus.service.risco.auditoria;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário dos segmentos do diário de decisões de risco.
+ *
+ * Segmento: mágico (int), versão (int) e registros até o primeiro tamanho 0.
+ * Registro: tamanho do corpo (int), CRC32C do corpo (int) e corpo:
+ * instante em millis (long), operador (long, -1 sem operador), valor em centavos (long),
+ * latência em µs (int), tipo de pagamento, turno, camada, risco local, risco remoto,
+ * risco final, motivo do fallback e flags (1 byte cada, ordinal ou -1), score (int,
+ * Integer.MIN_VALUE sem score) e mensagem em UTF-8 (short com o tamanho, -1 sem mensagem).
+ *
+ * O tamanho é gravado por último: um registro incompleto (queda no meio da gravação)
+ * aparece como fim do segmento.
+ */
+final class FormatoDiario {
+
+    static final int MAGICO = 0x43504144; // "CPAD"
+    static final int VERSAO = 1;
+    static final int CABECALHO_SEGMENTO = 8;
+    static final int CABECALHO_REGISTRO = 8;
+    static final int TAMANHO_MAXIMO_MENSAGEM = 512;
+    static final int TAMANHO_MAXIMO_CORPO = 42 + TAMANHO_MAXIMO_MENSAGEM;
+
+    static final String PREFIXO_SEGMENTO = "decisoes-";
+    static final String SUFIXO_SEGMENTO = ".seg";
+
+    private static final int SEM_SCORE = Integer.MIN_VALUE;
+    private static final int FLAG_VELOCIDADE = 1;
+    private static final int FLAG_ANOMALIA = 1 << 1;
+
+    private static final TipoPagamentoEnum[] TIPOS = TipoPagamentoEnum.values();
+    private static final TurnoEnum[] TURNOS = TurnoEnum.values();
+    private static final RiscoFraudeEnum[] RISCOS = RiscoFraudeEnum.values();
+    private static final RegistroDecisaoRisco.Camada[] CAMADAS = RegistroDecisaoRisco.Camada.values();
+    private static final RegistroDecisaoRisco.MotivoFallback[] MOTIVOS = RegistroDecisaoRisco.MotivoFallback.values();
+
+    private FormatoDiario() {
+    }
+
+    /**
+     * Nome do segmento cujo primeiro registro é do instante informado; a ordem alfabética
+     * é a cronológica.
+     */
+    static String nomeSegmento(long criadoEmMillis) {
+        return String.format("%s%013d%s", PREFIXO_SEGMENTO, criadoEmMillis, SUFIXO_SEGMENTO);
+    }
+
+    static boolean isSegmento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return nome.startsWith(PREFIXO_SEGMENTO) && nome.endsWith(SUFIXO_SEGMENTO);
+    }
+
+    static long criadoEmMillis(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO_SEGMENTO.length(), nome.length() - SUFIXO_SEGMENTO.length()));
+    }
+
+    static void codificar(RegistroDecisaoRisco registro, ByteBuffer corpo) {
+        corpo.putLong(registro.getInstanteMillis());
+        corpo.putLong(registro.getOperadorId() != null ? registro.getOperadorId() : -1);
+        corpo.putLong(registro.getCentavos());
+        corpo.putInt(registro.getLatenciaMicros());
+        corpo.put(ordinal(registro.getTipoPagamento()));
+        corpo.put(ordinal(registro.getTurno()));
+        corpo.put(ordinal(registro.getCamada()));
+        corpo.put(ordinal(registro.getRiscoLocal()));
+        corpo.put(ordinal(registro.getRiscoRemoto()));
+        corpo.put(ordinal(registro.getRiscoFinal()));
+        corpo.put(ordinal(registro.getMotivoFallback()));
+        corpo.put((byte) ((registro.isVelocidadeExcedida() ? FLAG_VELOCIDADE : 0)
+                | (registro.isAnomalia() ? FLAG_ANOMALIA : 0)));
+        corpo.putInt(registro.getScoreRemoto() != null ? registro.getScoreRemoto() : SEM_SCORE);
+        if (registro.getMensagemRemota() == null) {
+            corpo.putShort((short) -1);
+        } else {
+            byte[] mensagem = registro.getMensagemRemota().getBytes(StandardCharsets.UTF_8);
+            int tamanho = Math.min(mensagem.length, TAMANHO_MAXIMO_MENSAGEM);
+            corpo.putShort((short) tamanho);
+            corpo.put(mensagem, 0, tamanho);
+        }
+    }
+
+    static RegistroDecisaoRisco decodificar(ByteBuffer corpo) {
+        long instanteMillis = corpo.getLong();
+        long operadorId = corpo.getLong();
+        long centavos = corpo.getLong();
+        int latenciaMicros = corpo.getInt();
+        TipoPagamentoEnum tipo = valor(TIPOS, corpo.get());
+        TurnoEnum turno = valor(TURNOS, corpo.get());
+        RegistroDecisaoRisco.Camada camada = valor(CAMADAS, corpo.get());
+        RiscoFraudeEnum riscoLocal = valor(RISCOS, corpo.get());
+        RiscoFraudeEnum riscoRemoto = valor(RISCOS, corpo.get());
+        RiscoFraudeEnum riscoFinal = valor(RISCOS, corpo.get());
+        RegistroDecisaoRisco.MotivoFallback motivo = valor(MOTIVOS, corpo.get());
+        int flags = corpo.get();
+        int score = corpo.getInt();
+        short tamanhoMensagem = corpo.getShort();
+        String mensagem = null;
+        if (tamanhoMensagem >= 0) {
+            byte[] bytes = new byte[tamanhoMensagem];
+            corpo.get(bytes);
+            mensagem = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new RegistroDecisaoRisco(instanteMillis, operadorId >= 0 ? operadorId : null, centavos, tipo, turno,
+                camada, riscoLocal, riscoRemoto, score != SEM_SCORE ? score : null, mensagem, motivo,
+                (flags & FLAG_VELOCIDADE) != 0, (flags & FLAG_ANOMALIA) != 0, riscoFinal, latenciaMicros);
+    }
+
+    static int crc(byte[] dados, int inicio, int tamanho) {
+        CRC32C crc = new CRC32C();
+        crc.update(dados, inicio, tamanho);
+        return (int) crc.getValue();
+    }
+
+    private static byte ordinal(Enum<?> valor) {
+        return (byte) (valor != null ? valor.ordinal() : -1);
+    }
+
+    private static <E> E valor(E[] valores, byte ordinal) {
+        return ordinal >= 0 && ordinal < valores.length ? valores[ordinal] : null;
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.cashplus.service.risco.auditoria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Leitura dos segmentos do diário de decisões de risco, usada pelo endpoint de auditoria
+ * e, fora da aplicação, pela linha de comando:
+ *
+ * <pre>
+ * java -cp CashPlusAssist-API-1.0.0.jar \
+ *      -Dloader.main=br.com.cashplus.service.risco.auditoria.LeitorDiarioDecisoes \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      data/auditoria-risco [--de=2024-01-15T00:00] [--ate=2024-01-16T00:00] [--operador=7] [--limite=100]
+ * </pre>
+ *
+ * Cada segmento tem o nome do instante do seu primeiro registro. Segmentos fora do período
+ * são pulados por esse instante, com uma margem para registros que entraram na fila fora
+ * de ordem (threads diferentes entre a decisão e o enfileiramento).
+ * Um registro com tamanho ou CRC inválido encerra a leitura do segmento.
+ */
+public final class LeitorDiarioDecisoes {
+
+    static final long MARGEM_ORDEM_MILLIS = 1000;
+
+    private LeitorDiarioDecisoes() {
+    }
+
+    /**
+     * Registros em ordem cronológica entre de e ate (inclusive; null = sem limite),
+     * opcionalmente de um único operador, até o limite informado.
+     */
+    public static List<RegistroDecisaoRisco> consultar(Path diretorio, LocalDateTime de, LocalDateTime ate,
+                                                       Long operadorId, int limite) {
+        long deMillis = de != null ? paraMillis(de) : Long.MIN_VALUE;
+        long ateMillis = ate != null ? paraMillis(ate) : Long.MAX_VALUE;
+        Predicate<RegistroDecisaoRisco> filtro = registro -> registro.getInstanteMillis() >= deMillis
+                && registro.getInstanteMillis() <= ateMillis
+                && (operadorId == null || operadorId.equals(registro.getOperadorId()));
+
+        List<RegistroDecisaoRisco> resultado = new ArrayList<>();
+        List<Path> segmentos = listarSegmentos(diretorio);
+        for (int i = 0; i < segmentos.size() && resultado.size() < limite; i++) {
+            if (FormatoDiario.criadoEmMillis(segmentos.get(i)) - MARGEM_ORDEM_MILLIS > ateMillis) {
+                break;
+            }
+            boolean terminaAntes = i + 1 < segmentos.size()
+                    && FormatoDiario.criadoEmMillis(segmentos.get(i + 1)) + MARGEM_ORDEM_MILLIS < deMillis;
+            if (!terminaAntes) {
+                lerSegmento(segmentos.get(i), filtro, resultado, limite);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Segmentos do diretório em ordem cronológica.
+     */
+    static List<Path> listarSegmentos(Path diretorio) {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(FormatoDiario::isSegmento).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível listar o diário de decisões em " + diretorio, e);
+        }
+    }
+
+    private static void lerSegmento(Path segmento, Predicate<RegistroDecisaoRisco> filtro,
+                                    List<RegistroDecisaoRisco> resultado, int limite) {
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+            if (canal.size() < FormatoDiario.CABECALHO_SEGMENTO) {
+                return;
+            }
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (dados.getInt() != FormatoDiario.MAGICO || dados.getInt() != FormatoDiario.VERSAO) {
+                return;
+            }
+            byte[] corpo = new byte[FormatoDiario.TAMANHO_MAXIMO_CORPO];
+            while (resultado.size() < limite && dados.remaining() >= FormatoDiario.CABECALHO_REGISTRO) {
+                int tamanho = dados.getInt();
+                int crc = dados.getInt();
+                if (tamanho <= 0 || tamanho > corpo.length || tamanho > dados.remaining()) {
+                    return;
+                }
+                dados.get(corpo, 0, tamanho);
+                if (FormatoDiario.crc(corpo, 0, tamanho) != crc) {
+                    return;
+                }
+                RegistroDecisaoRisco registro = FormatoDiario.decodificar(ByteBuffer.wrap(corpo, 0, tamanho));
+                if (filtro.test(registro)) {
+                    resultado.add(registro);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o segmento " + segmento, e);
+        }
+    }
+
+    static long paraMillis(LocalDateTime dataHora) {
+        return dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime paraDataHora(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: LeitorDiarioDecisoes <diretorio> [--de=AAAA-MM-DDTHH:MM] "
+                    + "[--ate=AAAA-MM-DDTHH:MM] [--operador=ID] [--limite=N]");
+            System.exit(1);
+        }
+        LocalDateTime de = null;
+        LocalDateTime ate = null;
+        Long operadorId = null;
+        int limite = Integer.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            String argumento = args[i];
+            String valor = argumento.substring(argumento.indexOf('=') + 1);
+            if (argumento.startsWith("--de=")) {
+                de = LocalDateTime.parse(valor);
+            } else if (argumento.startsWith("--ate=")) {
+                ate = LocalDateTime.parse(valor);
+            } else if (argumento.startsWith("--operador=")) {
+                operadorId = Long.parseLong(valor);
+            } else if (argumento.startsWith("--limite=")) {
+                limite = Integer.parseInt(valor);
+            } else {
+                System.err.println("Argumento desconhecido: " + argumento);
+                System.exit(1);
+            }
+        }
+
+        System.out.println("dataHora\toperador\tcentavos\ttipo\tturno\tcamada\tlocal\tremoto\tscore\t"
+                + "fallback\tvelocidade\tanomalia\tfinal\tlatenciaMicros\tmensagem");
+        for (RegistroDecisaoRisco r : consultar(Paths.get(args[0]), de, ate, operadorId, limite)) {
+            System.out.println(String.join("\t",
+                    paraDataHora(r.getInstanteMillis()).toString(), String.valueOf(r.getOperadorId()),
+                    String.valueOf(r.getCentavos()), String.valueOf(r.getTipoPagamento()),
+                    String.valueOf(r.getTurno()), String.valueOf(r.getCamada()), String.valueOf(r.getRiscoLocal()),
+                    String.valueOf(r.getRiscoRemoto()), String.valueOf(r.getScoreRemoto()),
+                    String.valueOf(r.getMotivoFallback()), String.valueOf(r.isVelocidadeExcedida()),
+                    String.valueOf(r.isAnomalia()), String.valueOf(r.getRiscoFinal()),
+                    String.valueOf(r.getLatenciaMicros()), String.valueOf(r.getMensagemRemota())));
+        }
+    }
+}
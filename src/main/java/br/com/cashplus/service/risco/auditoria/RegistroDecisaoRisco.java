@@ -0,0 +1,126 @@
+package br.com.cashplus.service.risco.auditoria;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+
+/**
+ * Uma decisão de risco de fraude registrada no diário de auditoria: entrada, veredito
+ * das regras locais, resposta da API externa, motivo do fallback e latência.
+ */
+public final class RegistroDecisaoRisco {
+
+    /**
+     * Camada que decidiu o risco.
+     */
+    public enum Camada {
+        LOCAL, REMOTA, FALLBACK
+    }
+
+    /**
+     * Por que a API externa foi consultada e não decidiu.
+     */
+    public enum MotivoFallback {
+        NENHUM,
+        SEM_RESPOSTA, // recusada pelo circuito/bulkhead, erro da API, risco inválido ou falha cacheada
+        ERRO
+    }
+
+    private final long instanteMillis;
+    private final Long operadorId;
+    private final long centavos;
+    private final TipoPagamentoEnum tipoPagamento;
+    private final TurnoEnum turno;
+    private final Camada camada;
+    private final RiscoFraudeEnum riscoLocal;
+    private final RiscoFraudeEnum riscoRemoto;
+    private final Integer scoreRemoto;
+    private final String mensagemRemota;
+    private final MotivoFallback motivoFallback;
+    private final boolean velocidadeExcedida;
+    private final boolean anomalia;
+    private final RiscoFraudeEnum riscoFinal;
+    private final int latenciaMicros;
+
+    public RegistroDecisaoRisco(long instanteMillis, Long operadorId, long centavos,
+                                TipoPagamentoEnum tipoPagamento, TurnoEnum turno, Camada camada,
+                                RiscoFraudeEnum riscoLocal, RiscoFraudeEnum riscoRemoto, Integer scoreRemoto,
+                                String mensagemRemota, MotivoFallback motivoFallback, boolean velocidadeExcedida,
+                                boolean anomalia, RiscoFraudeEnum riscoFinal, int latenciaMicros) {
+        this.instanteMillis = instanteMillis;
+        this.operadorId = operadorId;
+        this.centavos = centavos;
+        this.tipoPagamento = tipoPagamento;
+        this.turno = turno;
+        this.camada = camada;
+        this.riscoLocal = riscoLocal;
+        this.riscoRemoto = riscoRemoto;
+        this.scoreRemoto = scoreRemoto;
+        this.mensagemRemota = mensagemRemota;
+        this.motivoFallback = motivoFallback;
+        this.velocidadeExcedida = velocidadeExcedida;
+        this.anomalia = anomalia;
+        this.riscoFinal = riscoFinal;
+        this.latenciaMicros = latenciaMicros;
+    }
+
+    public long getInstanteMillis() {
+        return instanteMillis;
+    }
+
+    public Long getOperadorId() {
+        return operadorId;
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public TipoPagamentoEnum getTipoPagamento() {
+        return tipoPagamento;
+    }
+
+    public TurnoEnum getTurno() {
+        return turno;
+    }
+
+    public Camada getCamada() {
+        return camada;
+    }
+
+    public RiscoFraudeEnum getRiscoLocal() {
+        return riscoLocal;
+    }
+
+    public RiscoFraudeEnum getRiscoRemoto() {
+        return riscoRemoto;
+    }
+
+    public Integer getScoreRemoto() {
+        return scoreRemoto;
+    }
+
+    public String getMensagemRemota() {
+        return mensagemRemota;
+    }
+
+    public MotivoFallback getMotivoFallback() {
+        return motivoFallback;
+    }
+
+    public boolean isVelocidadeExcedida() {
+        return velocidadeExcedida;
+    }
+
+    public boolean isAnomalia() {
+        return anomalia;
+    }
+
+    public RiscoFraudeEnum getRiscoFinal() {
+        return riscoFinal;
+    }
+
+    public int getLatenciaMicros() {
+        return latenciaMicros;
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.cashplus.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Conjunto de longs com endereçamento aberto (sondagem linear) em um único long[],
+ * sem boxing nem um objeto por elemento.
+ *
+ * As consultas usam leitura otimista do {@link StampedLock} e só bloqueiam se uma escrita
+ * ocorreu no meio; as inclusões são serializadas. Não há remoção: o conjunto só cresce.
+ */
+public final class ConjuntoLongs {
+
+    private static final long VAZIO = Long.MIN_VALUE;
+    private static final long FIBONACCI = 0x9E3779B97F4A7C15L;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] tabela;
+    private int tamanho;
+
+    public ConjuntoLongs(int capacidadeInicial) {
+        // Ocupação máxima de 50%: agrupamentos curtos na sondagem linear
+        int capacidade = Integer.highestOneBit(Math.max(8, capacidadeInicial) * 2 - 1) << 1;
+        this.tabela = novaTabela(capacidade);
+    }
+
+    public boolean contem(long valor) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean encontrado = posicao(tabela, valor) >= 0;
+            if (lock.validate(stamp)) {
+                return encontrado;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return posicao(tabela, valor) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return true se o valor não estava no conjunto
+     * @throws IllegalArgumentException para Long.MIN_VALUE, reservado como posição vazia
+     */
+    public boolean adicionar(long valor) {
+        if (valor == VAZIO) {
+            throw new IllegalArgumentException("Valor reservado: " + valor);
+        }
+        long stamp = lock.writeLock();
+        try {
+            long[] atual = tabela;
+            int mascara = atual.length - 1;
+            int i = indice(valor, mascara);
+            while (atual[i] != VAZIO) {
+                if (atual[i] == valor) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            atual[i] = valor;
+            if (++tamanho > atual.length / 2) {
+                redimensionar(atual.length * 2);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int tamanho() {
+        long stamp = lock.readLock();
+        try {
+            return tamanho;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Limitada ao tamanho da tabela: numa leitura otimista o conteúdo pode estar mudando
+    private static int posicao(long[] tabela, long valor) {
+        int mascara = tabela.length - 1;
+        int i = indice(valor, mascara);
+        for (int sondagens = 0; sondagens <= mascara; sondagens++) {
+            long atual = tabela[i];
+            if (atual == valor) {
+                return i;
+            }
+            if (atual == VAZIO) {
+                return -1;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private static int indice(long valor, int mascara) {
+        long h = valor * FIBONACCI;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void redimensionar(int capacidade) {
+        long[] nova = novaTabela(capacidade);
+        int mascara = capacidade - 1;
+        for (long valor : tabela) {
+            if (valor != VAZIO) {
+                int i = indice(valor, mascara);
+                while (nova[i] != VAZIO) {
+                    i = (i + 1) & mascara;
+                }
+                nova[i] = valor;
+            }
+        }
+        tabela = nova;
+    }
+
+    private static long[] novaTabela(int capacidade) {
+        long[] tabela = new long[capacidade];
+        Arrays.fill(tabela, VAZIO);
+        return tabela;
+    }
+}
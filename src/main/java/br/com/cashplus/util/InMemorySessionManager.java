@@ -0,0 +1,410 @@
+package br.com.cashplus.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sessões em memória (app.sessao.modo=memoria, o padrão), indexadas pelo UUID do token (128 bits) em vez da String.
+ *
+ * O último acesso é um long monotônico (System.nanoTime) volátil, regravado no máximo
+ * uma vez por segundo por sessão para não disputar a linha de cache entre requisições
+ * concorrentes. A validação não cria objetos além da chave de busca.
+ *
+ * A expiração usa uma roda de tempo (hashed timer wheel): cada sessão fica no slot do
+ * seu prazo e {@link #cleanupExpiredSessions()}, agendado a cada tick, visita só o slot
+ * vencido, removendo as expiradas e reposicionando as que foram acessadas — custo O(1)
+ * amortizado por sessão a cada período de timeout. A validação também confere o prazo,
+ * então a precisão da remoção não afeta quem é aceito.
+ *
+ * No desligamento as sessões vão para um snapshot binário (app.sessao.arquivo-snapshot),
+ * recarregado na inicialização antes de a aplicação ficar pronta: um deploy não obriga
+ * todos os terminais a criar sessão ao mesmo tempo. O prazo é gravado em epoch millis,
+ * então o tempo fora do ar conta como inatividade e as sessões vencidas não são carregadas.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessao.modo", havingValue = "memoria", matchIfMissing = true)
+public class InMemorySessionManager implements SessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySessionManager.class);
+
+    private static final long RESOLUCAO_ACESSO_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int MAGICO = 0x43505353; // "CPSS"
+    private static final int VERSAO = 1;
+    private static final short FIM_REGISTROS = -1;
+    // tamanho do userId (2), UUID (16) e prazo (8)
+    private static final int TAMANHO_MINIMO_REGISTRO = 26;
+    private static final int TAMANHO_MAXIMO_USER_ID = Short.MAX_VALUE;
+
+    private final long timeoutNanos;
+    private final long tickNanos;
+    private final LongSupplier relogioNanos;
+    private final LongSupplier relogioMillis;
+    private final long origemNanos;
+    private final Path arquivoSnapshot;
+
+    private final Map<UUID, SessionInfo> sessions;
+    private final ConcurrentLinkedQueue<SessionInfo>[] roda;
+    private final int mascaraRoda;
+    private long proximoTick; // acessado só pela thread do agendamento (synchronized)
+
+    @Autowired
+    public InMemorySessionManager(@Value("${app.sessao.timeout-minutos:30}") long timeoutMinutos,
+                                  @Value("${app.sessao.tick-ms:5000}") long tickMillis,
+                                  @Value("${app.sessao.arquivo-snapshot:data/sessoes.bin}") String arquivoSnapshot) {
+        this(Duration.ofMinutes(timeoutMinutos), Duration.ofMillis(tickMillis),
+                arquivoSnapshot == null || arquivoSnapshot.isBlank() ? null : Paths.get(arquivoSnapshot),
+                System::nanoTime, System::currentTimeMillis);
+    }
+
+    public InMemorySessionManager(Duration timeout, Duration tick, LongSupplier relogioNanos) {
+        this(timeout, tick, null, relogioNanos, System::currentTimeMillis);
+    }
+
+    /**
+     * @param arquivoSnapshot snapshot das sessões entre reinícios; null desativa
+     * @param relogioMillis   relógio de parede, usado só nos prazos do snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public InMemorySessionManager(Duration timeout, Duration tick, Path arquivoSnapshot,
+                                  LongSupplier relogioNanos, LongSupplier relogioMillis) {
+        this.timeoutNanos = timeout.toNanos();
+        this.tickNanos = tick.toNanos();
+        this.relogioNanos = relogioNanos;
+        this.relogioMillis = relogioMillis;
+        this.origemNanos = relogioNanos.getAsLong();
+        this.arquivoSnapshot = arquivoSnapshot;
+        // Dimensionado pelo snapshot a restaurar: evita os redimensionamentos ao carregar
+        this.sessions = new ConcurrentHashMap<>(capacidadeInicial(arquivoSnapshot));
+
+        // Prazos nunca passam de timeout à frente do tick atual: a roda cobre o timeout inteiro
+        int slots = Integer.highestOneBit((int) Math.min(1 << 20, timeoutNanos / tickNanos + 2)) << 1;
+        this.roda = new ConcurrentLinkedQueue[slots];
+        for (int i = 0; i < slots; i++) {
+            roda[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mascaraRoda = slots - 1;
+    }
+
+    @Override
+    public String createSession(String userId) {
+        UUID token = UUID.randomUUID();
+        SessionInfo sessionInfo = new SessionInfo(token, userId, relogioNanos.getAsLong());
+        sessions.put(token, sessionInfo);
+        agendar(sessionInfo);
+        return token.toString();
+    }
+
+    @Override
+    public boolean isValidSession(String token) {
+        UUID chave = parseToken(token);
+        if (chave == null) {
+            return false;
+        }
+
+        SessionInfo sessionInfo = sessions.get(chave);
+        if (sessionInfo == null) {
+            return false;
+        }
+
+        long agora = relogioNanos.getAsLong();
+        long ultimoAcesso = sessionInfo.lastAccessNanos;
+        // Verifica se a sessão expirou
+        if (agora - ultimoAcesso > timeoutNanos) {
+            sessions.remove(chave, sessionInfo);
+            return false;
+        }
+
+        // Atualiza último acesso
+        if (agora - ultimoAcesso > RESOLUCAO_ACESSO_NANOS) {
+            sessionInfo.lastAccessNanos = agora;
+        }
+        return true;
+    }
+
+    @Override
+    public void invalidateSession(String token) {
+        UUID chave = parseToken(token);
+        if (chave != null) {
+            sessions.remove(chave);
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Avança a roda até o tick atual, removendo as sessões expiradas dos slots vencidos.
+     */
+    @Scheduled(fixedRateString = "${app.sessao.tick-ms:5000}")
+    public synchronized void cleanupExpiredSessions() {
+        long agora = relogioNanos.getAsLong();
+        long tickAtual = tick(agora);
+        // Após uma pausa longa, uma volta completa já visita todos os slots
+        proximoTick = Math.max(proximoTick, tickAtual - mascaraRoda);
+        for (; proximoTick <= tickAtual; proximoTick++) {
+            ConcurrentLinkedQueue<SessionInfo> slot = roda[(int) (proximoTick & mascaraRoda)];
+            // Só o que já estava no slot: reagendamentos para o mesmo slot ficam para a próxima volta
+            for (int pendentes = slot.size(); pendentes > 0; pendentes--) {
+                SessionInfo sessionInfo = slot.poll();
+                if (sessionInfo == null) {
+                    break;
+                }
+                if (sessions.get(sessionInfo.token) != sessionInfo) {
+                    continue; // invalidada
+                }
+                if (agora - sessionInfo.lastAccessNanos > timeoutNanos) {
+                    sessions.remove(sessionInfo.token, sessionInfo);
+                } else {
+                    agendar(sessionInfo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recarrega as sessões ainda dentro do prazo e apaga o snapshot: ele vale para um único
+     * reinício, para que uma queda posterior não ressuscite sessões já encerradas.
+     * Formato: cabeçalho (mágico, versão) e, por sessão, tamanho do userId, UUID, prazo
+     * em epoch millis e userId em UTF-8; tamanho -1 encerra os registros.
+     */
+    @PostConstruct
+    public void carregarSnapshot() {
+        if (arquivoSnapshot == null || !Files.exists(arquivoSnapshot)) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        int carregadas = 0;
+        int expiradas = 0;
+        try (FileChannel canal = FileChannel.open(arquivoSnapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (dados.remaining() < 8 || dados.getInt() != MAGICO || dados.getInt() != VERSAO) {
+                logger.warn("Snapshot de sessões {} em formato desconhecido, ignorado", arquivoSnapshot);
+                return;
+            }
+            long agoraMillis = relogioMillis.getAsLong();
+            long agoraNanos = relogioNanos.getAsLong();
+            long timeoutMillis = Duration.ofNanos(timeoutNanos).toMillis();
+            UserIdsDecodificados usuarios = new UserIdsDecodificados();
+            short tamanho;
+            while ((tamanho = dados.getShort()) != FIM_REGISTROS) {
+                long msb = dados.getLong();
+                long lsb = dados.getLong();
+                long restanteMillis = Math.min(dados.getLong() - agoraMillis, timeoutMillis);
+                if (restanteMillis <= 0) {
+                    dados.position(dados.position() + tamanho);
+                    expiradas++;
+                    continue;
+                }
+                UUID token = new UUID(msb, lsb);
+                long ultimoAcesso = agoraNanos - timeoutNanos + TimeUnit.MILLISECONDS.toNanos(restanteMillis);
+                SessionInfo sessionInfo = new SessionInfo(token, usuarios.ler(dados, tamanho), ultimoAcesso);
+                sessions.put(token, sessionInfo);
+                agendar(sessionInfo);
+                carregadas++;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Não foi possível ler o snapshot de sessões {} ({} carregadas): {}",
+                    arquivoSnapshot, carregadas, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(arquivoSnapshot);
+        } catch (IOException e) {
+            logger.warn("Não foi possível apagar o snapshot de sessões {}: {}", arquivoSnapshot, e.getMessage());
+        }
+        logger.info("Sessões restauradas de {}: {} ({} expiradas descartadas) em {} ms", arquivoSnapshot,
+                carregadas, expiradas, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Grava as sessões ainda válidas em um arquivo temporário, legível só pelo dono (contém
+     * tokens ativos), e o move sobre o snapshot anterior.
+     */
+    @PreDestroy
+    public void gravarSnapshot() {
+        if (arquivoSnapshot == null) {
+            return;
+        }
+        try {
+            Path diretorio = arquivoSnapshot.toAbsolutePath().getParent();
+            if (diretorio != null) {
+                Files.createDirectories(diretorio);
+            }
+            Path temporario = arquivoSnapshot.resolveSibling(arquivoSnapshot.getFileName() + ".tmp");
+            Files.deleteIfExists(temporario);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.createFile(temporario,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            }
+            long agoraNanos = relogioNanos.getAsLong();
+            long agoraMillis = relogioMillis.getAsLong();
+            int gravadas = 0;
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+                buffer.putInt(MAGICO).putInt(VERSAO);
+                for (SessionInfo sessionInfo : sessions.values()) {
+                    long restanteNanos = timeoutNanos - (agoraNanos - sessionInfo.lastAccessNanos);
+                    byte[] usuario = sessionInfo.userId.getBytes(StandardCharsets.UTF_8);
+                    if (restanteNanos <= 0 || usuario.length > TAMANHO_MAXIMO_USER_ID) {
+                        continue;
+                    }
+                    if (buffer.remaining() < TAMANHO_MINIMO_REGISTRO + usuario.length) {
+                        escrever(canal, buffer);
+                    }
+                    buffer.putShort((short) usuario.length)
+                            .putLong(sessionInfo.token.getMostSignificantBits())
+                            .putLong(sessionInfo.token.getLeastSignificantBits())
+                            .putLong(agoraMillis + TimeUnit.NANOSECONDS.toMillis(restanteNanos))
+                            .put(usuario);
+                    gravadas++;
+                }
+                if (buffer.remaining() < 2) {
+                    escrever(canal, buffer);
+                }
+                buffer.putShort(FIM_REGISTROS);
+                escrever(canal, buffer);
+                canal.force(false);
+            }
+            Files.move(temporario, arquivoSnapshot,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Sessões gravadas em {}: {}", arquivoSnapshot, gravadas);
+        } catch (IOException e) {
+            logger.error("Não foi possível gravar o snapshot de sessões {}: {}", arquivoSnapshot, e.getMessage());
+        }
+    }
+
+    private static int capacidadeInicial(Path arquivoSnapshot) {
+        try {
+            if (arquivoSnapshot != null && Files.exists(arquivoSnapshot)) {
+                return (int) Math.min(Files.size(arquivoSnapshot) / TAMANHO_MINIMO_REGISTRO, 1 << 26);
+            }
+        } catch (IOException e) {
+            // sem dimensionamento
+        }
+        return 16;
+    }
+
+    private static void escrever(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void agendar(SessionInfo sessionInfo) {
+        long prazo = tick(sessionInfo.lastAccessNanos + timeoutNanos) + 1;
+        roda[(int) (prazo & mascaraRoda)].offer(sessionInfo);
+    }
+
+    private long tick(long instanteNanos) {
+        return (instanteNanos - origemNanos) / tickNanos;
+    }
+
+    /**
+     * Converte o token no formato canônico do UUID (36 caracteres) sem criar Strings
+     * intermediárias nem lançar exceção para tokens inválidos.
+     */
+    static UUID parseToken(String token) {
+        if (token == null || token.length() != 36
+                || token.charAt(8) != '-' || token.charAt(13) != '-'
+                || token.charAt(18) != '-' || token.charAt(23) != '-') {
+            return null;
+        }
+        long msb = 0;
+        long lsb = 0;
+        int digitos = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int valor = Character.digit(token.charAt(i), 16);
+            if (valor < 0) {
+                return null;
+            }
+            if (digitos++ < 16) {
+                msb = (msb << 4) | valor;
+            } else {
+                lsb = (lsb << 4) | valor;
+            }
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Muitas sessões por usuário (terminal): reaproveita o String já decodificado quando
+     * os bytes do userId se repetem, sem alocar nada no acerto.
+     */
+    private static final class UserIdsDecodificados {
+
+        private static final int SLOTS = 1024;
+
+        private final byte[][] bytes = new byte[SLOTS][];
+        private final String[] userIds = new String[SLOTS];
+        private byte[] leitura = new byte[256];
+
+        private String ler(ByteBuffer dados, int tamanho) {
+            if (leitura.length < tamanho) {
+                leitura = new byte[tamanho];
+            }
+            dados.get(leitura, 0, tamanho);
+            int hash = 1;
+            for (int i = 0; i < tamanho; i++) {
+                hash = 31 * hash + leitura[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+            byte[] anterior = bytes[slot];
+            if (anterior != null && Arrays.equals(anterior, 0, anterior.length, leitura, 0, tamanho)) {
+                return userIds[slot];
+            }
+            bytes[slot] = Arrays.copyOf(leitura, tamanho);
+            userIds[slot] = new String(leitura, 0, tamanho, StandardCharsets.UTF_8);
+            return userIds[slot];
+        }
+    }
+
+    private static class SessionInfo {
+        private final UUID token;
+        private final String userId;
+        private volatile long lastAccessNanos;
+
+        public SessionInfo(UUID token, String userId, long lastAccessNanos) {
+            this.token = token;
+            this.userId = userId;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+    }
+}
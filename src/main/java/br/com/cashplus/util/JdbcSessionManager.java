@@ -0,0 +1,217 @@
+package br.com.cashplus.util;
+
+import br.com.cashplus.repository.SessaoJdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sessões compartilhadas entre os nós na tabela sessoes (app.sessao.modo=jdbc): um reinício
+ * ou failover mantém as sessões, e a expiração continua sendo por inatividade.
+ *
+ * Cada nó guarda um near-cache (Caffeine) com TTL curto (app.sessao.jdbc.cache-ttl-ms), que
+ * inclui as ausências para que tokens inválidos não consultem o banco a cada requisição.
+ * Uma sessão invalidada em outro nó pode continuar aceita aqui por até esse TTL.
+ *
+ * Os acessos não são gravados por requisição: ficam acumulados por sessão e vão ao banco em
+ * um único batch a cada app.sessao.jdbc.gravacao-ms, e as sessões expiradas são removidas
+ * em lotes a cada app.sessao.jdbc.limpeza-ms.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessao.modo", havingValue = "jdbc")
+public class JdbcSessionManager implements SessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSessionManager.class);
+
+    private static final long RESOLUCAO_ACESSO_MS = 1000;
+    private static final int LOTE_LIMPEZA = 1000;
+    // Folga da limpeza sobre o timeout, maior que o intervalo de gravação dos acessos
+    private static final long MARGEM_LIMPEZA_MS = 60_000;
+    private static final Entrada AUSENTE = new Entrada(Long.MIN_VALUE);
+
+    private final SessaoJdbcRepository sessaoRepository;
+    private final long timeoutMs;
+    private final LongSupplier relogioMillis;
+    private final Cache<UUID, Entrada> cache;
+    // sessão -> último acesso ainda não gravado; toques repetidos se acumulam em uma entrada
+    private final Map<UUID, Long> acessosPendentes = new ConcurrentHashMap<>();
+    private final Counter acessosGravados;
+
+    @Autowired
+    public JdbcSessionManager(SessaoJdbcRepository sessaoRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.sessao.timeout-minutos:30}") long timeoutMinutos,
+                              @Value("${app.sessao.jdbc.cache-ttl-ms:5000}") long ttlCacheMs,
+                              @Value("${app.sessao.jdbc.cache-tamanho-maximo:100000}") long tamanhoCache) {
+        this(sessaoRepository, meterRegistry, Duration.ofMinutes(timeoutMinutos), Duration.ofMillis(ttlCacheMs),
+                tamanhoCache, System::currentTimeMillis);
+    }
+
+    public JdbcSessionManager(SessaoJdbcRepository sessaoRepository, MeterRegistry meterRegistry,
+                              Duration timeout, Duration ttlCache, long tamanhoCache,
+                              LongSupplier relogioMillis) {
+        this.sessaoRepository = sessaoRepository;
+        this.timeoutMs = timeout.toMillis();
+        this.relogioMillis = relogioMillis;
+        // Ticker do Caffeine a partir do relógio injetado, com origem na criação como o nanoTime
+        long origemMillis = relogioMillis.getAsLong();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoCache)
+                .expireAfterWrite(ttlCache)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(relogioMillis.getAsLong() - origemMillis))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sessao.cache");
+        this.acessosGravados = Counter.builder("sessao.acessos.gravados")
+                .description("Últimos acessos de sessão gravados no banco pelos batches periódicos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String createSession(String userId) {
+        UUID token = UUID.randomUUID();
+        long agora = relogioMillis.getAsLong();
+        sessaoRepository.inserir(token.toString(), userId, agora);
+        cache.put(token, new Entrada(agora));
+        return token.toString();
+    }
+
+    @Override
+    public boolean isValidSession(String token) {
+        UUID chave = InMemorySessionManager.parseToken(token);
+        if (chave == null) {
+            return false;
+        }
+
+        Entrada entrada = cache.get(chave, this::carregar);
+        if (entrada == AUSENTE) {
+            return false;
+        }
+
+        long agora = relogioMillis.getAsLong();
+        long ultimoAcesso = entrada.ultimoAcessoMs;
+        // Verifica se a sessão expirou; a linha sai do banco na próxima limpeza
+        if (agora - ultimoAcesso > timeoutMs) {
+            cache.put(chave, AUSENTE);
+            return false;
+        }
+
+        // Atualiza último acesso
+        if (agora - ultimoAcesso > RESOLUCAO_ACESSO_MS) {
+            entrada.ultimoAcessoMs = agora;
+            acessosPendentes.put(chave, agora);
+        }
+        return true;
+    }
+
+    @Override
+    public void invalidateSession(String token) {
+        UUID chave = InMemorySessionManager.parseToken(token);
+        if (chave == null) {
+            return;
+        }
+        acessosPendentes.remove(chave);
+        sessaoRepository.remover(chave.toString());
+        cache.put(chave, AUSENTE);
+    }
+
+    /**
+     * Grava os acessos acumulados desde a última execução em um único batch.
+     * Em caso de falha, os acessos voltam para a próxima tentativa.
+     */
+    @Scheduled(fixedDelayString = "${app.sessao.jdbc.gravacao-ms:5000}")
+    public void flushPendingAccesses() {
+        if (acessosPendentes.isEmpty()) {
+            return;
+        }
+        Map<UUID, Long> lote = new HashMap<>();
+        for (UUID chave : acessosPendentes.keySet()) {
+            // Um toque que chegue depois da remoção fica para o próximo batch
+            Long acesso = acessosPendentes.remove(chave);
+            if (acesso != null) {
+                lote.put(chave, acesso);
+            }
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> acessos = new HashMap<>(lote.size() * 2);
+        lote.forEach((chave, acesso) -> acessos.put(chave.toString(), acesso));
+        try {
+            sessaoRepository.atualizarUltimosAcessos(acessos);
+            acessosGravados.increment(acessos.size());
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao gravar {} acessos de sessão; nova tentativa no próximo ciclo: {}",
+                    lote.size(), e.getMessage());
+            lote.forEach((chave, acesso) -> acessosPendentes.merge(chave, acesso, Math::max));
+        }
+    }
+
+    /**
+     * Remove do banco, em lotes, as sessões sem acesso há mais que o timeout.
+     * Todos os nós executam a limpeza; as remoções são idempotentes.
+     */
+    @Scheduled(fixedDelayString = "${app.sessao.jdbc.limpeza-ms:60000}")
+    public void cleanupExpiredSessions() {
+        // A folga evita remover sessão cujo último acesso ainda não foi gravado por algum nó
+        long limite = relogioMillis.getAsLong() - timeoutMs - MARGEM_LIMPEZA_MS;
+        try {
+            int removidas;
+            int total = 0;
+            do {
+                removidas = sessaoRepository.removerExpiradas(limite, LOTE_LIMPEZA);
+                total += removidas;
+            } while (removidas == LOTE_LIMPEZA);
+            if (total > 0) {
+                logger.debug("{} sessões expiradas removidas", total);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao remover sessões expiradas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        flushPendingAccesses();
+    }
+
+    private Entrada carregar(UUID chave) {
+        Long ultimoAcesso = sessaoRepository.buscarUltimoAcesso(chave.toString());
+        if (ultimoAcesso == null) {
+            return AUSENTE;
+        }
+        // O banco pode ainda não ter o último toque deste nó
+        Long pendente = acessosPendentes.get(chave);
+        return new Entrada(pendente != null ? Math.max(ultimoAcesso, pendente) : ultimoAcesso);
+    }
+
+    private static final class Entrada {
+
+        private volatile long ultimoAcessoMs;
+
+        private Entrada(long ultimoAcessoMs) {
+            this.ultimoAcessoMs = ultimoAcessoMs;
+        }
+    }
+}
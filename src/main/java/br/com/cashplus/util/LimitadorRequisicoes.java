@@ -0,0 +1,192 @@
+package br.com.cashplus.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limites de requisições por sessão e por endereço do cliente, configurados por rota.
+ *
+ * Cada balde é um único long (o instante teórico de chegada do GCRA, equivalente a um
+ * token bucket) atualizado por CAS: a reposição é calculada na própria requisição, sem
+ * threads de fundo. Os baldes ficam num cache limitado (app.limite.max-chaves) cuja
+ * manutenção roda na thread chamadora; um balde some depois de ocioso o bastante para
+ * ter enchido de novo, então o despejo não altera nenhum limite.
+ *
+ * Regras em app.limite.rotas, separadas por ';' e avaliadas em ordem (vale a primeira que
+ * casar): {@code [MÉTODO ]padrãoAnt=sessão,endereço}, com cada limite em
+ * {@code requisiçõesPorSegundo:rajada}; 0 desativa a dimensão.
+ */
+@Component
+public class LimitadorRequisicoes {
+
+    public enum Dimensao {
+        SESSAO, ENDERECO
+    }
+
+    private final boolean habilitado;
+    private final List<Regra> regras;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final LongSupplier relogioNanos;
+    private final Cache<String, AtomicLong> baldes;
+
+    @Autowired
+    public LimitadorRequisicoes(MeterRegistry meterRegistry,
+                                @Value("${app.limite.enabled:true}") boolean habilitado,
+                                @Value("${app.limite.rotas:}") String rotas,
+                                @Value("${app.limite.max-chaves:100000}") long maxChaves) {
+        this(meterRegistry, habilitado, rotas, maxChaves, System::nanoTime);
+    }
+
+    public LimitadorRequisicoes(MeterRegistry meterRegistry, boolean habilitado, String rotas, long maxChaves,
+                                LongSupplier relogioNanos) {
+        this.habilitado = habilitado;
+        this.relogioNanos = relogioNanos;
+        this.regras = lerRegras(rotas, meterRegistry);
+
+        long maiorReposicao = 1;
+        for (Regra regra : regras) {
+            for (Dimensao dimensao : Dimensao.values()) {
+                int d = dimensao.ordinal();
+                maiorReposicao = Math.max(maiorReposicao, regra.toleranciaNanos[d] + regra.intervaloNanos[d]);
+            }
+        }
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(maxChaves)
+                .expireAfterAccess(Duration.ofNanos(maiorReposicao))
+                .executor(Runnable::run)
+                .ticker(relogioNanos::getAsLong)
+                .build();
+
+        Gauge.builder("limite.requisicoes.baldes", baldes, Cache::estimatedSize)
+                .description("Baldes de limite de requisições em memória")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Regra da primeira rota que casar com a requisição, ou null se ela não é limitada.
+     */
+    public Regra regraPara(String metodo, String caminho) {
+        if (!habilitado) {
+            return null;
+        }
+        for (Regra regra : regras) {
+            if ((regra.metodo == null || regra.metodo.equalsIgnoreCase(metodo))
+                    && matcher.match(regra.padrao, caminho)) {
+                return regra;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Consome uma requisição do balde da chave na dimensão.
+     *
+     * @return 0 se a requisição é permitida, ou os nanos até a próxima ser permitida
+     */
+    public long consumir(Regra regra, Dimensao dimensao, String chave) {
+        int d = dimensao.ordinal();
+        long intervalo = regra.intervaloNanos[d];
+        if (intervalo == 0) {
+            return 0;
+        }
+        long tolerancia = regra.toleranciaNanos[d];
+        AtomicLong chegadaTeorica = baldes.get(regra.indice + ":" + d + ":" + chave,
+                k -> new AtomicLong(Long.MIN_VALUE));
+        long agora = relogioNanos.getAsLong();
+        while (true) {
+            long atual = chegadaTeorica.get();
+            long inicio = Math.max(atual, agora);
+            long espera = inicio - agora - tolerancia;
+            if (espera > 0) {
+                regra.rejeitadas[d].increment();
+                return espera;
+            }
+            if (chegadaTeorica.compareAndSet(atual, inicio + intervalo)) {
+                if (inicio > agora) {
+                    // Acima da taxa sustentada, consumindo a rajada
+                    regra.naRajada[d].increment();
+                }
+                return 0;
+            }
+        }
+    }
+
+    private static List<Regra> lerRegras(String rotas, MeterRegistry meterRegistry) {
+        List<Regra> regras = new ArrayList<>();
+        for (String item : rotas.split(";")) {
+            String definicao = item.trim();
+            if (definicao.isEmpty()) {
+                continue;
+            }
+            int igual = definicao.lastIndexOf('=');
+            String[] limites = igual > 0 ? definicao.substring(igual + 1).split(",") : new String[0];
+            if (limites.length != 2) {
+                throw new IllegalStateException("Regra de limite inválida, use [MÉTODO ]padrão=sessão,endereço: "
+                        + definicao);
+            }
+            String rota = definicao.substring(0, igual).trim();
+            int espaco = rota.indexOf(' ');
+            String metodo = espaco > 0 ? rota.substring(0, espaco) : null;
+            String padrao = rota.substring(espaco + 1).trim();
+            regras.add(new Regra(regras.size(), metodo, padrao, limites, meterRegistry));
+        }
+        return List.copyOf(regras);
+    }
+
+    public static final class Regra {
+
+        private final int indice;
+        private final String metodo;
+        private final String padrao;
+        private final long[] intervaloNanos = new long[Dimensao.values().length];
+        private final long[] toleranciaNanos = new long[Dimensao.values().length];
+        private final Counter[] rejeitadas = new Counter[Dimensao.values().length];
+        private final Counter[] naRajada = new Counter[Dimensao.values().length];
+
+        private Regra(int indice, String metodo, String padrao, String[] limites, MeterRegistry meterRegistry) {
+            this.indice = indice;
+            this.metodo = metodo;
+            this.padrao = padrao;
+            String rota = metodo != null ? metodo + " " + padrao : padrao;
+            for (Dimensao dimensao : Dimensao.values()) {
+                int d = dimensao.ordinal();
+                String[] limite = limites[d].trim().split(":");
+                double taxa = Double.parseDouble(limite[0]);
+                long rajada = limite.length > 1 ? Long.parseLong(limite[1]) : 1;
+                if (taxa > 0) {
+                    intervaloNanos[d] = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / taxa));
+                    toleranciaNanos[d] = intervaloNanos[d] * Math.max(0, rajada - 1);
+                }
+                String tag = dimensao.name().toLowerCase();
+                rejeitadas[d] = Counter.builder("limite.requisicoes.rejeitadas")
+                        .description("Requisições recusadas com 429 por limite de taxa")
+                        .tag("rota", rota)
+                        .tag("dimensao", tag)
+                        .register(meterRegistry);
+                naRajada[d] = Counter.builder("limite.requisicoes.rajada")
+                        .description("Requisições aceitas acima da taxa sustentada, consumindo a rajada")
+                        .tag("rota", rota)
+                        .tag("dimensao", tag)
+                        .register(meterRegistry);
+            }
+        }
+
+        public String getRota() {
+            return metodo != null ? metodo + " " + padrao : padrao;
+        }
+    }
+}
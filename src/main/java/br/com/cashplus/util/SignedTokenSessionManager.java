@@ -0,0 +1,374 @@
+package br.com.cashplus.util;
+
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Sessões sem estado no servidor (app.sessao.modo=assinado): o token carrega o usuário e o
+ * prazo e é assinado com HMAC-SHA256, então qualquer nó atrás do balanceador o valida e um
+ * reinício não derruba as sessões abertas.
+ *
+ * Formato: {@code <idChave>.<payload>.<assinatura>}, com payload e assinatura em base64url
+ * sem padding. O payload tem o prazo (epoch millis), um identificador aleatório da sessão
+ * e o userId em UTF-8; a assinatura cobre {@code <idChave>.<payload>}.
+ *
+ * Rotação de chaves: app.sessao.assinatura.chaves lista as chaves aceitas ({@code id:segredoBase64}
+ * separados por vírgula) e app.sessao.assinatura.chave-ativa indica a que assina os novos tokens.
+ * Para rotacionar, publique a nova chave em todos os nós, torne-a ativa e remova a antiga
+ * depois de um timeout.
+ *
+ * O prazo é fixo a partir da criação (app.sessao.timeout-minutos), sem renovação por acesso.
+ * {@link #invalidateSession(String)} registra o token numa lista de revogação limitada
+ * (app.sessao.assinatura.max-revogados) e local ao nó, descartada conforme os tokens expiram.
+ * Uma revogação nunca é descartada antes do prazo do token, o que o faria voltar a valer:
+ * com a lista cheia de tokens válidos, a invalidação é recusada com
+ * {@link RateLimitExceededException} até o primeiro deles expirar.
+ *
+ * A validação não aloca: base64url decodificado à mão em buffers da thread e um {@link Mac}
+ * por chave e por thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessao.modo", havingValue = "assinado")
+public class SignedTokenSessionManager implements SessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignedTokenSessionManager.class);
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int TAMANHO_ASSINATURA = 32;
+    private static final int TAMANHO_MINIMO_CHAVE = 32;
+    private static final int TAMANHO_MAXIMO_USER_ID = 256;
+    // 8 bytes de prazo + 8 de identificador + userId
+    private static final int TAMANHO_MAXIMO_PAYLOAD = 16 + TAMANHO_MAXIMO_USER_ID;
+    private static final int TAMANHO_MAXIMO_TOKEN = 512;
+
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alfabeto = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alfabeto.length(); i++) {
+            BASE64URL[alfabeto.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final ChaveAssinatura[] chaves;
+    private final ChaveAssinatura chaveAtiva;
+    private final long validadeMillis;
+    private final int maxRevogados;
+    private final LongSupplier relogioMillis;
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Base64.Encoder codificador = Base64.getUrlEncoder().withoutPadding();
+
+    // identificador da sessão -> prazo do token revogado
+    private final Map<Long, Long> revogados = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    private final Counter revogacoesRecusadas;
+
+    @Autowired
+    public SignedTokenSessionManager(MeterRegistry meterRegistry,
+                                     @Value("${app.sessao.assinatura.chaves:}") String chaves,
+                                     @Value("${app.sessao.assinatura.chave-ativa:}") String chaveAtiva,
+                                     @Value("${app.sessao.timeout-minutos:30}") long timeoutMinutos,
+                                     @Value("${app.sessao.assinatura.max-revogados:10000}") int maxRevogados) {
+        this(meterRegistry, lerChaves(chaves), chaveAtiva, Duration.ofMinutes(timeoutMinutos), maxRevogados,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param chaves     segredos por id, na ordem de configuração
+     * @param chaveAtiva id da chave que assina os novos tokens; vazio = a primeira
+     */
+    public SignedTokenSessionManager(MeterRegistry meterRegistry, Map<String, byte[]> chaves, String chaveAtiva,
+                                     Duration validade, int maxRevogados, LongSupplier relogioMillis) {
+        if (chaves.isEmpty()) {
+            throw new IllegalStateException(
+                    "app.sessao.modo=assinado exige ao menos uma chave em app.sessao.assinatura.chaves");
+        }
+        this.chaves = new ChaveAssinatura[chaves.size()];
+        boolean primeiraAtiva = chaveAtiva == null || chaveAtiva.isEmpty();
+        int i = 0;
+        ChaveAssinatura ativa = null;
+        for (Map.Entry<String, byte[]> chave : chaves.entrySet()) {
+            this.chaves[i] = new ChaveAssinatura(chave.getKey(), chave.getValue());
+            if (primeiraAtiva ? ativa == null : chave.getKey().equals(chaveAtiva)) {
+                ativa = this.chaves[i];
+            }
+            i++;
+        }
+        if (ativa == null) {
+            throw new IllegalStateException("Chave ativa de sessão não configurada: " + chaveAtiva);
+        }
+        this.chaveAtiva = ativa;
+        this.validadeMillis = validade.toMillis();
+        this.maxRevogados = maxRevogados;
+        this.relogioMillis = relogioMillis;
+
+        this.revogacoesRecusadas = Counter.builder("sessao.revogacoes.recusadas")
+                .description("Invalidações de token recusadas com a lista de revogação cheia de tokens válidos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String createSession(String userId) {
+        byte[] usuario = userId.getBytes(StandardCharsets.UTF_8);
+        if (usuario.length > TAMANHO_MAXIMO_USER_ID) {
+            throw new BusinessException("userId deve ter no máximo " + TAMANHO_MAXIMO_USER_ID + " bytes");
+        }
+        byte[] payload = new byte[16 + usuario.length];
+        escreverLong(payload, 0, relogioMillis.getAsLong() + validadeMillis);
+        escreverLong(payload, 8, aleatorio.nextLong());
+        System.arraycopy(usuario, 0, payload, 16, usuario.length);
+
+        String assinado = chaveAtiva.id + "." + codificador.encodeToString(payload);
+        Mac mac = chaveAtiva.mac.get();
+        byte[] assinatura = mac.doFinal(assinado.getBytes(StandardCharsets.US_ASCII));
+        return assinado + "." + codificador.encodeToString(assinatura);
+    }
+
+    @Override
+    public boolean isValidSession(String token) {
+        Buffers b = verificar(token);
+        if (b == null) {
+            return false;
+        }
+        long prazo = lerLong(b.payload, 0);
+        if (relogioMillis.getAsLong() > prazo) {
+            return false;
+        }
+        return revogados.isEmpty() || !revogados.containsKey(lerLong(b.payload, 8));
+    }
+
+    /**
+     * @throws RateLimitExceededException se a lista de revogação está cheia de tokens ainda válidos
+     */
+    @Override
+    public void invalidateSession(String token) {
+        // Só tokens autênticos e ainda válidos ocupam a lista de revogação
+        Buffers b = verificar(token);
+        if (b == null) {
+            return;
+        }
+        long prazo = lerLong(b.payload, 0);
+        long identificador = lerLong(b.payload, 8);
+        long agora = relogioMillis.getAsLong();
+        if (agora > prazo || revogados.containsKey(identificador)) {
+            return;
+        }
+        if (revogados.size() >= maxRevogados) {
+            removerRevogacoesExpiradas(agora);
+            if (revogados.size() >= maxRevogados) {
+                throw revogacaoRecusada(agora);
+            }
+        }
+        revogados.put(identificador, prazo);
+    }
+
+    public int getRevokedCount() {
+        return revogados.size();
+    }
+
+    /**
+     * Remove da lista de revogação os tokens que já expiraram por conta própria.
+     */
+    @Scheduled(fixedRateString = "${app.sessao.tick-ms:5000}")
+    public void cleanupExpiredSessions() {
+        removerRevogacoesExpiradas(relogioMillis.getAsLong());
+    }
+
+    private void removerRevogacoesExpiradas(long agora) {
+        revogados.values().removeIf(prazo -> prazo < agora);
+    }
+
+    // Lista cheia de tokens ainda válidos: a vaga abre quando o primeiro deles expira
+    private RateLimitExceededException revogacaoRecusada(long agora) {
+        long proximoPrazo = Long.MAX_VALUE;
+        for (long prazo : revogados.values()) {
+            proximoPrazo = Math.min(proximoPrazo, prazo);
+        }
+        long esperaSegundos = proximoPrazo == Long.MAX_VALUE
+                ? 1 : Math.max(1, (proximoPrazo - agora + 999) / 1000);
+        revogacoesRecusadas.increment();
+        logger.warn("Lista de revogação de sessões cheia ({} tokens válidos); invalidação recusada. "
+                + "Aumente app.sessao.assinatura.max-revogados", revogados.size());
+        return new RateLimitExceededException(
+                "Limite de sessões revogadas atingido; tente novamente em " + esperaSegundos + " s",
+                esperaSegundos);
+    }
+
+    /**
+     * Confere formato, chave e assinatura; retorna os buffers da thread com o payload
+     * decodificado, ou null se o token não for autêntico.
+     */
+    private Buffers verificar(String token) {
+        if (token == null || token.length() > TAMANHO_MAXIMO_TOKEN) {
+            return null;
+        }
+        ChaveAssinatura chave = chaveDoToken(token);
+        if (chave == null) {
+            return null;
+        }
+        int inicioPayload = chave.id.length() + 1;
+        int fimPayload = token.indexOf('.', inicioPayload);
+        if (fimPayload < 0) {
+            return null;
+        }
+
+        Buffers b = buffers.get();
+        if (decodificar(token, inicioPayload, fimPayload, b.payload) < 16) {
+            return null;
+        }
+        if (decodificar(token, fimPayload + 1, token.length(), b.assinatura) != TAMANHO_ASSINATURA) {
+            return null;
+        }
+
+        // O trecho assinado é ASCII: já validado pelo id da chave e pela decodificação do payload
+        for (int i = 0; i < fimPayload; i++) {
+            b.assinado[i] = (byte) token.charAt(i);
+        }
+        Mac mac = chave.mac.get();
+        mac.update(b.assinado, 0, fimPayload);
+        try {
+            mac.doFinal(b.esperada, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao calcular a assinatura da sessão", e);
+        }
+        return MessageDigest.isEqual(b.esperada, b.assinatura) ? b : null;
+    }
+
+    private ChaveAssinatura chaveDoToken(String token) {
+        for (ChaveAssinatura chave : chaves) {
+            int tamanho = chave.id.length();
+            if (token.length() > tamanho && token.charAt(tamanho) == '.'
+                    && token.regionMatches(0, chave.id, 0, tamanho)) {
+                return chave;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodifica base64url sem padding de token[inicio, fim) em destino; retorna o número
+     * de bytes, ou -1 se houver caractere inválido ou o resultado não couber.
+     */
+    private static int decodificar(String token, int inicio, int fim, byte[] destino) {
+        int caracteres = fim - inicio;
+        if (caracteres % 4 == 1) {
+            return -1;
+        }
+        int tamanho = caracteres / 4 * 3 + Math.max(0, caracteres % 4 - 1);
+        if (tamanho > destino.length) {
+            return -1;
+        }
+        int acumulado = 0;
+        int bits = 0;
+        int escrito = 0;
+        for (int i = inicio; i < fim; i++) {
+            char c = token.charAt(i);
+            int valor = c < 128 ? BASE64URL[c] : -1;
+            if (valor < 0) {
+                return -1;
+            }
+            acumulado = (acumulado << 6) | valor;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                destino[escrito++] = (byte) (acumulado >> bits);
+            }
+        }
+        return escrito;
+    }
+
+    private static void escreverLong(byte[] destino, int posicao, long valor) {
+        for (int i = 7; i >= 0; i--) {
+            destino[posicao + i] = (byte) valor;
+            valor >>>= 8;
+        }
+    }
+
+    private static long lerLong(byte[] origem, int posicao) {
+        long valor = 0;
+        for (int i = 0; i < 8; i++) {
+            valor = (valor << 8) | (origem[posicao + i] & 0xFF);
+        }
+        return valor;
+    }
+
+    static Map<String, byte[]> lerChaves(String configuracao) {
+        Map<String, byte[]> chaves = new LinkedHashMap<>();
+        for (String item : configuracao.split(",")) {
+            String chave = item.trim();
+            if (chave.isEmpty()) {
+                continue;
+            }
+            int separador = chave.indexOf(':');
+            if (separador <= 0) {
+                throw new IllegalStateException("Chave de sessão inválida, use id:segredoBase64");
+            }
+            chaves.put(chave.substring(0, separador), Base64.getDecoder().decode(chave.substring(separador + 1)));
+        }
+        return chaves;
+    }
+
+    private static final class ChaveAssinatura {
+
+        private final String id;
+        private final ThreadLocal<Mac> mac;
+
+        private ChaveAssinatura(String id, byte[] segredo) {
+            for (int i = 0; i < id.length(); i++) {
+                char c = id.charAt(i);
+                if (c >= 128 || BASE64URL[c] < 0) {
+                    throw new IllegalStateException("Id de chave de sessão deve usar apenas [A-Za-z0-9_-]: " + id);
+                }
+            }
+            if (id.isEmpty() || segredo.length < TAMANHO_MINIMO_CHAVE) {
+                throw new IllegalStateException(
+                        "Chave de sessão '" + id + "' deve ter ao menos " + TAMANHO_MINIMO_CHAVE + " bytes");
+            }
+            SecretKeySpec especificacao = new SecretKeySpec(segredo, ALGORITMO);
+            this.id = id;
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instancia = Mac.getInstance(ALGORITMO);
+                    instancia.init(especificacao);
+                    return instancia;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HMAC-SHA256 indisponível", e);
+                }
+            });
+        }
+    }
+
+    private static final class Buffers {
+
+        private final byte[] assinado = new byte[TAMANHO_MAXIMO_TOKEN];
+        private final byte[] payload = new byte[TAMANHO_MAXIMO_PAYLOAD];
+        private final byte[] assinatura = new byte[TAMANHO_ASSINATURA];
+        private final byte[] esperada = new byte[TAMANHO_ASSINATURA];
+    }
+}
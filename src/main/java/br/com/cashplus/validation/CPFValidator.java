@@ -3,6 +3,9 @@ package br.com.cashplus.validation;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+/**
+ * Usa a mesma validação do value object {@link br.com.cashplus.model.valueobject.CPF}.
+ */
 public class CPFValidator implements ConstraintValidator<CPF, String> {
     
     @Override
@@ -15,55 +18,6 @@ public class CPFValidator implements ConstraintValidator<CPF, String> {
             return true; // @NotBlank já valida isso
         }
         
-        // Remove caracteres não numéricos
-        cpf = cpf.replaceAll("[^0-9]", "");
-        
-        // Verifica se tem 11 dígitos
-        if (cpf.length() != 11) {
-            return false;
-        }
-        
-        // Verifica se todos os dígitos são iguais
-        if (cpf.matches("(\\d)\\1{10}")) {
-            return false;
-        }
-        
-        // Validação dos dígitos verificadores
-        try {
-            int[] digits = new int[11];
-            for (int i = 0; i < 11; i++) {
-                digits[i] = Integer.parseInt(cpf.substring(i, i + 1));
-            }
-            
-            // Calcula primeiro dígito verificador
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += digits[i] * (10 - i);
-            }
-            int firstDigit = 11 - (sum % 11);
-            if (firstDigit >= 10) {
-                firstDigit = 0;
-            }
-            
-            if (firstDigit != digits[9]) {
-                return false;
-            }
-            
-            // Calcula segundo dígito verificador
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += digits[i] * (11 - i);
-            }
-            int secondDigit = 11 - (sum % 11);
-            if (secondDigit >= 10) {
-                secondDigit = 0;
-            }
-            
-            return secondDigit == digits[10];
-            
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return br.com.cashplus.model.valueobject.CPF.isValid(cpf);
     }
 }
-
@@ -0,0 +1,4 @@
+-- V3__Add_Keyset_Index_Transacoes.sql
+-- Índice composto para a paginação por cursor (data_transacao DESC, id DESC)
+
+CREATE INDEX idx_transacoes_data_id ON transacoes (data_transacao, id);
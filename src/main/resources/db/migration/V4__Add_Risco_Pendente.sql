@@ -0,0 +1,10 @@
+-- V4__Add_Risco_Pendente.sql
+-- Permite gravar a transação antes da avaliação de risco (risco_fraude = 'PENDENTE')
+
+ALTER TABLE transacoes DROP CHECK chk_risco_fraude;
+
+ALTER TABLE transacoes ADD CONSTRAINT chk_risco_fraude
+    CHECK (risco_fraude IS NULL OR risco_fraude IN ('BAIXO', 'MEDIO', 'ALTO', 'PENDENTE'));
+
+-- Localiza rapidamente as transações pendentes na recuperação após reinício
+CREATE INDEX idx_transacoes_risco_fraude ON transacoes (risco_fraude);
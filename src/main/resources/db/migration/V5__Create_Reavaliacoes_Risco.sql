@@ -0,0 +1,15 @@
+-- V5__Create_Reavaliacoes_Risco.sql
+-- Execuções da reavaliação em massa do risco de fraude, com checkpoint para retomada
+
+CREATE TABLE reavaliacoes_risco (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    id_maximo BIGINT NOT NULL,
+    checkpoint_id BIGINT NOT NULL DEFAULT 0,
+    processadas BIGINT NOT NULL DEFAULT 0,
+    alteradas BIGINT NOT NULL DEFAULT 0,
+    iniciada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    atualizada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    concluida_em TIMESTAMP NULL,
+    CONSTRAINT chk_status_reavaliacao CHECK (status IN ('EXECUTANDO', 'INTERROMPIDA', 'CONCLUIDA', 'FALHOU'))
+);
@@ -0,0 +1,10 @@
+-- V6__Create_Sessoes.sql
+-- Sessões compartilhadas entre os nós da API (app.sessao.modo=jdbc)
+
+CREATE TABLE sessoes (
+    token CHAR(36) PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL,
+    ultimo_acesso_ms BIGINT NOT NULL,
+    criada_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_sessoes_ultimo_acesso (ultimo_acesso_ms)
+);
@@ -0,0 +1,4 @@
+-- V7__Cpf_Bigint_Operadores.sql
+-- CPF guardado como número (11 dígitos, zeros à esquerda implícitos); o índice único é mantido
+
+ALTER TABLE operadores MODIFY cpf BIGINT NOT NULL;
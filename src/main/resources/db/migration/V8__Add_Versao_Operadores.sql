@@ -0,0 +1,4 @@
+-- V8__Add_Versao_Operadores.sql
+-- Versão para controle otimista de concorrência nas atualizações de operadores
+
+ALTER TABLE operadores ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
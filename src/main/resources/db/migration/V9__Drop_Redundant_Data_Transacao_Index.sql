@@ -0,0 +1,5 @@
+-- V9__Drop_Redundant_Data_Transacao_Index.sql
+-- No InnoDB todo índice secundário já carrega a chave primária, então idx_data_transacao
+-- e idx_transacoes_data_id (V3) têm as mesmas chaves; mantém-se apenas o da paginação
+
+DROP INDEX idx_data_transacao ON transacoes;
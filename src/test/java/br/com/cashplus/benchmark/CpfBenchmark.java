@@ -0,0 +1,156 @@
+package br.com.cashplus.benchmark;
+
+import br.com.cashplus.model.valueobject.CPF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a validação e a formatação de CPF anteriores (regex, substring e Integer.parseInt)
+ * com as atuais de {@link CPF}, sobre CPFs formatados e sem formatação.
+ * 
+ * Execução: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=br.com.cashplus.benchmark.CpfBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfBenchmark {
+
+    private static final int CPFS = 1024;
+    
+    private String[] entradas;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        entradas = new String[CPFS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < CPFS; i++) {
+            String valor = gerarCpf(random);
+            entradas[i] = i % 2 == 0 ? valor : CpfAnterior.formatar(valor);
+        }
+    }
+    
+    private String entrada() {
+        return entradas[ThreadLocalRandom.current().nextInt(CPFS)];
+    }
+    
+    @Benchmark
+    public boolean validacaoAnterior() {
+        return CpfAnterior.isValid(entrada().replaceAll("[^0-9]", ""));
+    }
+    
+    @Benchmark
+    public boolean validacaoAtual() {
+        return CPF.isValid(entrada());
+    }
+    
+    @Benchmark
+    public String criarEFormatarAnterior() {
+        return CpfAnterior.formatar(CpfAnterior.of(entrada()));
+    }
+    
+    @Benchmark
+    public String criarEFormatarAtual() {
+        return CPF.of(entrada()).getFormatado();
+    }
+    
+    private static String gerarCpf(ThreadLocalRandom random) {
+        int[] digitos = new int[11];
+        do {
+            for (int i = 0; i < 9; i++) {
+                digitos[i] = random.nextInt(10);
+            }
+        } while (digitos[0] == digitos[1] && digitos[1] == digitos[2]);
+        for (int verificador = 9; verificador < 11; verificador++) {
+            int soma = 0;
+            for (int i = 0; i < verificador; i++) {
+                soma += digitos[i] * (verificador + 1 - i);
+            }
+            int digito = 11 - (soma % 11);
+            digitos[verificador] = digito >= 10 ? 0 : digito;
+        }
+        StringBuilder valor = new StringBuilder(11);
+        for (int digito : digitos) {
+            valor.append(digito);
+        }
+        return valor.toString();
+    }
+    
+    // Cópia da implementação anterior de CPF.of/isValid/getFormatado (igual à do CPFValidator)
+    private static class CpfAnterior {
+        
+        static String of(String cpf) {
+            String cpfLimpo = cpf.replaceAll("[^0-9]", "");
+            if (!isValid(cpfLimpo)) {
+                throw new IllegalArgumentException("CPF inválido: " + cpf);
+            }
+            return cpfLimpo;
+        }
+        
+        static boolean isValid(String cpf) {
+            if (cpf == null || cpf.length() != 11) {
+                return false;
+            }
+            if (cpf.matches("(\\d)\\1{10}")) {
+                return false;
+            }
+            int[] digits = new int[11];
+            for (int i = 0; i < 11; i++) {
+                digits[i] = Integer.parseInt(cpf.substring(i, i + 1));
+            }
+            int sum = 0;
+            for (int i = 0; i < 9; i++) {
+                sum += digits[i] * (10 - i);
+            }
+            int firstDigit = 11 - (sum % 11);
+            if (firstDigit >= 10) {
+                firstDigit = 0;
+            }
+            if (firstDigit != digits[9]) {
+                return false;
+            }
+            sum = 0;
+            for (int i = 0; i < 10; i++) {
+                sum += digits[i] * (11 - i);
+            }
+            int secondDigit = 11 - (sum % 11);
+            if (secondDigit >= 10) {
+                secondDigit = 0;
+            }
+            return secondDigit == digits[10];
+        }
+        
+        static String formatar(String valor) {
+            return valor.substring(0, 3) + "." +
+                   valor.substring(3, 6) + "." +
+                   valor.substring(6, 9) + "-" +
+                   valor.substring(9, 11);
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opcoes = new OptionsBuilder()
+                .include(CpfBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opcoes).run();
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.cashplus.benchmark;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import br.com.cashplus.service.risco.ArquivoRegrasRisco;
+import br.com.cashplus.service.risco.ContextoRisco;
+import br.com.cashplus.service.risco.RegrasRiscoCompiladas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o cálculo local de risco anterior (BigDecimal alocado a cada chamada)
+ * com a tabela compilada de {@link RegrasRiscoCompiladas}.
+ * 
+ * Execução: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=br.com.cashplus.benchmark.MotorRegrasRiscoBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotorRegrasRiscoBenchmark {
+
+    private static final int AMOSTRAS = 1024;
+    
+    private RegrasRiscoCompiladas regras;
+    private BigDecimal[] valores;
+    private long[] centavos;
+    private TipoPagamentoEnum[] tipos;
+    private TurnoEnum[] turnos;
+    private int indice;
+    
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream entrada = getClass().getResourceAsStream("/regras-risco-fraude.json")) {
+            regras = RegrasRiscoCompiladas.compilar(
+                    new ObjectMapper().readValue(entrada, ArquivoRegrasRisco.class), "benchmark");
+        }
+        
+        valores = new BigDecimal[AMOSTRAS];
+        centavos = new long[AMOSTRAS];
+        tipos = new TipoPagamentoEnum[AMOSTRAS];
+        turnos = new TurnoEnum[AMOSTRAS];
+        TipoPagamentoEnum[] todosTipos = TipoPagamentoEnum.values();
+        TurnoEnum[] todosTurnos = TurnoEnum.values();
+        for (int i = 0; i < AMOSTRAS; i++) {
+            valores[i] = BigDecimal.valueOf((i * 7919L) % 100_000, 2);
+            centavos[i] = ContextoRisco.paraCentavos(valores[i]);
+            tipos[i] = todosTipos[i % todosTipos.length];
+            turnos[i] = todosTurnos[i % todosTurnos.length];
+        }
+    }
+    
+    private int proximo() {
+        indice = (indice + 1) & (AMOSTRAS - 1);
+        return indice;
+    }
+    
+    @Benchmark
+    public RiscoFraudeEnum calculoAnterior() {
+        int i = proximo();
+        return calcularRiscoFraudeLocalAnterior(valores[i], tipos[i]);
+    }
+    
+    @Benchmark
+    public RiscoFraudeEnum tabelaCompilada() {
+        int i = proximo();
+        return regras.avaliar(centavos[i], tipos[i], turnos[i], i % 24);
+    }
+    
+    @Benchmark
+    public RiscoFraudeEnum tabelaCompiladaComConversao() {
+        int i = proximo();
+        return regras.avaliar(ContextoRisco.paraCentavos(valores[i]), tipos[i], turnos[i], i % 24);
+    }
+    
+    // Cópia da implementação anterior de RiscoFraudeService.calcularRiscoFraudeLocal
+    private static RiscoFraudeEnum calcularRiscoFraudeLocalAnterior(BigDecimal valor,
+                                                                    TipoPagamentoEnum tipoPagamento) {
+        if (tipoPagamento == null) {
+            return RiscoFraudeEnum.MEDIO;
+        }
+        if (tipoPagamento == TipoPagamentoEnum.DINHEIRO || tipoPagamento == TipoPagamentoEnum.PIX) {
+            return RiscoFraudeEnum.BAIXO;
+        }
+        if (tipoPagamento == TipoPagamentoEnum.CARTAO) {
+            BigDecimal cem = new BigDecimal("100");
+            BigDecimal quinhentos = new BigDecimal("500");
+            if (valor.compareTo(cem) < 0) {
+                return RiscoFraudeEnum.BAIXO;
+            } else if (valor.compareTo(quinhentos) <= 0) {
+                return RiscoFraudeEnum.MEDIO;
+            } else {
+                return RiscoFraudeEnum.ALTO;
+            }
+        }
+        return RiscoFraudeEnum.MEDIO;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opcoes = new OptionsBuilder()
+                .include(MotorRegrasRiscoBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opcoes).run();
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.cashplus.benchmark;
+
+import br.com.cashplus.util.InMemorySessionManager;
+import br.com.cashplus.util.SignedTokenSessionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a validação de sessão anterior (chave String, LocalDateTime gravado a cada acesso)
+ * com a atual de {@link InMemorySessionManager} e com os tokens assinados de
+ * {@link SignedTokenSessionManager}, com várias threads validando os mesmos tokens.
+ * 
+ * Execução: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=br.com.cashplus.benchmark.SessionManagerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SessionManagerBenchmark {
+
+    private static final int SESSOES = 16 * 1024;
+    
+    private InMemorySessionManager atual;
+    private SessionManagerAnterior anterior;
+    private SignedTokenSessionManager assinado;
+    private String[] tokensAtual;
+    private String[] tokensAnterior;
+    private String[] tokensAssinados;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        atual = new InMemorySessionManager(Duration.ofMinutes(30), Duration.ofSeconds(5), System::nanoTime);
+        anterior = new SessionManagerAnterior();
+        assinado = new SignedTokenSessionManager(new SimpleMeterRegistry(), Map.of("k1", new byte[32]), "k1",
+                Duration.ofMinutes(30), 1000, System::currentTimeMillis);
+        tokensAtual = new String[SESSOES];
+        tokensAnterior = new String[SESSOES];
+        tokensAssinados = new String[SESSOES];
+        for (int i = 0; i < SESSOES; i++) {
+            // Cópias novas: a busca não se beneficia do hash já calculado na String criada pela sessão
+            tokensAtual[i] = new String(atual.createSession("operador-" + i).toCharArray());
+            tokensAnterior[i] = new String(anterior.createSession("operador-" + i).toCharArray());
+            tokensAssinados[i] = assinado.createSession("operador-" + i);
+        }
+    }
+    
+    @Benchmark
+    public boolean validacaoAnterior() {
+        return anterior.isValidSession(tokensAnterior[ThreadLocalRandom.current().nextInt(SESSOES)]);
+    }
+    
+    @Benchmark
+    public boolean validacaoAtual() {
+        return atual.isValidSession(tokensAtual[ThreadLocalRandom.current().nextInt(SESSOES)]);
+    }
+    
+    @Benchmark
+    public boolean validacaoAssinada() {
+        return assinado.isValidSession(tokensAssinados[ThreadLocalRandom.current().nextInt(SESSOES)]);
+    }
+    
+    // Cópia da implementação anterior de SessionManager
+    private static class SessionManagerAnterior {
+        
+        private static final long SESSION_TIMEOUT_MINUTES = 30;
+        
+        private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
+        
+        String createSession(String userId) {
+            String token = UUID.randomUUID().toString();
+            sessions.put(token, new SessionInfo(userId, LocalDateTime.now()));
+            return token;
+        }
+        
+        boolean isValidSession(String token) {
+            if (token == null || token.isEmpty()) {
+                return false;
+            }
+            SessionInfo sessionInfo = sessions.get(token);
+            if (sessionInfo == null) {
+                return false;
+            }
+            if (sessionInfo.lastAccess.plusMinutes(SESSION_TIMEOUT_MINUTES).isBefore(LocalDateTime.now())) {
+                sessions.remove(token);
+                return false;
+            }
+            sessionInfo.lastAccess = LocalDateTime.now();
+            return true;
+        }
+        
+        private static class SessionInfo {
+            private final String userId;
+            private LocalDateTime lastAccess;
+            
+            SessionInfo(String userId, LocalDateTime lastAccess) {
+                this.userId = userId;
+                this.lastAccess = lastAccess;
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opcoes = new OptionsBuilder()
+                .include(SessionManagerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opcoes).run();
+    }
+}
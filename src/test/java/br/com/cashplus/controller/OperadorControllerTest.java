@@ -1,10 +1,18 @@
 package br.com.cashplus.controller;
 
 import br.com.cashplus.dto.request.OperadorRequestDTO;
+import br.com.cashplus.dto.response.OperadorImportacaoErroResponseDTO;
+import br.com.cashplus.dto.response.OperadorImportacaoResponseDTO;
 import br.com.cashplus.dto.response.OperadorResponseDTO;
 import br.com.cashplus.model.enums.TurnoEnum;
+import br.com.cashplus.service.OperadorImportacaoService;
 import br.com.cashplus.service.OperadorService;
+import br.com.cashplus.util.LimitadorRequisicoes;
+import br.com.cashplus.util.LimitadorRequisicoes.Dimensao;
+import br.com.cashplus.util.LimitadorRequisicoes.Regra;
+import br.com.cashplus.util.SessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +21,18 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,17 +51,32 @@ class OperadorControllerTest {
     @MockBean
     private OperadorService operadorService;
 
+    @MockBean
+    private OperadorImportacaoService operadorImportacaoService;
+
+    @MockBean
+    private SessionManager sessionManager;
+
+    @MockBean
+    private LimitadorRequisicoes limitador;
+
+    @BeforeEach
+    void setUp() {
+        when(sessionManager.isValidSession("token-teste")).thenReturn(true);
+    }
+
     @Test
     @DisplayName("POST /api/operadores - Deve criar um operador e retornar 201 Created")
     void criarOperador_DeveRetornar201_QuandoSucesso() throws Exception {
         // Arrange
-        OperadorRequestDTO requestDTO = new OperadorRequestDTO("Maria Teste", "987.654.321-00", TurnoEnum.TARDE);
-        OperadorResponseDTO responseDTO = new OperadorResponseDTO(1L, "Maria Teste", "987.654.321-00", TurnoEnum.TARDE, "Tarde");
+        OperadorRequestDTO requestDTO = new OperadorRequestDTO("Maria Teste", "987.654.321-00", TurnoEnum.TARDE, null);
+        OperadorResponseDTO responseDTO = new OperadorResponseDTO(1L, "Maria Teste", "987.654.321-00", TurnoEnum.TARDE, "Tarde", 0L);
 
         when(operadorService.criar(any(OperadorRequestDTO.class))).thenReturn(responseDTO);
 
         // Act & Assert
         mockMvc.perform(post("/api/operadores")
+                        .header("X-Session-Token", "token-teste")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDTO)))
                 .andExpect(status().isCreated())
@@ -56,14 +88,55 @@ class OperadorControllerTest {
     @DisplayName("POST /api/operadores - Deve retornar 400 Bad Request quando o nome for inválido")
     void criarOperador_DeveRetornar400_QuandoNomeInvalido() throws Exception {
         // Arrange
-        OperadorRequestDTO requestDTO = new OperadorRequestDTO("Ma", "987.654.321-00", TurnoEnum.TARDE); // Nome muito curto
+        OperadorRequestDTO requestDTO = new OperadorRequestDTO("Ma", "987.654.321-00", TurnoEnum.TARDE, null); // Nome muito curto
 
         // Act & Assert
         mockMvc.perform(post("/api/operadores")
+                        .header("X-Session-Token", "token-teste")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDTO)))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.messages[0]").exists());
     }
+
+    @Test
+    @DisplayName("POST /api/operadores - Deve retornar 429 com Retry-After quando o limite for excedido")
+    void criarOperador_DeveRetornar429_QuandoLimiteExcedido() throws Exception {
+        // Arrange
+        Regra regra = mock(Regra.class);
+        when(regra.getRota()).thenReturn("/api/**");
+        when(limitador.regraPara("POST", "/api/operadores")).thenReturn(regra);
+        when(limitador.consumir(regra, Dimensao.ENDERECO, "127.0.0.1")).thenReturn(1_500_000_000L);
+        OperadorRequestDTO requestDTO = new OperadorRequestDTO("Maria Teste", "987.654.321-00", TurnoEnum.TARDE, null);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/operadores")
+                        .header("X-Session-Token", "token-teste")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(429));
+        verify(operadorService, never()).criar(any(OperadorRequestDTO.class));
+        verify(sessionManager, never()).isValidSession(anyString());
+    }
+
+    @Test
+    @DisplayName("POST /api/operadores/importacao - Deve importar CSV e retornar o relatório de erros")
+    void importar_DeveRetornarRelatorio_QuandoCsv() throws Exception {
+        // Arrange
+        OperadorImportacaoResponseDTO relatorio = new OperadorImportacaoResponseDTO(2, 1, 1,
+                List.of(new OperadorImportacaoErroResponseDTO(3, "cpf: CPF inválido")), 0);
+        when(operadorImportacaoService.importar(any(InputStream.class), eq(true))).thenReturn(relatorio);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/operadores/importacao")
+                        .header("X-Session-Token", "token-teste")
+                        .contentType("text/csv")
+                        .content("nome,cpf,turno\nMaria Teste,987.654.321-00,TARDE\nJosé,123,MANHA\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(3));
+    }
 }
@@ -0,0 +1,47 @@
+package br.com.cashplus.model.valueobject;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CPFTest {
+
+    @Test
+    @DisplayName("Deve aceitar CPF com ou sem formatação e preservar os zeros à esquerda")
+    void of_DeveAceitarCpfValido() {
+        // Act
+        CPF cpf = CPF.of("987.654.321-00");
+        CPF comZeros = CPF.of("00000000191");
+
+        // Assert
+        assertEquals("98765432100", cpf.getValor());
+        assertEquals("987.654.321-00", cpf.getFormatado());
+        assertEquals(98765432100L, cpf.getNumero());
+        assertEquals(cpf, CPF.of("98765432100"));
+        assertEquals("00000000191", comZeros.getValor());
+        assertEquals("000.000.001-91", comZeros.toString());
+    }
+
+    @Test
+    @DisplayName("Deve recusar CPF com dígitos repetidos, verificador errado ou tamanho diferente de 11")
+    void isValid_DeveRecusarCpfInvalido() {
+        assertFalse(CPF.isValid("111.111.111-11"));
+        assertFalse(CPF.isValid("987.654.321-01"));
+        assertFalse(CPF.isValid("9876543210"));
+        assertFalse(CPF.isValid("987654321000"));
+        assertFalse(CPF.isValid("abc"));
+        assertFalse(CPF.isValid(null));
+        assertThrows(IllegalArgumentException.class, () -> CPF.of("987.654.321-01"));
+        assertThrows(IllegalArgumentException.class, () -> CPF.of(""));
+    }
+
+    @Test
+    @DisplayName("Deve criar CPF a partir do número gravado no banco sem revalidar")
+    void deNumero_DeveCriarCpfDoBanco() {
+        assertEquals(CPF.of("000.000.001-91"), CPF.deNumero(191L));
+        assertEquals("000.000.001-91", CPF.deNumero(191L).getFormatado());
+        assertThrows(IllegalArgumentException.class, () -> CPF.deNumero(100_000_000_000L));
+        assertThrows(IllegalArgumentException.class, () -> CPF.deNumero(-1));
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.repository.TransacaoJdbcRepository;
+import br.com.cashplus.repository.TransacaoRepository;
+import br.com.cashplus.service.risco.ContextoRisco;
+import br.com.cashplus.service.risco.SinaisOperador;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvaliacaoRiscoPendenteServiceTest {
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private TransacaoJdbcRepository transacaoJdbcRepository;
+
+    @Mock
+    private RiscoFraudeService riscoFraudeService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AvaliacaoRiscoPendenteService avaliacaoService;
+
+    private AvaliacaoRiscoPendenteService criarServico(int capacidadeFila) {
+        avaliacaoService = new AvaliacaoRiscoPendenteService(transacaoRepository, transacaoJdbcRepository,
+                riscoFraudeService, meterRegistry, true, 1, capacidadeFila, 10, 4, 200);
+        return avaliacaoService;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (avaliacaoService != null) {
+            avaliacaoService.parar();
+        }
+    }
+
+    private static Transacao transacao(long id, String valor, RiscoFraudeEnum risco) {
+        return new Transacao(id, new BigDecimal(valor), TipoPagamentoEnum.CARTAO, risco, null,
+                LocalDateTime.now().minusSeconds(1));
+    }
+
+    private long consultasRemotas() {
+        return mockingDetails(riscoFraudeService).getInvocations().stream()
+                .filter(invocacao -> invocacao.getMethod().getName().equals("consultarRiscoAsync"))
+                .count();
+    }
+
+    private double tamanhoFila() {
+        return meterRegistry.get("risco.fraude.pendentes.fila").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Deve avaliar as pendentes enfileiradas e reenfileirar a que não responder no prazo sem registrá-la de novo")
+    void enfileirar_DeveAvaliarEGravarRiscos() throws InterruptedException {
+        // Arrange: a 3 já foi avaliada por outro caminho; a 2 nunca responde
+        criarServico(100);
+        List<Transacao> gravadas = List.of(
+                transacao(1, "100.00", RiscoFraudeEnum.PENDENTE),
+                transacao(2, "200.00", RiscoFraudeEnum.PENDENTE),
+                transacao(3, "300.00", RiscoFraudeEnum.BAIXO));
+        when(transacaoRepository.buscarComOperadorPorIds(anyCollection())).thenAnswer(invocacao -> {
+            Collection<Long> ids = invocacao.getArgument(0);
+            return gravadas.stream().filter(transacao -> ids.contains(transacao.getId())).toList();
+        });
+        SinaisOperador sinais = new SinaisOperador(false, false);
+        when(riscoFraudeService.registrarSinais(any(ContextoRisco.class))).thenReturn(sinais);
+        when(riscoFraudeService.consultarRiscoAsync(any(ContextoRisco.class), any(SinaisOperador.class)))
+                .thenAnswer(invocacao -> {
+                    ContextoRisco contexto = invocacao.getArgument(0);
+                    return contexto.getValor().compareTo(new BigDecimal("100.00")) == 0
+                            ? Mono.just(RiscoFraudeEnum.ALTO) : Mono.never();
+                });
+
+        // Act
+        avaliacaoService.enfileirar(List.of(1L, 2L, 3L));
+        avaliacaoService.iniciar();
+
+        // Assert
+        verify(transacaoJdbcRepository, timeout(5000)).atualizarRiscoPendente(List.of(1L), List.of(RiscoFraudeEnum.ALTO));
+        verify(riscoFraudeService, times(2)).consultarRiscoAsync(any(ContextoRisco.class), same(sinais));
+        verify(riscoFraudeService, timeout(5000).times(2)).registrarSinais(any(ContextoRisco.class));
+
+        // A expirada volta na varredura seguinte, sem consultar o banco e sem novo registro de sinais
+        // (a expirada só é liberada para a varredura quando o worker termina o lote)
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (consultasRemotas() < 3 && System.nanoTime() < limite) {
+            avaliacaoService.varrerPendentes();
+            Thread.sleep(10);
+        }
+        verify(riscoFraudeService, timeout(5000).times(3)).consultarRiscoAsync(any(ContextoRisco.class), same(sinais));
+        verify(riscoFraudeService, times(2)).registrarSinais(any(ContextoRisco.class));
+        verify(riscoFraudeService, never()).consultarRiscoAsync(any(ContextoRisco.class));
+        verify(transacaoRepository, never()).buscarIdsPorRisco(any(), anyLong(), any());
+        assertEquals(1.0, meterRegistry.get("risco.fraude.pendentes.avaliadas").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve reenfileirar as PENDENTE na inicialização, sem repetir IDs, e varrer após transbordo a partir do último enfileirado")
+    void recuperarPendentes_DeveReenfileirarPorPaginas() {
+        // Arrange: fila com espaço para 3
+        criarServico(3);
+        when(transacaoRepository.buscarIdsPorRisco(eq(RiscoFraudeEnum.PENDENTE), eq(0L), any()))
+                .thenReturn(List.of(5L, 7L));
+        when(transacaoRepository.buscarIdsPorRisco(eq(RiscoFraudeEnum.PENDENTE), eq(7L), any()))
+                .thenReturn(List.of(), List.of(8L, 9L));
+
+        // Act
+        avaliacaoService.recuperarPendentes();
+        avaliacaoService.varrerPendentes();
+
+        // Assert: duas páginas lidas, nenhuma varredura sem transbordo
+        assertEquals(2.0, tamanhoFila());
+        verify(transacaoRepository, times(2)).buscarIdsPorRisco(any(), anyLong(), any());
+
+        // IDs já na fila não entram de novo
+        avaliacaoService.enfileirar(List.of(5L, 7L));
+        assertEquals(2.0, tamanhoFila());
+
+        // Fila cheia: o excedente fica PENDENTE e a varredura seguinte consulta o banco a partir do 7
+        avaliacaoService.enfileirar(List.of(8L, 9L));
+        assertEquals(3.0, tamanhoFila());
+        assertEquals(1.0, meterRegistry.get("risco.fraude.pendentes.transbordo").counter().count());
+        avaliacaoService.varrerPendentes();
+        assertEquals(3.0, tamanhoFila());
+        verify(transacaoRepository, times(1)).buscarIdsPorRisco(any(), eq(0L), any());
+        verify(transacaoRepository, times(2)).buscarIdsPorRisco(any(), eq(7L), any());
+    }
+}
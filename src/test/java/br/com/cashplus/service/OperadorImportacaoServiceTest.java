@@ -0,0 +1,166 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.dto.response.OperadorImportacaoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.Operador;
+import br.com.cashplus.repository.OperadorJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperadorImportacaoServiceTest {
+
+    @Mock
+    private OperadorJdbcRepository operadorJdbcRepository;
+
+    @Mock
+    private FiltroCpfOperadores filtroCpf;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OperadorImportacaoService importacaoService;
+
+    @BeforeEach
+    void setUp() {
+        importacaoService = criarServico(10);
+    }
+
+    private OperadorImportacaoService criarServico(int maxErros) {
+        return new OperadorImportacaoService(operadorJdbcRepository, filtroCpf,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(transactionManager), 2, 100, maxErros);
+    }
+
+    private static InputStream corpo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Deve importar CSV em lotes, recusando linhas inválidas, repetidas ou já cadastradas")
+    @SuppressWarnings("unchecked")
+    void importar_DeveImportarCsvComRelatorioPorLinha() throws IOException {
+        // Arrange: colunas fora de ordem, campo entre aspas e linha em branco
+        String csv = "cpf,nome,turno\n"
+                + "987.654.321-00,\"Silva, Maria\",tarde\n"
+                + "111.444.777-35,João,MANHA\n"
+                + "\n"
+                + "123.456.789-00,Ana Paula,NOITE\n"
+                + "987.654.321-00,Maria Repetida,TARDE\n"
+                + "529.982.247-25,Carlos,MADRUGADA\n";
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenAnswer(i -> i.getArgument(0).equals(11144477735L));
+        when(operadorJdbcRepository.buscarCpfsExistentes(anyCollection())).thenReturn(Set.of());
+        when(operadorJdbcRepository.buscarCpfsExistentes(List.of(11144477735L))).thenReturn(Set.of(11144477735L));
+
+        // Act
+        OperadorImportacaoResponseDTO resultado = importacaoService.importar(corpo(csv), true);
+
+        // Assert
+        assertEquals(5, resultado.getTotal());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(4, resultado.getRejeitados());
+        assertEquals(List.of(3, 5, 6, 7), resultado.getErros().stream()
+                .map(erro -> erro.getLinha()).collect(Collectors.toList()));
+        assertEquals("CPF já cadastrado: 111.444.777-35", resultado.getErros().get(0).getErro());
+        assertEquals("cpf: CPF inválido", resultado.getErros().get(1).getErro());
+        assertEquals("CPF repetido no arquivo: 987.654.321-00", resultado.getErros().get(2).getErro());
+        assertTrue(resultado.getErros().get(3).getErro().startsWith("turno: valor inválido"));
+
+        ArgumentCaptor<List<Operador>> inseridos = ArgumentCaptor.forClass(List.class);
+        verify(operadorJdbcRepository).inserirLote(inseridos.capture(), eq(100));
+        assertEquals("Silva, Maria", inseridos.getValue().get(0).getNome());
+        verify(filtroCpf).registrar(98765432100L);
+        verify(filtroCpf, never()).registrar(11144477735L);
+    }
+
+    @Test
+    @DisplayName("Deve regravar linha a linha quando o índice único recusar o batch e limitar o relatório")
+    void importar_DeveRegravarLinhaALinha_QuandoBatchRecusado() throws IOException {
+        // Arrange
+        importacaoService = criarServico(1);
+        String ndjson = "{\"nome\":\"Maria Teste\",\"cpf\":\"98765432100\",\"turno\":\"TARDE\"}\n"
+                + "{\"nome\":\"João da Silva\",\"cpf\":\"11144477735\",\"turno\":\"MANHA\"}\n"
+                + "{\"nome\":\"x\"" + " ".repeat(OperadorImportacaoService.TAMANHO_MAXIMO_LINHA) + "}\n"
+                + "{nome}";
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenReturn(false);
+        when(operadorJdbcRepository.buscarCpfsExistentes(anyCollection())).thenReturn(Set.of());
+        doThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .when(operadorJdbcRepository).inserirLote(anyList(), anyInt());
+        doAnswer(invocacao -> {
+            Operador operador = invocacao.getArgument(0);
+            if (operador.getNome().startsWith("João")) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return null;
+        }).when(operadorJdbcRepository).inserir(any(Operador.class));
+
+        // Act
+        OperadorImportacaoResponseDTO resultado = importacaoService.importar(corpo(ndjson), false);
+
+        // Assert
+        assertEquals(4, resultado.getTotal());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(3, resultado.getRejeitados());
+        assertEquals(1, resultado.getErros().size());
+        assertEquals("CPF já cadastrado: 111.444.777-35", resultado.getErros().get(0).getErro());
+        assertEquals(2, resultado.getErrosOmitidos());
+        verify(operadorJdbcRepository, times(2)).inserir(any(Operador.class));
+        verify(transactionManager).rollback(any());
+        verify(filtroCpf).registrar(98765432100L);
+    }
+
+    @Test
+    @DisplayName("Deve recusar como JSON inválido as linhas NDJSON que não são objetos")
+    void importar_DeveRecusarLinhaNdjsonQueNaoEObjeto() throws IOException {
+        // Arrange
+        String ndjson = "null\n"
+                + "[{\"nome\":\"Ana\",\"cpf\":\"98765432100\",\"turno\":\"TARDE\"}]\n"
+                + "\"Maria\"\n"
+                + "42\n"
+                + "  {\"nome\":\"Maria Teste\",\"cpf\":\"98765432100\",\"turno\":\"TARDE\"}\n";
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenReturn(false);
+        when(operadorJdbcRepository.buscarCpfsExistentes(anyCollection())).thenReturn(Set.of());
+
+        // Act
+        OperadorImportacaoResponseDTO resultado = importacaoService.importar(corpo(ndjson), false);
+
+        // Assert
+        assertEquals(5, resultado.getTotal());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(List.of(1, 2, 3, 4), resultado.getErros().stream()
+                .map(erro -> erro.getLinha()).collect(Collectors.toList()));
+        assertTrue(resultado.getErros().stream()
+                .allMatch(erro -> erro.getErro().equals("JSON inválido: a linha deve ser um objeto")));
+        verify(filtroCpf).registrar(98765432100L);
+    }
+
+    @Test
+    @DisplayName("Deve recusar CSV sem as colunas obrigatórias no cabeçalho")
+    void importar_DeveLancarExcecao_QuandoCabecalhoIncompleto() {
+        assertThrows(BusinessException.class,
+                () -> importacaoService.importar(corpo("nome,cpf\nMaria,98765432100\n"), true));
+        verifyNoInteractions(operadorJdbcRepository);
+    }
+}
@@ -3,6 +3,7 @@ package br.com.cashplus.service;
 import br.com.cashplus.dto.request.OperadorRequestDTO;
 import br.com.cashplus.dto.response.OperadorResponseDTO;
 import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.exception.ResourceNotFoundException;
 import br.com.cashplus.model.Operador;
 import br.com.cashplus.model.enums.TurnoEnum;
 import br.com.cashplus.model.valueobject.CPF;
@@ -14,9 +15,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +30,9 @@ class OperadorServiceTest {
     @Mock
     private OperadorRepository operadorRepository;
 
+    @Mock
+    private FiltroCpfOperadores filtroCpf;
+
     @InjectMocks
     private OperadorService operadorService;
 
@@ -34,14 +42,15 @@ class OperadorServiceTest {
     @BeforeEach
     void setUp() {
         // Usando CPF válido para testes: 111.444.777-35
-        operadorRequestDTO = new OperadorRequestDTO("João da Silva", "111.444.777-35", TurnoEnum.MANHA);
-        operador = new Operador(1L, "João da Silva", CPF.of("111.444.777-35"), TurnoEnum.MANHA);
+        operadorRequestDTO = new OperadorRequestDTO("João da Silva", "111.444.777-35", TurnoEnum.MANHA, null);
+        operador = new Operador(1L, "João da Silva", CPF.of("111.444.777-35"), TurnoEnum.MANHA, 0L);
     }
 
     @Test
     @DisplayName("Deve criar um novo operador com sucesso")
     void criar_DeveCriarOperadorComSucesso() {
         // Arrange
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenReturn(true);
         when(operadorRepository.existsByCpf(any(CPF.class))).thenReturn(false);
         when(operadorRepository.save(any(Operador.class))).thenReturn(operador);
 
@@ -60,6 +69,7 @@ class OperadorServiceTest {
     @DisplayName("Deve lançar BusinessException ao tentar criar operador com CPF duplicado")
     void criar_DeveLancarExcecao_QuandoCPFDuplicado() {
         // Arrange
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenReturn(true);
         when(operadorRepository.existsByCpf(any(CPF.class))).thenReturn(true);
 
         // Act & Assert
@@ -71,4 +81,87 @@ class OperadorServiceTest {
         verify(operadorRepository, times(1)).existsByCpf(any(CPF.class));
         verify(operadorRepository, never()).save(any(Operador.class));
     }
+
+    @Test
+    @DisplayName("Não deve consultar o banco quando o filtro garante que o CPF é novo")
+    void criar_NaoDeveConsultarBanco_QuandoFiltroDescartaCPF() {
+        // Arrange
+        when(filtroCpf.podeEstarCadastrado(11144477735L)).thenReturn(false);
+        when(operadorRepository.save(any(Operador.class))).thenReturn(operador);
+
+        // Act
+        operadorService.criar(operadorRequestDTO);
+
+        // Assert
+        verify(operadorRepository, never()).existsByCpf(any(CPF.class));
+        verify(filtroCpf).registrar(11144477735L);
+    }
+
+    @Test
+    @DisplayName("Deve lançar BusinessException quando o índice único recusar o CPF")
+    void criar_DeveLancarExcecao_QuandoIndiceUnicoRecusaCPF() {
+        // Arrange: CPF gravado por outro nó, ausente do filtro deste
+        when(filtroCpf.podeEstarCadastrado(anyLong())).thenReturn(false);
+        when(operadorRepository.save(any(Operador.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> operadorService.criar(operadorRequestDTO));
+
+        assertTrue(exception.getMessage().contains("CPF já cadastrado"));
+        verify(filtroCpf, never()).registrar(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar com um único UPDATE e recusar versão desatualizada")
+    void atualizar_DeveUsarUpdateUnicoComVersao() {
+        // Arrange
+        operadorRequestDTO.setVersao(3L);
+        when(operadorRepository.atualizarDadosNaVersao(1L, "João da Silva", 11144477735L, "MANHA", 3L))
+                .thenReturn(1, 0);
+        when(operadorRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        OperadorResponseDTO resultado = operadorService.atualizar(1L, operadorRequestDTO);
+
+        // Assert
+        assertEquals(4L, resultado.getVersao());
+        assertEquals("111.444.777-35", resultado.getCpf());
+        verify(operadorRepository, never()).findById(any());
+        verify(operadorRepository, never()).existsByCpf(any(CPF.class));
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> operadorService.atualizar(1L, operadorRequestDTO));
+        assertTrue(exception.getMessage().contains("versão 3 desatualizada"));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a versão gravada quando a atualização não informar versão")
+    void atualizar_DeveDevolverVersaoGravada_QuandoVersaoNaoInformada() {
+        // Arrange
+        when(operadorRepository.atualizarDados(1L, "João da Silva", 11144477735L, "MANHA")).thenReturn(1);
+        when(operadorRepository.buscarVersao(1L)).thenReturn(7L);
+
+        // Act
+        OperadorResponseDTO resultado = operadorService.atualizar(1L, operadorRequestDTO);
+
+        // Assert
+        assertEquals(7L, resultado.getVersao());
+        verify(filtroCpf).registrar(11144477735L);
+    }
+
+    @Test
+    @DisplayName("Deve lançar ResourceNotFoundException quando nenhuma linha for alterada ou removida")
+    void atualizarEDeletar_DevemLancarExcecao_QuandoOperadorNaoExiste() {
+        // Arrange
+        when(operadorRepository.atualizarDados(eq(99L), anyString(), anyLong(), anyString())).thenReturn(0);
+        when(operadorRepository.excluirPorId(99L)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> operadorService.atualizar(99L, operadorRequestDTO));
+        assertThrows(ResourceNotFoundException.class, () -> operadorService.deletar(99L));
+        verify(operadorRepository, never()).existsById(any());
+        verify(filtroCpf, never()).registrar(anyLong());
+    }
 }
@@ -0,0 +1,193 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.dto.response.ReavaliacaoRiscoResponseDTO;
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.ReavaliacaoRisco;
+import br.com.cashplus.model.Transacao;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.StatusReavaliacaoEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.repository.ReavaliacaoRiscoRepository;
+import br.com.cashplus.repository.TransacaoJdbcRepository;
+import br.com.cashplus.service.risco.ContextoRisco;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReavaliacaoRiscoServiceTest {
+
+    @Mock
+    private ReavaliacaoRiscoRepository reavaliacaoRepository;
+
+    @Mock
+    private TransacaoJdbcRepository transacaoJdbcRepository;
+
+    @Mock
+    private RiscoFraudeService riscoFraudeService;
+
+    private ReavaliacaoRiscoService reavaliacaoRiscoService;
+    private final AtomicReference<ReavaliacaoRisco> gravada = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        reavaliacaoRiscoService = new ReavaliacaoRiscoService(reavaliacaoRepository, transacaoJdbcRepository,
+                riscoFraudeService, new SimpleMeterRegistry(), 4, 100, 0);
+        when(reavaliacaoRepository.save(any(ReavaliacaoRisco.class))).thenAnswer(invocation -> {
+            ReavaliacaoRisco reavaliacao = invocation.getArgument(0);
+            if (reavaliacao.getId() == null) {
+                reavaliacao.setId(1L);
+            }
+            gravada.set(reavaliacao);
+            return reavaliacao;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        reavaliacaoRiscoService.parar();
+    }
+
+    @Test
+    @DisplayName("Deve reavaliar todas as faixas e atualizar apenas as transações com risco elevado")
+    void iniciar_DeveAtualizarApenasRiscosAlterados() throws InterruptedException {
+        // Arrange: 1.000 transações, uma em cada dez com risco desatualizado
+        when(reavaliacaoRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(transacaoJdbcRepository.buscarMaiorId()).thenReturn(1000L);
+        simularTransacoes(RiscoFraudeEnum.BAIXO, RiscoFraudeEnum.ALTO);
+        when(transacaoJdbcRepository.atualizarRiscoSeInalterado(anyList(), anyList(), anyList()))
+                .thenAnswer(invocation -> umaLinhaPorComando(invocation.getArgument(0)));
+
+        // Act
+        reavaliacaoRiscoService.iniciar();
+        aguardarFim();
+
+        // Assert
+        when(reavaliacaoRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(gravada.get()));
+        ReavaliacaoRiscoResponseDTO resultado = reavaliacaoRiscoService.consultar();
+        assertEquals(StatusReavaliacaoEnum.CONCLUIDA, resultado.getStatus());
+        assertEquals(1000L, resultado.getCheckpointId());
+        assertEquals(1000L, resultado.getProcessadas());
+        assertEquals(100L, resultado.getAlteradas());
+        assertEquals(100.0, resultado.getPercentual());
+        verify(transacaoJdbcRepository, times(10)).percorrerFaixaAvaliada(anyLong(), anyLong(), any());
+        verify(transacaoJdbcRepository, times(10)).atualizarRiscoSeInalterado(
+                argThat(ids -> ids.size() == 10 && ids.stream().allMatch(id -> id % 10 == 0)),
+                argThat(anteriores -> anteriores.stream().allMatch(risco -> risco == RiscoFraudeEnum.BAIXO)),
+                argThat(novos -> novos.stream().allMatch(risco -> risco == RiscoFraudeEnum.ALTO)));
+    }
+
+    @Test
+    @DisplayName("Não deve reduzir o risco gravado quando as regras locais o avaliam mais baixo")
+    void iniciar_NaoDeveReduzirRiscoGravado() throws InterruptedException {
+        // Arrange: as gravadas como ALTO podem ter vindo da API externa ou da velocidade
+        when(reavaliacaoRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(transacaoJdbcRepository.buscarMaiorId()).thenReturn(1000L);
+        simularTransacoes(RiscoFraudeEnum.ALTO, RiscoFraudeEnum.BAIXO);
+
+        // Act
+        reavaliacaoRiscoService.iniciar();
+        aguardarFim();
+
+        // Assert
+        assertEquals(StatusReavaliacaoEnum.CONCLUIDA, gravada.get().getStatus());
+        assertEquals(1000L, gravada.get().getProcessadas());
+        assertEquals(0L, gravada.get().getAlteradas());
+        verify(transacaoJdbcRepository, never()).atualizarRiscoSeInalterado(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("Deve retomar a reavaliação interrompida a partir do checkpoint")
+    void iniciar_DeveRetomarDoCheckpoint() throws InterruptedException {
+        // Arrange
+        ReavaliacaoRisco interrompida = new ReavaliacaoRisco(7L, StatusReavaliacaoEnum.INTERROMPIDA, 1000L, 800L,
+                800L, 80L, LocalDateTime.now(), LocalDateTime.now(), null);
+        when(reavaliacaoRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(interrompida));
+        simularTransacoes(RiscoFraudeEnum.BAIXO, RiscoFraudeEnum.ALTO);
+        when(transacaoJdbcRepository.atualizarRiscoSeInalterado(anyList(), anyList(), anyList()))
+                .thenAnswer(invocation -> umaLinhaPorComando(invocation.getArgument(0)));
+
+        // Act
+        reavaliacaoRiscoService.iniciar();
+        aguardarFim();
+
+        // Assert
+        assertEquals(StatusReavaliacaoEnum.CONCLUIDA, interrompida.getStatus());
+        assertEquals(1000L, interrompida.getProcessadas());
+        assertEquals(100L, interrompida.getAlteradas());
+        verify(transacaoJdbcRepository).percorrerFaixaAvaliada(eq(801L), eq(900L), any());
+        verify(transacaoJdbcRepository).percorrerFaixaAvaliada(eq(901L), eq(1000L), any());
+        verify(transacaoJdbcRepository, times(2)).percorrerFaixaAvaliada(anyLong(), anyLong(), any());
+        verify(transacaoJdbcRepository, never()).buscarMaiorId();
+    }
+
+    @Test
+    @DisplayName("Deve recusar uma segunda reavaliação enquanto outra está em andamento")
+    void iniciar_DeveLancarExcecao_QuandoJaEmAndamento() throws InterruptedException {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(reavaliacaoRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(transacaoJdbcRepository.buscarMaiorId()).thenReturn(100L);
+        doAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(transacaoJdbcRepository).percorrerFaixaAvaliada(anyLong(), anyLong(), any());
+        reavaliacaoRiscoService.iniciar();
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> reavaliacaoRiscoService.iniciar());
+        liberar.countDown();
+        aguardarFim();
+        assertFalse(reavaliacaoRiscoService.isExecutando());
+    }
+
+    // Transações com id múltiplo de 10 estão gravadas com riscoDiferente; as demais, e as regras atuais, com riscoAtual
+    @SuppressWarnings("unchecked")
+    private void simularTransacoes(RiscoFraudeEnum riscoDiferente, RiscoFraudeEnum riscoAtual) {
+        when(riscoFraudeService.avaliarRegrasLocais(any(ContextoRisco.class))).thenReturn(riscoAtual);
+        doAnswer(invocation -> {
+            long inicio = invocation.getArgument(0);
+            long fim = invocation.getArgument(1);
+            Consumer<Transacao> consumidor = invocation.getArgument(2);
+            for (long id = inicio; id <= fim; id++) {
+                RiscoFraudeEnum risco = id % 10 == 0 ? riscoDiferente : riscoAtual;
+                consumidor.accept(new Transacao(id, new BigDecimal("50.00"), TipoPagamentoEnum.PIX, risco,
+                        null, LocalDateTime.now()));
+            }
+            return null;
+        }).when(transacaoJdbcRepository).percorrerFaixaAvaliada(anyLong(), anyLong(), any());
+    }
+
+    private static int[] umaLinhaPorComando(List<?> ids) {
+        int[] linhas = new int[ids.size()];
+        Arrays.fill(linhas, 1);
+        return linhas;
+    }
+
+    private void aguardarFim() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reavaliacaoRiscoService.isExecutando() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertFalse(reavaliacaoRiscoService.isExecutando(), "Reavaliação não terminou a tempo");
+    }
+}
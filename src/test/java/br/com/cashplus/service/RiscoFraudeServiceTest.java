@@ -0,0 +1,356 @@
+package br.com.cashplus.service;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.service.risco.Bulkhead;
+import br.com.cashplus.service.risco.CircuitBreaker;
+import br.com.cashplus.service.risco.ContextoRisco;
+import br.com.cashplus.service.risco.DetectorAnomaliaOperador;
+import br.com.cashplus.service.risco.Hedging;
+import br.com.cashplus.service.risco.MonitorVelocidadeOperador;
+import br.com.cashplus.service.risco.MotorRegrasRisco;
+import br.com.cashplus.service.risco.RiscoFraudeCache;
+import br.com.cashplus.service.risco.RiscoFraudeClient;
+import br.com.cashplus.service.risco.auditoria.DiarioDecisoesRisco;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiscoFraudeServiceTest {
+
+    private static final long ATRASO_API_MS = 500;
+    private static final int CONSULTAS = 32;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private HttpServer apiLenta;
+    private ExecutorService threadsApi;
+    private RiscoFraudeService riscoFraudeService;
+    private final AtomicInteger chamadasApi = new AtomicInteger();
+    private final AtomicInteger chamadasLote = new AtomicInteger();
+    private final AtomicInteger consultasEmLote = new AtomicInteger();
+    private volatile boolean loteIndisponivel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub local da API externa que demora ATRASO_API_MS para responder
+        threadsApi = Executors.newCachedThreadPool();
+        apiLenta = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        apiLenta.setExecutor(threadsApi);
+        apiLenta.createContext("/consultar", exchange -> {
+            chamadasApi.incrementAndGet();
+            try {
+                Thread.sleep(ATRASO_API_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] corpo = "{\"risco\":\"ALTO\",\"mensagem\":\"stub\",\"score\":90}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = exchange.getResponseBody()) {
+                saida.write(corpo);
+            }
+        });
+        apiLenta.createContext("/consultar-lote", exchange -> {
+            chamadasLote.incrementAndGet();
+            if (loteIndisponivel) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            JsonNode consultas = JSON.readTree(exchange.getRequestBody()).get("consultas");
+            consultasEmLote.addAndGet(consultas.size());
+            StringBuilder resultados = new StringBuilder();
+            for (int i = 0; i < consultas.size(); i++) {
+                resultados.append(i > 0 ? "," : "").append("{\"risco\":\"ALTO\",\"score\":90}");
+            }
+            byte[] corpo = ("{\"resultados\":[" + resultados + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = exchange.getResponseBody()) {
+                saida.write(corpo);
+            }
+        });
+        apiLenta.start();
+
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        riscoFraudeService = new RiscoFraudeService(
+                clienteApi(url), cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), true, false, 10);
+    }
+
+    private static RiscoFraudeClient clienteApi(String url) {
+        return clienteApi(url, new CircuitBreaker(50, 20, 50, TimeUnit.SECONDS.toNanos(2), 80,
+                TimeUnit.SECONDS.toNanos(30), 5, System::nanoTime));
+    }
+
+    private static RiscoFraudeClient clienteApi(String url, CircuitBreaker circuitBreaker) {
+        return new RiscoFraudeClient(WebClient.builder(), circuitBreaker, new Bulkhead(64), semHedging(), url, 5,
+                false, 50, 5, 8);
+    }
+
+    private static MotorRegrasRisco regrasLocais() {
+        return new MotorRegrasRisco(new DefaultResourceLoader(), new ObjectMapper(),
+                "classpath:regras-risco-fraude.json");
+    }
+
+    private static MonitorVelocidadeOperador semVelocidade() {
+        return new MonitorVelocidadeOperador(new SimpleMeterRegistry(), false, Duration.ofMinutes(10), 10,
+                20, new BigDecimal("10000.00"), 100, System::currentTimeMillis);
+    }
+
+    private static DetectorAnomaliaOperador semAnomalia() {
+        return new DetectorAnomaliaOperador(new SimpleMeterRegistry(), false, 0.05, 3.0, 0.02, 30, 1024, "");
+    }
+
+    private static DiarioDecisoesRisco semAuditoria() {
+        return new DiarioDecisoesRisco(new SimpleMeterRegistry(), false, Path.of("auditoria"), 1024,
+                Duration.ofDays(1), 16, 1000, System::currentTimeMillis);
+    }
+
+    private static ContextoRisco contexto(BigDecimal valor, TipoPagamentoEnum tipoPagamento) {
+        return new ContextoRisco(valor, tipoPagamento, null, null, LocalDateTime.now());
+    }
+
+    private static Hedging semHedging() {
+        return new Hedging(false, Duration.ofMillis(200), false, 5, 20);
+    }
+
+    private static RiscoFraudeClient clienteApiEmLote(String url) {
+        return new RiscoFraudeClient(WebClient.builder(),
+                new CircuitBreaker(50, 20, 50, TimeUnit.SECONDS.toNanos(2), 80,
+                        TimeUnit.SECONDS.toNanos(30), 5, System::nanoTime),
+                new Bulkhead(64), semHedging(), url, 5, true, 50, 20, 8);
+    }
+
+    private static RiscoFraudeCache cacheDesabilitado() {
+        return new RiscoFraudeCache(new SimpleMeterRegistry(), false, BigDecimal.ONE, 60, 10, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        apiLenta.stop(0);
+        threadsApi.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve consultar a API lenta sem bloquear a thread chamadora e em paralelo")
+    void consultarRiscoAsync_NaoDeveBloquear_ComApiLenta() throws Exception {
+        // Aquecimento: estabelece as conexões e carrega as classes do WebClient
+        CompletableFuture.allOf(IntStream.range(0, CONSULTAS)
+                .mapToObj(i -> riscoFraudeService
+                        .consultarRiscoAsync(contexto(new BigDecimal("10.00"), TipoPagamentoEnum.PIX))
+                        .toFuture())
+                .toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // Act
+        long inicio = System.nanoTime();
+        List<CompletableFuture<RiscoFraudeEnum>> futuros = IntStream.range(0, CONSULTAS)
+                .mapToObj(i -> riscoFraudeService
+                        .consultarRiscoAsync(contexto(new BigDecimal("10.00"), TipoPagamentoEnum.PIX))
+                        .toFuture())
+                .collect(Collectors.toList());
+        long disparoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Assert
+        // A thread chamadora dispara todas as consultas antes da primeira resposta chegar
+        assertTrue(disparoMs < ATRASO_API_MS,
+                "Disparo das consultas bloqueou a thread chamadora: " + disparoMs + "ms");
+        // Chamadas bloqueantes em sequência levariam CONSULTAS * ATRASO_API_MS
+        assertTrue(totalMs < CONSULTAS * ATRASO_API_MS / 4,
+                "Consultas não foram processadas em paralelo: " + totalMs + "ms");
+        // O risco veio do stub (o cálculo local retornaria BAIXO para PIX)
+        for (CompletableFuture<RiscoFraudeEnum> futuro : futuros) {
+            assertEquals(RiscoFraudeEnum.ALTO, futuro.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve compartilhar uma única chamada externa entre vendas da mesma faixa de valor")
+    void consultarRiscoAsync_DeveReaproveitarVeredito_QuandoCacheHabilitado() throws Exception {
+        // Arrange
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        RiscoFraudeCache cache = new RiscoFraudeCache(
+                new SimpleMeterRegistry(), true, new BigDecimal("10.00"), 60, 10, 100);
+        RiscoFraudeService servicoComCache = new RiscoFraudeService(
+                clienteApi(url), cache, regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), true, false, 10);
+
+        // Act: rajada de vendas no cartão entre R$ 150,00 e R$ 159,99
+        List<CompletableFuture<RiscoFraudeEnum>> futuros = IntStream.range(0, CONSULTAS)
+                .mapToObj(i -> servicoComCache
+                        .consultarRiscoAsync(contexto(new BigDecimal("150.00").add(BigDecimal.valueOf(i, 1)),
+                                TipoPagamentoEnum.CARTAO))
+                        .toFuture())
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, chamadasApi.get());
+        for (CompletableFuture<RiscoFraudeEnum> futuro : futuros) {
+            assertEquals(RiscoFraudeEnum.ALTO, futuro.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve usar o cálculo local quando a API externa está desabilitada")
+    void consultarRiscoAsync_DeveUsarCalculoLocal_QuandoApiDesabilitada() {
+        // Arrange
+        RiscoFraudeService servicoLocal = new RiscoFraudeService(
+                clienteApi("http://localhost:1"), cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), false, false, 10);
+
+        // Act & Assert
+        assertEquals(RiscoFraudeEnum.BAIXO, servicoLocal
+                .consultarRiscoAsync(contexto(new BigDecimal("99.99"), TipoPagamentoEnum.CARTAO)).block());
+        assertEquals(RiscoFraudeEnum.MEDIO, servicoLocal
+                .consultarRiscoAsync(contexto(new BigDecimal("500.00"), TipoPagamentoEnum.CARTAO)).block());
+        assertEquals(RiscoFraudeEnum.ALTO, servicoLocal
+                .consultarRiscoAsync(contexto(new BigDecimal("500.01"), TipoPagamentoEnum.CARTAO)).block());
+    }
+
+    @Test
+    @DisplayName("Deve responder pelo cálculo local, sem chamar a API, com o circuito aberto")
+    void consultarRiscoAsync_DeveUsarCalculoLocal_QuandoCircuitoAberto() {
+        // Arrange: API fora do ar (porta sem servidor) e circuito que abre na primeira falha
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 1, 50, TimeUnit.SECONDS.toNanos(2), 80,
+                TimeUnit.MINUTES.toNanos(1), 1, System::nanoTime);
+        apiLenta.stop(0);
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        RiscoFraudeService servico = new RiscoFraudeService(
+                clienteApi(url, circuitBreaker), cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), true, false, 10);
+        servico.consultarRiscoAsync(contexto(new BigDecimal("600.00"), TipoPagamentoEnum.CARTAO)).block();
+        assertEquals(CircuitBreaker.Estado.ABERTO, circuitBreaker.getEstado());
+
+        // Act
+        long inicio = System.nanoTime();
+        RiscoFraudeEnum risco = servico
+                .consultarRiscoAsync(contexto(new BigDecimal("600.00"), TipoPagamentoEnum.CARTAO)).block();
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Assert: sem timeout nem retries (que somariam mais de 1s)
+        assertEquals(RiscoFraudeEnum.ALTO, risco);
+        assertTrue(duracaoMs < 100, "Consulta com circuito aberto demorou " + duracaoMs + "ms");
+        assertEquals(1, circuitBreaker.getRejeitadas());
+    }
+
+    @Test
+    @DisplayName("Deve agrupar consultas concorrentes em poucas chamadas ao endpoint de lote")
+    void consultarRiscoAsync_DeveAgruparConsultas_QuandoLoteHabilitado() throws Exception {
+        // Arrange
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        RiscoFraudeClient client = clienteApiEmLote(url);
+        RiscoFraudeService servico = new RiscoFraudeService(
+                client, cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), true, false, 10);
+
+        try {
+            // Act
+            List<CompletableFuture<RiscoFraudeEnum>> futuros = IntStream.range(0, CONSULTAS)
+                    .mapToObj(i -> servico
+                            .consultarRiscoAsync(contexto(new BigDecimal("10.00"), TipoPagamentoEnum.PIX))
+                            .toFuture())
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals(CONSULTAS, consultasEmLote.get() + chamadasApi.get());
+            assertTrue(chamadasLote.get() + chamadasApi.get() <= CONSULTAS / 4,
+                    "Consultas não foram agrupadas: " + chamadasLote.get() + " lotes, "
+                            + chamadasApi.get() + " individuais");
+            for (CompletableFuture<RiscoFraudeEnum> futuro : futuros) {
+                assertEquals(RiscoFraudeEnum.ALTO, futuro.get());
+            }
+        } finally {
+            client.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reenviar as consultas individualmente quando o endpoint de lote falha")
+    void consultarRiscoAsync_DeveConsultarIndividualmente_QuandoLoteFalha() throws Exception {
+        // Arrange
+        loteIndisponivel = true;
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        RiscoFraudeClient client = clienteApiEmLote(url);
+        RiscoFraudeService servico = new RiscoFraudeService(
+                client, cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), new SimpleMeterRegistry(), true, false, 10);
+
+        try {
+            // Act
+            List<CompletableFuture<RiscoFraudeEnum>> futuros = IntStream.range(0, 4)
+                    .mapToObj(i -> servico
+                            .consultarRiscoAsync(contexto(new BigDecimal("10.00"), TipoPagamentoEnum.PIX))
+                            .toFuture())
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            // Assert: respostas do endpoint individual (o cálculo local retornaria BAIXO para PIX)
+            assertTrue(chamadasLote.get() > 0);
+            assertEquals(4, chamadasApi.get());
+            for (CompletableFuture<RiscoFraudeEnum> futuro : futuros) {
+                assertEquals(RiscoFraudeEnum.ALTO, futuro.get());
+            }
+        } finally {
+            client.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve consultar a API apenas para valores na zona cinzenta quando camadas habilitadas")
+    void consultarRiscoAsync_DeveConsultarApiSomenteNaZonaCinzenta() {
+        // Arrange
+        String url = "http://localhost:" + apiLenta.getAddress().getPort();
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        RiscoFraudeService servico = new RiscoFraudeService(
+                clienteApi(url), cacheDesabilitado(), regrasLocais(), semVelocidade(),
+                semAnomalia(), semAuditoria(), metricas, true, true, 10);
+
+        // Act & Assert: casos claros respondidos pelas regras locais
+        assertEquals(RiscoFraudeEnum.BAIXO, servico
+                .consultarRiscoAsync(contexto(new BigDecimal("5000.00"), TipoPagamentoEnum.PIX)).block());
+        assertEquals(RiscoFraudeEnum.BAIXO, servico
+                .consultarRiscoAsync(contexto(new BigDecimal("50.00"), TipoPagamentoEnum.CARTAO)).block());
+        assertEquals(RiscoFraudeEnum.ALTO, servico
+                .consultarRiscoAsync(contexto(new BigDecimal("900.00"), TipoPagamentoEnum.CARTAO)).block());
+        assertEquals(0, chamadasApi.get());
+
+        // Perto do limite de 100 (margem de 10%): decisão da API (stub retorna ALTO)
+        assertEquals(RiscoFraudeEnum.ALTO, servico
+                .consultarRiscoAsync(contexto(new BigDecimal("105.00"), TipoPagamentoEnum.CARTAO)).block());
+        assertEquals(1, chamadasApi.get());
+
+        assertEquals(3.0, metricas.get("risco.fraude.decisoes").tag("camada", "local").counter().count());
+        assertEquals(1.0, metricas.get("risco.fraude.decisoes").tag("camada", "remota").counter().count());
+    }
+}
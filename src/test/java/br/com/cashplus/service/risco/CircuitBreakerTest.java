@@ -0,0 +1,114 @@
+package br.com.cashplus.service.risco;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long LENTA_NANOS = 1_000;
+    private static final long TEMPO_ABERTO_NANOS = 10_000;
+
+    private final AtomicLong relogio = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        // Janela de 10 chamadas, mínimo de 4, abre com 50% de falhas ou 80% de lentas, 2 chamadas de teste
+        circuitBreaker = new CircuitBreaker(10, 4, 50, LENTA_NANOS, 80,
+                TEMPO_ABERTO_NANOS, 2, relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando a taxa de falhas atinge o limite e recusar chamadas")
+    void deveAbrir_QuandoTaxaDeFalhasAtingeLimite() {
+        // Act
+        circuitBreaker.registrarSucesso(0);
+        circuitBreaker.registrarSucesso(0);
+        circuitBreaker.registrarFalha(0);
+        assertEquals(CircuitBreaker.Estado.FECHADO, circuitBreaker.getEstado());
+        circuitBreaker.registrarFalha(0);
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.ABERTO, circuitBreaker.getEstado());
+        assertFalse(circuitBreaker.permitirChamada());
+        assertEquals(1, circuitBreaker.getRejeitadas());
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando a maioria das chamadas é lenta, mesmo sem falhas")
+    void deveAbrir_QuandoChamadasLentas() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.registrarSucesso(LENTA_NANOS);
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.ABERTO, circuitBreaker.getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve liberar chamadas de teste após o tempo aberto e fechar se tiverem sucesso")
+    void deveFechar_QuandoChamadasDeTesteTemSucesso() {
+        // Arrange
+        abrirCircuito();
+        relogio.addAndGet(TEMPO_ABERTO_NANOS);
+
+        // Act & Assert: somente as 2 chamadas de teste passam
+        assertTrue(circuitBreaker.permitirChamada());
+        assertTrue(circuitBreaker.permitirChamada());
+        assertFalse(circuitBreaker.permitirChamada());
+        assertEquals(CircuitBreaker.Estado.MEIO_ABERTO, circuitBreaker.getEstado());
+
+        circuitBreaker.registrarSucesso(0);
+        circuitBreaker.registrarSucesso(0);
+        assertEquals(CircuitBreaker.Estado.FECHADO, circuitBreaker.getEstado());
+        assertTrue(circuitBreaker.permitirChamada());
+    }
+
+    @Test
+    @DisplayName("Deve voltar a abrir quando as chamadas de teste falham")
+    void deveReabrir_QuandoChamadasDeTesteFalham() {
+        // Arrange
+        abrirCircuito();
+        relogio.addAndGet(TEMPO_ABERTO_NANOS);
+        assertTrue(circuitBreaker.permitirChamada());
+        assertTrue(circuitBreaker.permitirChamada());
+
+        // Act
+        circuitBreaker.registrarFalha(0);
+        circuitBreaker.registrarSucesso(0);
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.ABERTO, circuitBreaker.getEstado());
+        assertFalse(circuitBreaker.permitirChamada());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a permissão de teste quando a chamada é cancelada")
+    void deveDevolverPermissao_QuandoChamadaDeTesteCancelada() {
+        // Arrange
+        abrirCircuito();
+        relogio.addAndGet(TEMPO_ABERTO_NANOS);
+        assertTrue(circuitBreaker.permitirChamada());
+        assertTrue(circuitBreaker.permitirChamada());
+
+        // Act
+        circuitBreaker.registrarCancelamento();
+
+        // Assert
+        assertTrue(circuitBreaker.permitirChamada());
+        assertFalse(circuitBreaker.permitirChamada());
+    }
+
+    private void abrirCircuito() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.registrarFalha(0);
+        }
+        assertEquals(CircuitBreaker.Estado.ABERTO, circuitBreaker.getEstado());
+    }
+}
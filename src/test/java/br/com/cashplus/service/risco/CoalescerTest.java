@@ -0,0 +1,95 @@
+package br.com.cashplus.service.risco;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescerTest {
+
+    private Coalescer<Integer, Integer> coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.encerrar();
+        }
+    }
+
+    private static Mono<List<Integer>> dobrarLote(List<Integer> itens, Duration atraso) {
+        List<Integer> respostas = new ArrayList<>(itens.size());
+        itens.forEach(item -> respostas.add(item * 2));
+        return Mono.delay(atraso).thenReturn(respostas);
+    }
+
+    @Test
+    @DisplayName("Deve responder todos os itens quando os lotes fecham mais rápido que o envio")
+    void enviar_DeveResponderTodos_QuandoEnvioSaturado() {
+        // Arrange: um lote por vez, cada envio demora 50x a espera máxima
+        AtomicInteger lotes = new AtomicInteger();
+        coalescer = new Coalescer<>(4, Duration.ofMillis(1), 1, Duration.ofSeconds(10),
+                itens -> {
+                    lotes.incrementAndGet();
+                    return dobrarLote(itens, Duration.ofMillis(50));
+                },
+                item -> Mono.just(item * 2));
+
+        // Act
+        List<Integer> respostas = Flux.range(0, 40)
+                .flatMap(item -> coalescer.enviar(item).delaySubscription(Duration.ofMillis(item)))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        // Assert
+        assertNotNull(respostas);
+        assertEquals(40, respostas.size());
+        assertEquals(2 * (39 * 40 / 2), respostas.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(lotes.get() > 0);
+
+        // A cadeia continua ativa depois da rajada
+        assertEquals(14, coalescer.enviar(7).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("Deve terminar com timeout quando o lote não responde")
+    void enviar_DeveExpirar_QuandoSemResposta() {
+        // Arrange
+        coalescer = new Coalescer<>(4, Duration.ofMillis(1), 1, Duration.ofMillis(100),
+                itens -> Mono.never(), item -> Mono.never());
+
+        // Act & Assert
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> coalescer.enviar(1).block(Duration.ofSeconds(5)));
+        assertInstanceOf(TimeoutException.class, erro.getCause());
+    }
+
+    @Test
+    @DisplayName("Deve continuar atendendo após falha inesperada do envio em lote e do fallback")
+    void enviar_DeveContinuar_QuandoEnvioLanca() {
+        // Arrange: o envio em lote lança antes de devolver o Mono; o individual falha na primeira vez
+        AtomicInteger individuais = new AtomicInteger();
+        coalescer = new Coalescer<>(2, Duration.ofMillis(20), 1, Duration.ofSeconds(5),
+                itens -> {
+                    throw new IllegalStateException("falha no lote");
+                },
+                item -> individuais.incrementAndGet() == 1
+                        ? Mono.error(new IllegalStateException("falha individual"))
+                        : Mono.just(item * 2));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> coalescer.enviar(1).block(Duration.ofSeconds(5)));
+        Integer resposta = coalescer.enviar(3).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(6, resposta);
+    }
+}
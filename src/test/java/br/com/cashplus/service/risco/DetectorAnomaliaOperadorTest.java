@@ -0,0 +1,92 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectorAnomaliaOperadorTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve sinalizar valor muito acima da média do operador no turno")
+    void avaliarEAtualizar_DeveSinalizar_QuandoValorForaDoPadrao() {
+        // Arrange
+        DetectorAnomaliaOperador detector = detector("");
+        construirLinhaDeBase(detector, 1L, TurnoEnum.MANHA);
+
+        // Act & Assert
+        assertFalse(detector.avaliarEAtualizar(venda(1L, TurnoEnum.MANHA, "105.00", TipoPagamentoEnum.DINHEIRO)));
+        assertTrue(detector.avaliarEAtualizar(venda(1L, TurnoEnum.MANHA, "5000.00", TipoPagamentoEnum.DINHEIRO)));
+        // Outro turno do mesmo operador ainda não tem linha de base
+        assertFalse(detector.avaliarEAtualizar(venda(1L, TurnoEnum.NOITE, "5000.00", TipoPagamentoEnum.DINHEIRO)));
+    }
+
+    @Test
+    @DisplayName("Deve sinalizar tipo de pagamento raro para o operador no turno")
+    void avaliarEAtualizar_DeveSinalizar_QuandoTipoPagamentoRaro() {
+        // Arrange
+        DetectorAnomaliaOperador detector = detector("");
+        construirLinhaDeBase(detector, 1L, TurnoEnum.TARDE);
+
+        // Act & Assert
+        assertTrue(detector.avaliarEAtualizar(venda(1L, TurnoEnum.TARDE, "100.00", TipoPagamentoEnum.CARTAO)));
+    }
+
+    @Test
+    @DisplayName("Não deve sinalizar antes do mínimo de amostras")
+    void avaliarEAtualizar_NaoDeveSinalizar_AntesDoMinimoDeAmostras() {
+        // Arrange
+        DetectorAnomaliaOperador detector = detector("");
+        for (int i = 0; i < 5; i++) {
+            detector.avaliarEAtualizar(venda(1L, TurnoEnum.MANHA, "100.00", TipoPagamentoEnum.DINHEIRO));
+        }
+
+        // Act & Assert
+        assertFalse(detector.avaliarEAtualizar(venda(1L, TurnoEnum.MANHA, "5000.00", TipoPagamentoEnum.CARTAO)));
+    }
+
+    @Test
+    @DisplayName("Deve restaurar as linhas de base gravadas no snapshot")
+    void gravarSnapshot_DeveRestaurarLinhasDeBase() {
+        // Arrange
+        String arquivo = diretorio.resolve("anomalia.bin").toString();
+        DetectorAnomaliaOperador original = detector(arquivo);
+        construirLinhaDeBase(original, 7L, TurnoEnum.NOITE);
+
+        // Act
+        original.gravarSnapshot();
+        DetectorAnomaliaOperador restaurado = detector(arquivo);
+        restaurado.carregarSnapshot();
+
+        // Assert
+        assertTrue(restaurado.avaliarEAtualizar(venda(7L, TurnoEnum.NOITE, "5000.00", TipoPagamentoEnum.DINHEIRO)));
+    }
+
+    private static DetectorAnomaliaOperador detector(String arquivoSnapshot) {
+        return new DetectorAnomaliaOperador(new SimpleMeterRegistry(), true, 0.05, 3.0, 0.02, 30, 1024,
+                arquivoSnapshot);
+    }
+
+    // Vendas em dinheiro alternando entre R$ 90,00 e R$ 110,00
+    private static void construirLinhaDeBase(DetectorAnomaliaOperador detector, long operadorId, TurnoEnum turno) {
+        for (int i = 0; i < 100; i++) {
+            String valor = i % 2 == 0 ? "90.00" : "110.00";
+            detector.avaliarEAtualizar(venda(operadorId, turno, valor, TipoPagamentoEnum.DINHEIRO));
+        }
+    }
+
+    private static ContextoRisco venda(long operadorId, TurnoEnum turno, String valor, TipoPagamentoEnum tipo) {
+        return new ContextoRisco(new BigDecimal(valor), tipo, turno, operadorId, LocalDateTime.now());
+    }
+}
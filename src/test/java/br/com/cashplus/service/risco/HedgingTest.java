@@ -0,0 +1,167 @@
+package br.com.cashplus.service.risco;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingTest {
+
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final AtomicInteger canceladas = new AtomicInteger();
+
+    /**
+     * Primeira chamada demora 2s; as seguintes respondem em 10ms.
+     */
+    private Mono<String> chamadaComPrimeiraLenta() {
+        return Mono.defer(() -> {
+            int numero = chamadas.incrementAndGet();
+            Duration atraso = numero == 1 ? Duration.ofSeconds(2) : Duration.ofMillis(10);
+            return Mono.delay(atraso)
+                    .map(tick -> "resposta-" + numero)
+                    .doOnCancel(canceladas::incrementAndGet);
+        });
+    }
+
+    @Test
+    @DisplayName("Deve enviar chamada extra após o atraso e usar a primeira resposta")
+    void aplicar_DeveUsarChamadaExtra_QuandoOriginalDemora() {
+        // Arrange
+        Hedging hedging = new Hedging(true, Duration.ofMillis(50), false, 5, 1);
+
+        // Act
+        long inicio = System.nanoTime();
+        String resposta = hedging.aplicar(chamadaComPrimeiraLenta()).block(Duration.ofSeconds(5));
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // Assert
+        assertEquals("resposta-2", resposta);
+        assertTrue(duracaoMs < 1000, "Resposta demorou " + duracaoMs + "ms");
+        assertEquals(1, hedging.getEnviados());
+        assertEquals(1, hedging.getVencedores());
+        assertEquals(1, canceladas.get());
+    }
+
+    @Test
+    @DisplayName("Não deve enviar chamada extra quando o orçamento está esgotado")
+    void aplicar_NaoDeveEnviarChamadaExtra_QuandoSemOrcamento() {
+        // Arrange: orçamento de 1 hedge, já consumido
+        Hedging hedging = new Hedging(true, Duration.ofMillis(50), false, 5, 1);
+        hedging.aplicar(chamadaComPrimeiraLenta()).block(Duration.ofSeconds(5));
+        chamadas.set(0);
+
+        // Act
+        String resposta = hedging.aplicar(chamadaComPrimeiraLenta()).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals("resposta-1", resposta);
+        assertEquals(1, chamadas.get());
+        assertEquals(1, hedging.getEnviados());
+    }
+
+    @Test
+    @DisplayName("Deve manter a resposta original quando a chamada extra falha")
+    void aplicar_DeveIgnorarFalhaDaChamadaExtra() {
+        // Arrange
+        Hedging hedging = new Hedging(true, Duration.ofMillis(20), false, 5, 1);
+        Mono<String> chamada = Mono.defer(() -> chamadas.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(200)).thenReturn("original")
+                : Mono.error(new IllegalStateException("falha")));
+
+        // Act & Assert
+        assertEquals("original", hedging.aplicar(chamada).block(Duration.ofSeconds(5)));
+        assertEquals(0, hedging.getVencedores());
+    }
+
+    @Test
+    @DisplayName("Deve usar a chamada extra quando a original falha depois do atraso")
+    void aplicar_DeveUsarChamadaExtra_QuandoOriginalFalhaDepoisDoAtraso() {
+        // Arrange: a original falha em 100ms; a extra, enviada em 20ms, responde em 150ms
+        Hedging hedging = new Hedging(true, Duration.ofMillis(20), false, 5, 1);
+        Mono<String> chamada = Mono.defer(() -> chamadas.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("falha")))
+                : Mono.delay(Duration.ofMillis(150)).thenReturn("extra"));
+
+        // Act & Assert
+        assertEquals("extra", hedging.aplicar(chamada).block(Duration.ofSeconds(5)));
+        assertEquals(1, hedging.getVencedores());
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha da original sem enviar a chamada extra quando falha antes do atraso")
+    void aplicar_DevePropagarFalha_QuandoOriginalFalhaAntesDoAtraso() {
+        // Arrange
+        Hedging hedging = new Hedging(true, Duration.ofMillis(500), false, 5, 1);
+        Mono<String> chamada = Mono.defer(() -> {
+            chamadas.incrementAndGet();
+            return Mono.error(new IllegalStateException("falha"));
+        });
+
+        // Act
+        long inicio = System.nanoTime();
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> hedging.aplicar(chamada).block(Duration.ofSeconds(5)));
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // Assert
+        assertEquals("falha", erro.getMessage());
+        assertTrue(duracaoMs < 400, "Falha demorou " + duracaoMs + "ms");
+        assertEquals(1, chamadas.get());
+        assertEquals(0, hedging.getEnviados());
+    }
+
+    /**
+     * A primeira assinatura (original) demora {@code atrasoOriginal}; a segunda (extra), {@code atrasoExtra}.
+     */
+    private static Mono<Integer> chamadaComAtrasos(int numero, Duration atrasoOriginal, Duration atrasoExtra) {
+        AtomicInteger assinaturas = new AtomicInteger();
+        return Mono.defer(() -> Mono.delay(assinaturas.incrementAndGet() == 1 ? atrasoOriginal : atrasoExtra)
+                .thenReturn(numero));
+    }
+
+    /**
+     * Uma a cada cinco chamadas usa {@code atrasoLentas} na original; as demais, {@code atrasoRapidas}.
+     */
+    private static void executar(Hedging hedging, int quantidade, Duration atrasoLentas,
+                                 Duration atrasoRapidas, Duration atrasoExtra) {
+        Flux.range(0, quantidade)
+                .flatMap(numero -> hedging.aplicar(chamadaComAtrasos(numero,
+                        numero % 5 == 0 ? atrasoLentas : atrasoRapidas, atrasoExtra)), 128)
+                .blockLast(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Não deve reduzir o atraso adaptativo quando as chamadas extras passam a vencer")
+    void aplicar_DeveManterP95_QuandoChamadasExtrasVencem() {
+        // Arrange: orçamento folgado; originais levam 50ms e sempre vencem a extra (200ms)
+        Hedging hedging = new Hedging(true, Duration.ofMillis(1), true, 100, 10_000);
+        executar(hedging, 640, Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMillis(200));
+        long atrasoInicial = hedging.atrasoAtualNanos();
+        assertTrue(atrasoInicial >= Duration.ofMillis(50).toNanos(), "p95 inicial " + atrasoInicial);
+
+        // Act: 20% das originais passam a levar 500ms e perdem para a extra (1ms); as demais, 5ms
+        executar(hedging, 1280, Duration.ofMillis(500), Duration.ofMillis(5), Duration.ofMillis(1));
+
+        // Assert: as canceladas continuam no p95 com o tempo até o cancelamento (>= 50ms),
+        // em vez de o p95 cair para a latência das rápidas (5ms)
+        assertTrue(hedging.getVencedores() > 0);
+        assertTrue(hedging.atrasoAtualNanos() >= Duration.ofMillis(40).toNanos(),
+                "p95 caiu de " + atrasoInicial + " para " + hedging.atrasoAtualNanos());
+    }
+
+    @Test
+    @DisplayName("Não deve alterar a chamada quando desabilitado")
+    void aplicar_DeveRetornarChamadaOriginal_QuandoDesabilitado() {
+        // Arrange
+        Hedging hedging = new Hedging(false, Duration.ofMillis(50), false, 5, 1);
+        Mono<String> chamada = Mono.just("original");
+
+        // Act & Assert
+        assertSame(chamada, hedging.aplicar(chamada));
+    }
+}
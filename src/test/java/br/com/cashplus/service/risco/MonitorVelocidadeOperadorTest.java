@@ -0,0 +1,115 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitorVelocidadeOperadorTest {
+
+    private final AtomicLong relogio = new AtomicLong(1_000_000_000L);
+    private MonitorVelocidadeOperador monitor;
+
+    @BeforeEach
+    void setUp() {
+        // Janela de 10 minutos: no máximo 3 vendas no cartão ou R$ 1.000,00
+        monitor = new MonitorVelocidadeOperador(new SimpleMeterRegistry(), true, Duration.ofMinutes(10), 10,
+                3, new BigDecimal("1000.00"), 100, relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve sinalizar quando o operador excede o número de vendas no cartão na janela")
+    void registrarEVerificar_DeveSinalizar_QuandoExcedeVendasNoCartao() {
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertFalse(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO)));
+            relogio.addAndGet(Duration.ofMinutes(1).toMillis());
+        }
+        assertTrue(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO)));
+        // Outro operador tem janela própria
+        assertFalse(monitor.registrarEVerificar(venda(2L, "10.00", TipoPagamentoEnum.CARTAO)));
+    }
+
+    @Test
+    @DisplayName("Deve esquecer as vendas que saíram da janela")
+    void registrarEVerificar_DeveDescartarVendasAntigas() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO));
+        }
+
+        // Act
+        relogio.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        // Assert
+        assertFalse(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO)));
+    }
+
+    @Test
+    @DisplayName("Deve sinalizar quando o valor total vendido na janela excede o limite")
+    void registrarEVerificar_DeveSinalizar_QuandoExcedeValorTotal() {
+        // Act & Assert
+        assertFalse(monitor.registrarEVerificar(venda(1L, "600.00", TipoPagamentoEnum.PIX)));
+        assertTrue(monitor.registrarEVerificar(venda(1L, "400.01", TipoPagamentoEnum.DINHEIRO)));
+    }
+
+    @Test
+    @DisplayName("Não deve considerar vendas sem operador")
+    void registrarEVerificar_DeveIgnorarVendaSemOperador() {
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertFalse(monitor.registrarEVerificar(venda(null, "900.00", TipoPagamentoEnum.CARTAO)));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve elevar o risco em um nível")
+    void elevar_DeveSubirUmNivel() {
+        assertEquals(RiscoFraudeEnum.MEDIO, monitor.elevar(RiscoFraudeEnum.BAIXO));
+        assertEquals(RiscoFraudeEnum.ALTO, monitor.elevar(RiscoFraudeEnum.MEDIO));
+        assertEquals(RiscoFraudeEnum.ALTO, monitor.elevar(RiscoFraudeEnum.ALTO));
+    }
+
+    @Test
+    @DisplayName("Deve contar a venda reprocessada na janela em que aconteceu")
+    void registrarEVerificar_DeveUsarDataHoraDaVenda() {
+        // Arrange: 3 vendas no cartão há 20 minutos, reprocessadas agora
+        LocalDateTime antiga = agora().minusMinutes(20);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO, antiga)));
+        }
+
+        // Act & Assert: fora da janela atual, não contam para a venda de agora
+        assertFalse(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO)));
+
+        // Dentro da janela, a venda antiga conta no seu bucket e não vê as posteriores
+        LocalDateTime recente = agora().minusMinutes(5);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO, recente)));
+        }
+        assertTrue(monitor.registrarEVerificar(venda(1L, "10.00", TipoPagamentoEnum.CARTAO)));
+    }
+
+    private LocalDateTime agora() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(relogio.get()), ZoneId.systemDefault());
+    }
+
+    private ContextoRisco venda(Long operadorId, String valor, TipoPagamentoEnum tipo) {
+        return venda(operadorId, valor, tipo, agora());
+    }
+
+    private static ContextoRisco venda(Long operadorId, String valor, TipoPagamentoEnum tipo, LocalDateTime dataHora) {
+        return new ContextoRisco(new BigDecimal(valor), tipo, null, operadorId, dataHora);
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.cashplus.service.risco;
+
+import br.com.cashplus.exception.BusinessException;
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorRegrasRiscoTest {
+
+    private static final LocalDateTime MEIO_DIA = LocalDateTime.of(2025, 1, 10, 12, 0);
+    private static final LocalDateTime MADRUGADA = LocalDateTime.of(2025, 1, 10, 2, 0);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Regras padrão devem manter os limites de 100 e 500 do cartão")
+    void avaliar_DeveAplicarRegrasPadrao() {
+        // Arrange
+        MotorRegrasRisco motor = new MotorRegrasRisco(new DefaultResourceLoader(), new ObjectMapper(),
+                "classpath:regras-risco-fraude.json");
+
+        // Act & Assert
+        assertEquals(RiscoFraudeEnum.BAIXO, motor.avaliar(contexto("99.99", TipoPagamentoEnum.CARTAO, null, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.MEDIO, motor.avaliar(contexto("100.00", TipoPagamentoEnum.CARTAO, null, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.MEDIO, motor.avaliar(contexto("500.00", TipoPagamentoEnum.CARTAO, null, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.ALTO, motor.avaliar(contexto("500.01", TipoPagamentoEnum.CARTAO, null, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.BAIXO, motor.avaliar(contexto("9999.00", TipoPagamentoEnum.PIX, null, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.BAIXO,
+                motor.avaliar(contexto("9999.00", TipoPagamentoEnum.DINHEIRO, TurnoEnum.NOITE, MADRUGADA)));
+        assertEquals(RiscoFraudeEnum.MEDIO, motor.avaliar(contexto("10.00", null, null, MEIO_DIA)));
+    }
+
+    @Test
+    @DisplayName("Regras por turno e horário devem prevalecer sobre a regra geral do tipo")
+    void avaliar_DeveAplicarRegraMaisEspecifica() throws IOException {
+        // Arrange: cartão no turno da noite entre 22h e 6h tem limites menores
+        Path arquivo = escrever("""
+                {"regras": [
+                  {"tipoPagamento": "CARTAO", "limiteMedio": 100.00, "limiteAlto": 500.00},
+                  {"tipoPagamento": "CARTAO", "turno": "NOITE", "horaInicio": 22, "horaFim": 6,
+                   "limiteMedio": 50.00, "limiteAlto": 200.00},
+                  {"tipoPagamento": "PIX", "horaInicio": 0, "horaFim": 5, "risco": "MEDIO"}
+                ]}
+                """);
+        MotorRegrasRisco motor = new MotorRegrasRisco(new DefaultResourceLoader(), new ObjectMapper(),
+                "file:" + arquivo);
+
+        // Act & Assert
+        assertEquals(RiscoFraudeEnum.ALTO,
+                motor.avaliar(contexto("300.00", TipoPagamentoEnum.CARTAO, TurnoEnum.NOITE, MADRUGADA)));
+        assertEquals(RiscoFraudeEnum.MEDIO,
+                motor.avaliar(contexto("300.00", TipoPagamentoEnum.CARTAO, TurnoEnum.NOITE, MEIO_DIA)));
+        assertEquals(RiscoFraudeEnum.MEDIO,
+                motor.avaliar(contexto("300.00", TipoPagamentoEnum.CARTAO, TurnoEnum.MANHA, MADRUGADA)));
+        assertEquals(RiscoFraudeEnum.MEDIO,
+                motor.avaliar(contexto("10.00", TipoPagamentoEnum.PIX, null, MADRUGADA)));
+        // Tipo sem regra usa o risco padrão
+        assertEquals(RiscoFraudeEnum.MEDIO,
+                motor.avaliar(contexto("10.00", TipoPagamentoEnum.PIX, null, MEIO_DIA)));
+    }
+
+    @Test
+    @DisplayName("Deve trocar as regras na recarga e manter a versão em uso se o arquivo for inválido")
+    void recarregar_DeveManterVersaoEmUso_QuandoRegrasInvalidas() throws IOException {
+        // Arrange
+        Path arquivo = escrever("""
+                {"regras": [{"tipoPagamento": "CARTAO", "limiteMedio": 100.00, "limiteAlto": 500.00}]}
+                """);
+        MotorRegrasRisco motor = new MotorRegrasRisco(new DefaultResourceLoader(), new ObjectMapper(),
+                "file:" + arquivo);
+        RegrasRiscoCompiladas versaoInicial = motor.getRegras();
+
+        // Act: nova versão válida
+        Files.writeString(arquivo, """
+                {"regras": [{"tipoPagamento": "CARTAO", "limiteMedio": 10.00, "limiteAlto": 50.00}]}
+                """);
+        motor.recarregar();
+
+        // Assert
+        assertNotSame(versaoInicial, motor.getRegras());
+        assertEquals(RiscoFraudeEnum.ALTO, motor.avaliar(contexto("60.00", TipoPagamentoEnum.CARTAO, null, MEIO_DIA)));
+
+        // Act: versão inválida (limite médio maior que o alto)
+        RegrasRiscoCompiladas versaoValida = motor.getRegras();
+        Files.writeString(arquivo, """
+                {"regras": [{"tipoPagamento": "CARTAO", "limiteMedio": 900.00, "limiteAlto": 50.00}]}
+                """);
+
+        // Assert
+        assertThrows(BusinessException.class, motor::recarregar);
+        assertSame(versaoValida, motor.getRegras());
+    }
+
+    private Path escrever(String conteudo) throws IOException {
+        Path arquivo = diretorio.resolve("regras.json");
+        Files.writeString(arquivo, conteudo);
+        return arquivo;
+    }
+
+    private static ContextoRisco contexto(String valor, TipoPagamentoEnum tipo, TurnoEnum turno,
+                                          LocalDateTime dataHora) {
+        return new ContextoRisco(new BigDecimal(valor), tipo, turno, null, dataHora);
+    }
+}
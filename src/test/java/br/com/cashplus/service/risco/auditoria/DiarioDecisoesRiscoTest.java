@@ -0,0 +1,215 @@
+package br.com.cashplus.service.risco.auditoria;
+
+import br.com.cashplus.model.enums.RiscoFraudeEnum;
+import br.com.cashplus.model.enums.TipoPagamentoEnum;
+import br.com.cashplus.model.enums.TurnoEnum;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco.Camada;
+import br.com.cashplus.service.risco.auditoria.RegistroDecisaoRisco.MotivoFallback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiarioDecisoesRiscoTest {
+
+    private static final long INICIO = 1_700_000_000_000L;
+
+    @TempDir
+    Path diretorio;
+
+    private final AtomicLong relogio = new AtomicLong(INICIO);
+
+    @Test
+    @DisplayName("Deve gravar as decisões e lê-las de volta com todos os campos")
+    void registrar_DeveGravarEConsultarDecisoes() throws InterruptedException {
+        // Arrange
+        DiarioDecisoesRisco diario = diario(64 * 1024);
+        diario.iniciar();
+
+        // Act
+        diario.registrar(new RegistroDecisaoRisco(INICIO, 7L, 15000, TipoPagamentoEnum.CARTAO, TurnoEnum.NOITE,
+                Camada.REMOTA, RiscoFraudeEnum.MEDIO, RiscoFraudeEnum.ALTO, 87, "Padrão suspeito",
+                MotivoFallback.NENHUM, true, false, RiscoFraudeEnum.ALTO, 1234));
+        diario.registrar(new RegistroDecisaoRisco(INICIO + 1, null, 500, TipoPagamentoEnum.PIX, null,
+                Camada.FALLBACK, RiscoFraudeEnum.BAIXO, null, null, null,
+                MotivoFallback.SEM_RESPOSTA, false, true, RiscoFraudeEnum.MEDIO, 5_000_000));
+        diario.parar();
+
+        // Assert
+        List<RegistroDecisaoRisco> registros = diario.consultar(null, null, null, 10);
+        assertEquals(2, registros.size());
+
+        RegistroDecisaoRisco remota = registros.get(0);
+        assertEquals(INICIO, remota.getInstanteMillis());
+        assertEquals(7L, remota.getOperadorId());
+        assertEquals(15000, remota.getCentavos());
+        assertEquals(TipoPagamentoEnum.CARTAO, remota.getTipoPagamento());
+        assertEquals(TurnoEnum.NOITE, remota.getTurno());
+        assertEquals(Camada.REMOTA, remota.getCamada());
+        assertEquals(RiscoFraudeEnum.MEDIO, remota.getRiscoLocal());
+        assertEquals(RiscoFraudeEnum.ALTO, remota.getRiscoRemoto());
+        assertEquals(87, remota.getScoreRemoto());
+        assertEquals("Padrão suspeito", remota.getMensagemRemota());
+        assertTrue(remota.isVelocidadeExcedida());
+        assertFalse(remota.isAnomalia());
+        assertEquals(1234, remota.getLatenciaMicros());
+
+        RegistroDecisaoRisco fallback = registros.get(1);
+        assertNull(fallback.getOperadorId());
+        assertNull(fallback.getTurno());
+        assertNull(fallback.getRiscoRemoto());
+        assertNull(fallback.getScoreRemoto());
+        assertNull(fallback.getMensagemRemota());
+        assertEquals(MotivoFallback.SEM_RESPOSTA, fallback.getMotivoFallback());
+        assertTrue(fallback.isAnomalia());
+        assertEquals(RiscoFraudeEnum.MEDIO, fallback.getRiscoFinal());
+
+        assertEquals(1, diario.consultar(null, null, 7L, 10).size());
+    }
+
+    @Test
+    @DisplayName("Deve trocar de segmento quando o atual enche e apagar segmentos fora da retenção")
+    void registrar_DeveRolarSegmentosEAplicarRetencao() throws InterruptedException {
+        // Arrange: segmentos mínimos, com poucos registros cada
+        DiarioDecisoesRisco diario = diario(1);
+        diario.iniciar();
+        for (int i = 0; i < 50; i++) {
+            relogio.incrementAndGet();
+            diario.registrar(decisao(relogio.get(), i));
+        }
+        diario.parar();
+        int segmentosAntigos = LeitorDiarioDecisoes.listarSegmentos(diretorio).size();
+        assertTrue(segmentosAntigos > 1);
+        List<RegistroDecisaoRisco> todos = diario.consultar(null, null, null, 100);
+        assertEquals(50, todos.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, todos.get(i).getOperadorId());
+        }
+
+        // Act: reinício depois da retenção abre um segmento novo e remove os antigos
+        relogio.addAndGet(Duration.ofDays(2).toMillis());
+        DiarioDecisoesRisco reiniciado = diario(1);
+        reiniciado.iniciar();
+        reiniciado.registrar(decisao(relogio.get(), 99));
+        reiniciado.parar();
+
+        // Assert: resta apenas o último segmento antigo (o sucessor é recente) e o novo
+        assertEquals(2, LeitorDiarioDecisoes.listarSegmentos(diretorio).size());
+        List<RegistroDecisaoRisco> restantes = reiniciado.consultar(null, null, null, 100);
+        assertEquals(99L, restantes.get(restantes.size() - 1).getOperadorId());
+        assertTrue(restantes.size() < 50);
+    }
+
+    @Test
+    @DisplayName("Deve encontrar pelo período as decisões gravadas com a fila atrasada")
+    void consultar_DeveConsiderarInstanteDosRegistros_QuandoGravacaoAtrasada() throws InterruptedException {
+        // Arrange: decisões de INICIO a INICIO + 29 gravadas um minuto depois, em vários segmentos
+        relogio.set(INICIO + Duration.ofMinutes(1).toMillis());
+        DiarioDecisoesRisco diario = diario(1);
+        diario.iniciar();
+        for (int i = 0; i < 30; i++) {
+            diario.registrar(decisao(INICIO + i, i));
+        }
+        diario.parar();
+        assertTrue(LeitorDiarioDecisoes.listarSegmentos(diretorio).size() > 1);
+
+        // Act
+        List<RegistroDecisaoRisco> ateOFim = diario.consultar(null, paraData(INICIO + 29), null, 100);
+        List<RegistroDecisaoRisco> doMeio = diario.consultar(paraData(INICIO + 20), null, null, 100);
+
+        // Assert
+        assertEquals(30, ateOFim.size());
+        assertEquals(10, doMeio.size());
+        assertEquals(20L, doMeio.get(0).getOperadorId());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar um registro corrompido no fim do segmento")
+    void consultar_DeveParar_QuandoRegistroCorrompido() throws InterruptedException, IOException {
+        // Arrange
+        DiarioDecisoesRisco diario = diario(64 * 1024);
+        diario.iniciar();
+        diario.registrar(decisao(INICIO, 1));
+        diario.registrar(decisao(INICIO + 1, 2));
+        diario.parar();
+
+        // Act: corrompe um byte do corpo do segundo registro
+        Path segmento = LeitorDiarioDecisoes.listarSegmentos(diretorio).get(0);
+        int tamanhoRegistro = FormatoDiario.CABECALHO_REGISTRO + 42;
+        long posicao = FormatoDiario.CABECALHO_SEGMENTO + tamanhoRegistro + FormatoDiario.CABECALHO_REGISTRO + 10;
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), posicao);
+        }
+
+        // Assert
+        List<RegistroDecisaoRisco> registros = diario.consultar(null, null, null, 10);
+        assertEquals(1, registros.size());
+        assertEquals(1L, registros.get(0).getOperadorId());
+    }
+
+    @Test
+    @DisplayName("A thread escritora ociosa deve dormir até o próximo registro")
+    void registrar_DeveAcordarEscritor_QuandoFilaOciosa() throws InterruptedException {
+        // Arrange: cada volta ociosa da escritora consulta o relógio
+        AtomicLong leiturasRelogio = new AtomicLong();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DiarioDecisoesRisco diario = new DiarioDecisoesRisco(registry, true, diretorio, 64 * 1024,
+                Duration.ofDays(1), 1000, 1000, () -> {
+                    leiturasRelogio.incrementAndGet();
+                    return relogio.get();
+                });
+        diario.iniciar();
+        diario.registrar(decisao(INICIO, 1));
+        aguardarGravados(registry, 1);
+        Thread.sleep(100);
+
+        // Act: ociosa, já sincronizada
+        long leiturasAntes = leiturasRelogio.get();
+        Thread.sleep(300);
+        long leiturasOciosa = leiturasRelogio.get() - leiturasAntes;
+        diario.registrar(decisao(INICIO + 1, 2));
+        aguardarGravados(registry, 2);
+        diario.parar();
+
+        // Assert
+        assertTrue(leiturasOciosa <= 1, "voltas da escritora ociosa: " + leiturasOciosa);
+        assertEquals(2, diario.consultar(null, null, null, 10).size());
+    }
+
+    private static void aguardarGravados(SimpleMeterRegistry registry, int esperados) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (registry.counter("risco.fraude.auditoria.gravados").count() < esperados) {
+            assertTrue(System.nanoTime() < limite, "registro não gravado");
+            Thread.sleep(5);
+        }
+    }
+
+    private static LocalDateTime paraData(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private DiarioDecisoesRisco diario(long tamanhoSegmentoBytes) {
+        return new DiarioDecisoesRisco(new SimpleMeterRegistry(), true, diretorio, tamanhoSegmentoBytes,
+                Duration.ofDays(1), 1000, 1000, relogio::get);
+    }
+
+    private static RegistroDecisaoRisco decisao(long instanteMillis, long operadorId) {
+        return new RegistroDecisaoRisco(instanteMillis, operadorId, 1000, TipoPagamentoEnum.DINHEIRO,
+                TurnoEnum.MANHA, Camada.LOCAL, RiscoFraudeEnum.BAIXO, null, null, null,
+                MotivoFallback.NENHUM, false, false, RiscoFraudeEnum.BAIXO, 10);
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.cashplus.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConjuntoLongsTest {
+
+    @Test
+    @DisplayName("Deve se comportar como um HashSet em inclusões e redimensionamentos")
+    void operacoes_DevemEquivalerAHashSet() {
+        // Arrange: valores concentrados para forçar colisões e agrupamentos longos
+        ConjuntoLongs conjunto = new ConjuntoLongs(8);
+        Set<Long> referencia = new HashSet<>();
+        Random random = new Random(42);
+
+        // Act & Assert
+        for (int i = 0; i < 20_000; i++) {
+            long valor = random.nextInt(5_000) * 1024L;
+            assertEquals(referencia.add(valor), conjunto.adicionar(valor));
+        }
+        assertEquals(referencia.size(), conjunto.tamanho());
+        for (long valor = 0; valor < 5_000 * 1024L; valor += 1024) {
+            assertEquals(referencia.contains(valor), conjunto.contem(valor));
+        }
+        assertThrows(IllegalArgumentException.class, () -> conjunto.adicionar(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("Leituras concorrentes com escritas não devem perder valores estáveis")
+    void contem_DeveEncontrarValoresEstaveis_DuranteEscritas() throws InterruptedException {
+        // Arrange: valores pares já estão no conjunto; os ímpares entram e forçam redimensionamentos
+        ConjuntoLongs conjunto = new ConjuntoLongs(16);
+        for (long valor = 0; valor < 20_000; valor += 2) {
+            conjunto.adicionar(valor);
+        }
+        AtomicBoolean executando = new AtomicBoolean(true);
+        AtomicInteger falhas = new AtomicInteger();
+        Thread escritor = new Thread(() -> {
+            for (long valor = 1; valor < 400_000; valor += 2) {
+                conjunto.adicionar(valor);
+            }
+            executando.set(false);
+        });
+        Thread leitor = new Thread(() -> {
+            while (executando.get()) {
+                for (long valor = 0; valor < 20_000; valor += 2) {
+                    if (!conjunto.contem(valor)) {
+                        falhas.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // Act
+        leitor.start();
+        escritor.start();
+        escritor.join();
+        leitor.join();
+
+        // Assert
+        assertEquals(0, falhas.get());
+        assertEquals(210_000, conjunto.tamanho());
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.cashplus.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySessionManagerTest {
+
+    private final AtomicLong relogio = new AtomicLong(1_000_000_000L);
+    private InMemorySessionManager sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = new InMemorySessionManager(Duration.ofMinutes(30), Duration.ofSeconds(5), relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar a sessão criada e recusar tokens desconhecidos ou malformados")
+    void isValidSession_DeveValidarToken() {
+        // Arrange
+        String token = sessionManager.createSession("operador1");
+
+        // Act & Assert
+        assertTrue(sessionManager.isValidSession(token));
+        assertTrue(sessionManager.isValidSession(token.toUpperCase()));
+        assertFalse(sessionManager.isValidSession(UUID.randomUUID().toString()));
+        assertFalse(sessionManager.isValidSession("token-invalido"));
+        assertFalse(sessionManager.isValidSession("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+        assertFalse(sessionManager.isValidSession(""));
+        assertFalse(sessionManager.isValidSession(null));
+    }
+
+    @Test
+    @DisplayName("Deve expirar a sessão após o timeout sem acesso e renovar a cada acesso")
+    void isValidSession_DeveExpirarPorInatividade() {
+        // Arrange
+        String token = sessionManager.createSession("operador1");
+
+        // Act & Assert: acessos a cada 20 minutos mantêm a sessão
+        avancar(Duration.ofMinutes(20));
+        assertTrue(sessionManager.isValidSession(token));
+        avancar(Duration.ofMinutes(20));
+        assertTrue(sessionManager.isValidSession(token));
+
+        avancar(Duration.ofMinutes(31));
+        assertFalse(sessionManager.isValidSession(token));
+        assertEquals(0, sessionManager.getActiveSessionCount());
+    }
+
+    @Test
+    @DisplayName("Deve remover pela roda de tempo só as sessões expiradas")
+    void cleanupExpiredSessions_DeveRemoverApenasExpiradas() {
+        // Arrange
+        String ociosa = sessionManager.createSession("operador1");
+        String ativa = sessionManager.createSession("operador2");
+
+        // Act: a sessão ativa é acessada a cada 10 minutos e a roda avança a cada tick
+        for (int minuto = 1; minuto <= 40; minuto++) {
+            avancar(Duration.ofMinutes(1));
+            if (minuto % 10 == 0) {
+                assertTrue(sessionManager.isValidSession(ativa));
+            }
+            sessionManager.cleanupExpiredSessions();
+        }
+
+        // Assert
+        assertEquals(1, sessionManager.getActiveSessionCount());
+        assertTrue(sessionManager.isValidSession(ativa));
+        assertFalse(sessionManager.isValidSession(ociosa));
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a sessão")
+    void invalidateSession_DeveRemoverSessao() {
+        // Arrange
+        String token = sessionManager.createSession("operador1");
+
+        // Act
+        sessionManager.invalidateSession(token);
+        avancar(Duration.ofHours(1));
+        sessionManager.cleanupExpiredSessions();
+
+        // Assert
+        assertFalse(sessionManager.isValidSession(token));
+        assertEquals(0, sessionManager.getActiveSessionCount());
+    }
+
+    @Test
+    @DisplayName("Deve restaurar do snapshot só as sessões dentro do prazo, contando o tempo fora do ar")
+    void carregarSnapshot_DeveRestaurarSessoesValidas(@TempDir Path diretorio) {
+        // Arrange
+        Path arquivo = diretorio.resolve("sessoes.bin");
+        AtomicLong parede = new AtomicLong(1_700_000_000_000L);
+        InMemorySessionManager anterior = new InMemorySessionManager(Duration.ofMinutes(30), Duration.ofSeconds(5),
+                arquivo, relogio::get, parede::get);
+        String antiga = anterior.createSession("operador1");
+        avancar(Duration.ofMinutes(20));
+        parede.addAndGet(Duration.ofMinutes(20).toMillis());
+        String recente = anterior.createSession("operador2");
+        assertTrue(anterior.isValidSession(recente));
+
+        // Act: desliga, fica 5 minutos fora do ar e sobe com outro relógio monotônico
+        anterior.gravarSnapshot();
+        parede.addAndGet(Duration.ofMinutes(5).toMillis());
+        AtomicLong novoRelogio = new AtomicLong(42);
+        InMemorySessionManager reiniciado = new InMemorySessionManager(Duration.ofMinutes(30),
+                Duration.ofSeconds(5), arquivo, novoRelogio::get, parede::get);
+        reiniciado.carregarSnapshot();
+
+        // Assert: a antiga tem 25 minutos de inatividade e expira em 5; a recente, em 25
+        assertFalse(Files.exists(arquivo));
+        assertEquals(2, reiniciado.getActiveSessionCount());
+        novoRelogio.addAndGet(Duration.ofMinutes(6).toNanos());
+        assertFalse(reiniciado.isValidSession(antiga));
+        assertTrue(reiniciado.isValidSession(recente));
+
+        // Sessões vencidas durante a parada não são carregadas
+        reiniciado.gravarSnapshot();
+        parede.addAndGet(Duration.ofMinutes(31).toMillis());
+        InMemorySessionManager vencido = new InMemorySessionManager(Duration.ofMinutes(30),
+                Duration.ofSeconds(5), arquivo, novoRelogio::get, parede::get);
+        vencido.carregarSnapshot();
+        assertEquals(0, vencido.getActiveSessionCount());
+    }
+
+    private void avancar(Duration duracao) {
+        relogio.addAndGet(duracao.toNanos());
+    }
+}
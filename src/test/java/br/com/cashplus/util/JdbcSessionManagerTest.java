@@ -0,0 +1,112 @@
+package br.com.cashplus.util;
+
+import br.com.cashplus.repository.SessaoJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcSessionManagerTest {
+
+    private static final long INICIO = 1_700_000_000_000L;
+
+    @Mock
+    private SessaoJdbcRepository sessaoRepository;
+
+    private final AtomicLong relogio = new AtomicLong(INICIO);
+    private JdbcSessionManager sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = new JdbcSessionManager(sessaoRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(30), Duration.ofSeconds(5), 1000, relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve validar pelo near-cache e consultar o banco só após o TTL ou para tokens desconhecidos")
+    void isValidSession_DeveUsarNearCache() {
+        // Arrange
+        String token = sessionManager.createSession("operador1");
+        verify(sessaoRepository).inserir(eq(token), eq("operador1"), eq(INICIO));
+        String desconhecido = UUID.randomUUID().toString();
+        when(sessaoRepository.buscarUltimoAcesso(desconhecido)).thenReturn(null);
+
+        // Act & Assert: dentro do TTL nenhuma leitura, ausências também ficam em cache
+        assertTrue(sessionManager.isValidSession(token));
+        assertTrue(sessionManager.isValidSession(token));
+        assertFalse(sessionManager.isValidSession(desconhecido));
+        assertFalse(sessionManager.isValidSession(desconhecido));
+        assertFalse(sessionManager.isValidSession("token-invalido"));
+        verify(sessaoRepository, never()).buscarUltimoAcesso(token);
+        verify(sessaoRepository, times(1)).buscarUltimoAcesso(desconhecido);
+
+        // Após o TTL, a sessão é recarregada do banco (gravada por outro nó, por exemplo)
+        relogio.addAndGet(Duration.ofSeconds(6).toMillis());
+        when(sessaoRepository.buscarUltimoAcesso(token)).thenReturn(relogio.get() - 1000);
+        assertTrue(sessionManager.isValidSession(token));
+        assertTrue(sessionManager.isValidSession(token));
+        verify(sessaoRepository, times(1)).buscarUltimoAcesso(token);
+    }
+
+    @Test
+    @DisplayName("Deve acumular os acessos e gravá-los em um único batch por ciclo")
+    @SuppressWarnings("unchecked")
+    void flushPendingAccesses_DeveGravarAcessosEmBatch() {
+        // Arrange
+        String token1 = sessionManager.createSession("operador1");
+        String token2 = sessionManager.createSession("operador2");
+
+        // Act: vários acessos em segundos diferentes
+        for (int i = 0; i < 4; i++) {
+            relogio.addAndGet(1500);
+            assertTrue(sessionManager.isValidSession(token1));
+            assertTrue(sessionManager.isValidSession(token2));
+        }
+        sessionManager.flushPendingAccesses();
+        sessionManager.flushPendingAccesses();
+
+        // Assert: só o último acesso de cada sessão, em uma única gravação
+        ArgumentCaptor<Map<String, Long>> acessos = ArgumentCaptor.forClass(Map.class);
+        verify(sessaoRepository, times(1)).atualizarUltimosAcessos(acessos.capture());
+        assertEquals(Map.of(token1, relogio.get(), token2, relogio.get()), acessos.getValue());
+    }
+
+    @Test
+    @DisplayName("Deve recusar sessões expiradas ou invalidadas e limpar o banco em lotes")
+    void isValidSession_DeveRecusarExpiradasEInvalidadas() {
+        // Arrange
+        String expirada = UUID.randomUUID().toString();
+        when(sessaoRepository.buscarUltimoAcesso(expirada))
+                .thenReturn(INICIO - Duration.ofMinutes(31).toMillis());
+        String token = sessionManager.createSession("operador1");
+        when(sessaoRepository.removerExpiradas(anyLong(), anyInt())).thenReturn(1000, 3);
+
+        // Act
+        sessionManager.invalidateSession(token);
+        sessionManager.cleanupExpiredSessions();
+
+        // Assert
+        assertFalse(sessionManager.isValidSession(expirada));
+        assertFalse(sessionManager.isValidSession(expirada));
+        assertFalse(sessionManager.isValidSession(token));
+        verify(sessaoRepository).remover(token);
+        verify(sessaoRepository, times(1)).buscarUltimoAcesso(expirada);
+        verify(sessaoRepository, never()).buscarUltimoAcesso(token);
+        verify(sessaoRepository, times(2)).removerExpiradas(
+                eq(INICIO - Duration.ofMinutes(31).toMillis()), eq(1000));
+    }
+}
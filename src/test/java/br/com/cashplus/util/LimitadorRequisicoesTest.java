@@ -0,0 +1,82 @@
+package br.com.cashplus.util;
+
+import br.com.cashplus.util.LimitadorRequisicoes.Dimensao;
+import br.com.cashplus.util.LimitadorRequisicoes.Regra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorRequisicoesTest {
+
+    private static final String ROTAS = "POST /api/transacoes/**=10:20,2:3;/api/**=5:5,0;/sessao/**=0,1:2";
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LimitadorRequisicoes limitador =
+            new LimitadorRequisicoes(meterRegistry, true, ROTAS, 1000, relogio::get);
+
+    @Test
+    @DisplayName("Deve escolher a primeira regra que casar com método e caminho")
+    void regraPara_DeveUsarPrimeiraRegraQueCasar() {
+        assertEquals("POST /api/transacoes/**", limitador.regraPara("POST", "/api/transacoes/lote").getRota());
+        assertEquals("/api/**", limitador.regraPara("GET", "/api/transacoes").getRota());
+        assertEquals("/sessao/**", limitador.regraPara("POST", "/sessao/criar").getRota());
+        assertNull(limitador.regraPara("GET", "/actuator/health"));
+        assertNull(new LimitadorRequisicoes(meterRegistry, false, ROTAS, 1000, relogio::get)
+                .regraPara("GET", "/api/operadores"));
+    }
+
+    @Test
+    @DisplayName("Deve permitir a rajada, recusar o excesso e repor os tokens com o tempo")
+    void consumir_DevePermitirRajadaERepor() {
+        // Arrange: 2 requisições/s com rajada de 3 por endereço
+        Regra regra = limitador.regraPara("POST", "/api/transacoes");
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1"));
+        }
+        long espera = limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1");
+        assertEquals(Duration.ofMillis(500).toNanos(), espera);
+
+        // Outro endereço tem o próprio balde
+        assertEquals(0, limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.2"));
+
+        relogio.addAndGet(espera - 1);
+        assertTrue(limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1") > 0);
+        relogio.incrementAndGet();
+        assertEquals(0, limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1"));
+
+        // Depois de ocioso, o balde volta cheio
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1"));
+        }
+
+        assertEquals(2, meterRegistry.get("limite.requisicoes.rejeitadas")
+                .tag("rota", "POST /api/transacoes/**").tag("dimensao", "endereco").counter().count());
+        assertTrue(meterRegistry.get("limite.requisicoes.rajada")
+                .tag("rota", "POST /api/transacoes/**").tag("dimensao", "endereco").counter().count() > 0);
+    }
+
+    @Test
+    @DisplayName("Não deve limitar a dimensão desativada na regra")
+    void consumir_NaoDeveLimitar_QuandoDimensaoDesativada() {
+        // Arrange
+        Regra regra = limitador.regraPara("GET", "/api/operadores");
+
+        // Act & Assert: /api/** limita só por sessão (5/s, rajada 5)
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limitador.consumir(regra, Dimensao.ENDERECO, "10.0.0.1"));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.consumir(regra, Dimensao.SESSAO, "token"));
+        }
+        assertTrue(limitador.consumir(regra, Dimensao.SESSAO, "token") > 0);
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.cashplus.util;
+
+import br.com.cashplus.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenSessionManagerTest {
+
+    private static final byte[] CHAVE_1 = chave(1);
+    private static final byte[] CHAVE_2 = chave(2);
+
+    private final AtomicLong relogio = new AtomicLong(1_700_000_000_000L);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve aceitar o token emitido e recusar tokens adulterados ou malformados")
+    void isValidSession_DeveValidarAssinatura() {
+        // Arrange
+        SignedTokenSessionManager sessionManager = sessionManager(Map.of("k1", CHAVE_1), "k1", 100);
+        String token = sessionManager.createSession("operador1");
+        int fimPayload = token.lastIndexOf('.');
+        char ultimo = token.charAt(fimPayload - 1);
+        String adulterado = token.substring(0, fimPayload - 1) + (ultimo == 'A' ? 'B' : 'A')
+                + token.substring(fimPayload);
+
+        // Act & Assert
+        assertTrue(sessionManager.isValidSession(token));
+        assertFalse(sessionManager.isValidSession(adulterado));
+        assertFalse(sessionManager.isValidSession(token.substring(0, token.length() - 1)));
+        assertFalse(sessionManager.isValidSession("k9" + token.substring(2)));
+        assertFalse(sessionManager.isValidSession("k1.@@@@.####"));
+        assertFalse(sessionManager.isValidSession("token-invalido"));
+        assertFalse(sessionManager.isValidSession(""));
+        assertFalse(sessionManager.isValidSession(null));
+
+        // Outro nó com a mesma chave valida o token sem estado compartilhado
+        assertTrue(sessionManager(Map.of("k1", CHAVE_1), "k1", 100).isValidSession(token));
+        assertFalse(sessionManager(Map.of("k1", CHAVE_2), "k1", 100).isValidSession(token));
+    }
+
+    @Test
+    @DisplayName("Deve expirar o token no prazo fixo da criação")
+    void isValidSession_DeveExpirarNoPrazo() {
+        // Arrange
+        SignedTokenSessionManager sessionManager = sessionManager(Map.of("k1", CHAVE_1), "k1", 100);
+        String token = sessionManager.createSession("operador1");
+
+        // Act & Assert
+        relogio.addAndGet(Duration.ofMinutes(30).toMillis());
+        assertTrue(sessionManager.isValidSession(token));
+        relogio.incrementAndGet();
+        assertFalse(sessionManager.isValidSession(token));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar tokens da chave anterior durante a rotação")
+    void isValidSession_DeveAceitarChaveAnterior_DuranteRotacao() {
+        // Arrange
+        String antigo = sessionManager(Map.of("k1", CHAVE_1), "k1", 100).createSession("operador1");
+        Map<String, byte[]> chaves = new LinkedHashMap<>();
+        chaves.put("k1", CHAVE_1);
+        chaves.put("k2", CHAVE_2);
+
+        // Act
+        SignedTokenSessionManager rotacionado = sessionManager(chaves, "k2", 100);
+        String novo = rotacionado.createSession("operador1");
+
+        // Assert
+        assertTrue(novo.startsWith("k2."));
+        assertTrue(rotacionado.isValidSession(antigo));
+        assertTrue(rotacionado.isValidSession(novo));
+        assertFalse(sessionManager(Map.of("k2", CHAVE_2), "k2", 100).isValidSession(antigo));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a invalidação com a lista cheia, sem reativar um token revogado")
+    void invalidateSession_DeveRecusar_QuandoListaCheiaDeTokensValidos() {
+        // Arrange
+        SignedTokenSessionManager sessionManager = sessionManager(Map.of("k1", CHAVE_1), "k1", 2);
+        String primeiro = sessionManager.createSession("operador1");
+        relogio.addAndGet(Duration.ofMinutes(1).toMillis());
+        String segundo = sessionManager.createSession("operador2");
+        String terceiro = sessionManager.createSession("operador3");
+
+        // Act
+        sessionManager.invalidateSession(primeiro);
+        sessionManager.invalidateSession(segundo);
+        sessionManager.invalidateSession("k1.token.forjado");
+        sessionManager.invalidateSession(segundo);
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> sessionManager.invalidateSession(terceiro));
+
+        // Assert: nenhuma revogação é descartada antes do prazo; a vaga abre quando o primeiro expira
+        assertEquals(2, sessionManager.getRevokedCount());
+        assertFalse(sessionManager.isValidSession(primeiro));
+        assertFalse(sessionManager.isValidSession(segundo));
+        assertTrue(sessionManager.isValidSession(terceiro));
+        assertEquals(29 * 60, exception.getRetryAfterSeconds());
+        assertEquals(1.0, registry.counter("sessao.revogacoes.recusadas").count());
+
+        relogio.addAndGet(Duration.ofMinutes(29).toMillis() + 1);
+        sessionManager.invalidateSession(terceiro);
+        assertFalse(sessionManager.isValidSession(terceiro));
+        assertFalse(sessionManager.isValidSession(segundo));
+
+        relogio.addAndGet(Duration.ofMinutes(2).toMillis());
+        sessionManager.cleanupExpiredSessions();
+        assertEquals(0, sessionManager.getRevokedCount());
+    }
+
+    private SignedTokenSessionManager sessionManager(Map<String, byte[]> chaves, String chaveAtiva,
+                                                     int maxRevogados) {
+        return new SignedTokenSessionManager(registry, chaves, chaveAtiva, Duration.ofMinutes(30), maxRevogados,
+                relogio::get);
+    }
+
+    private static byte[] chave(int semente) {
+        byte[] chave = new byte[32];
+        Arrays.fill(chave, (byte) semente);
+        return chave;
+    }
+}